@@ -1,11 +1,9 @@
 package com.auu_sw3_6.Himmerland_booking_software.api.controller;
 
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,6 +13,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
@@ -23,8 +22,15 @@ import com.auu_sw3_6.Himmerland_booking_software.api.model.Admin;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingDetails;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.ErrorResponse;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.LoginThrottleStats;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.PasswordHashingStats;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.PictureCacheStats;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.TenantSummary;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.BoundedPasswordEncoder;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.LoginThrottle;
 import com.auu_sw3_6.Himmerland_booking_software.service.AdminService;
+import com.auu_sw3_6.Himmerland_booking_software.service.PictureCache;
 import com.auu_sw3_6.Himmerland_booking_software.service.TenantService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -36,21 +42,49 @@ public class AdminController extends UserController<Admin> {
 
   private final AdminService adminService;
   private final TenantService tenantService;
+  private final BoundedPasswordEncoder passwordEncoder;
+  private final LoginThrottle loginThrottle;
+  private final PictureCache pictureCache;
 
   @Autowired
-  public AdminController(AdminService adminService, TenantService tenantService) {
+  public AdminController(AdminService adminService, TenantService tenantService,
+      BoundedPasswordEncoder passwordEncoder, LoginThrottle loginThrottle, PictureCache pictureCache) {
     super(adminService);
     this.adminService = adminService;
     this.tenantService = tenantService;
+    this.passwordEncoder = passwordEncoder;
+    this.loginThrottle = loginThrottle;
+    this.pictureCache = pictureCache;
   }
 
   @GetMapping(value = "/getAllTenants", produces = "application/json")
   @Operation(summary = "Get all tenants", description = "This endpoint returns all tenants except the admin.")
-  public ResponseEntity<List<Tenant>> getAllTenants() {
-    List<Tenant> tenants = tenantService.getAllTenants();
+  public ResponseEntity<List<TenantSummary>> getAllTenants() {
+    List<TenantSummary> tenants = tenantService.getAllTenants();
     return ResponseEntity.ok(tenants);
   }
 
+  @GetMapping(value = "/getPasswordHashingStats", produces = "application/json")
+  @Operation(summary = "Get password hashing stats", description = "This endpoint returns how many password hashes have been computed and rejected, "
+      + "how long they took, and how busy the hashing workers are right now.")
+  public ResponseEntity<PasswordHashingStats> getPasswordHashingStats() {
+    return ResponseEntity.ok(passwordEncoder.getStats());
+  }
+
+  @GetMapping(value = "/getLoginThrottleStats", produces = "application/json")
+  @Operation(summary = "Get login throttle stats", description = "This endpoint returns how many failed logins have been counted "
+      + "and how many login attempts were refused, together with the limits in use.")
+  public ResponseEntity<LoginThrottleStats> getLoginThrottleStats() {
+    return ResponseEntity.ok(loginThrottle.getStats());
+  }
+
+  @GetMapping(value = "/getPictureCacheStats", produces = "application/json")
+  @Operation(summary = "Get picture cache stats", description = "This endpoint returns the hit rate of the picture cache "
+      + "and how much memory the cached pictures take up.")
+  public ResponseEntity<PictureCacheStats> getPictureCacheStats() {
+    return ResponseEntity.ok(pictureCache.getStats());
+  }
+
   @DeleteMapping(value = "/deleteTenant/{id}")
   @Operation(summary = "Delete tenant", description = "This endpoint deletes a tenant.")
   public ResponseEntity<Void> deleteTenant(@PathVariable Long id) {
@@ -96,16 +130,13 @@ public class AdminController extends UserController<Admin> {
     return ResponseEntity.ok(tenant);
   }
 
-  @GetMapping(value = "/getTenant/{id}/profilePicture", produces = "application/json")
+  @GetMapping("/getTenant/{id}/profilePicture")
   @Operation(summary = "Get tenant profilepicture", description = "This endpoint returns a tenants profilepicture from an user id.")
-  public ResponseEntity<Object> getProfilePictureByID(@PathVariable long id) {
-    Optional<byte[]> imageBytesOptional = tenantService.getProfilePictureByUserId(id);
-    if (imageBytesOptional.isPresent()) {
-      return ResponseEntity.ok()
-          .contentType(MediaType.IMAGE_JPEG)
-          .body(imageBytesOptional.get());
-    }
-    return new ErrorResponse("Profile picture not found", HttpStatus.NOT_FOUND).send();
+  public ResponseEntity<Object> getProfilePictureByID(@PathVariable long id,
+      @RequestParam(value = PictureResponses.SIZE_PARAM, required = false) Integer size,
+      @RequestParam(value = PictureResponses.VERSION_PARAM, required = false) String version) {
+    return PictureResponses.of(tenantService.getProfilePictureByUserId(id, size), version,
+        "Profile picture not found");
   }
 
   @PutMapping("/addCaretakerName")
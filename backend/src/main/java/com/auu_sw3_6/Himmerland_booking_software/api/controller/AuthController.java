@@ -3,6 +3,7 @@ package com.auu_sw3_6.Himmerland_booking_software.api.controller;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
@@ -11,95 +12,151 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.LoginRequest;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.CustomUserDetails;
 import com.auu_sw3_6.Himmerland_booking_software.config.security.JwtUtil;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.LoginThrottle;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.TokenRevocationStore;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.TokenVersionRegistry;
 
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.annotation.security.PermitAll;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 
 @RestController
 public class AuthController {
 
+  private static final String JWT_COOKIE = "jwt";
+  private static final String REFRESH_COOKIE = "refreshToken";
+  // Both refresh and logout need the refresh token, so it is sent to the whole API
+  private static final String REFRESH_COOKIE_PATH = "/api";
+
   private final AuthenticationManager authenticationManager;
   private final JwtUtil jwtUtil;
+  private final TokenVersionRegistry tokenVersions;
+  private final TokenRevocationStore revokedTokens;
+  private final LoginThrottle loginThrottle;
 
   @Autowired
-  public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil) {
+  public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil,
+      TokenVersionRegistry tokenVersions, TokenRevocationStore revokedTokens, LoginThrottle loginThrottle) {
     this.authenticationManager = authenticationManager;
     this.jwtUtil = jwtUtil;
+    this.tokenVersions = tokenVersions;
+    this.revokedTokens = revokedTokens;
+    this.loginThrottle = loginThrottle;
   }
 
   @PermitAll
   @PostMapping(value = "/api/login", produces = "application/json")
   @Operation(summary = "Login", description = "Login to the system")
-  public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpServletResponse response) {
+  public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request,
+      HttpServletResponse response) {
+    // Checked before authenticating, so a blocked attempt never reaches the password hashing
+    String ip = request.getRemoteAddr();
+    if (loginThrottle.isBlocked(loginRequest.getUsername(), ip)) {
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+          .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginThrottle.secondsUntilNextWindow()))
+          .body(Map.of("error", "Too many failed login attempts, please try again later"));
+    }
+
     try {
 
       Authentication authentication = authenticationManager.authenticate(
           new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
 
-      SecurityContextHolder.getContext().setAuthentication(authentication);
-
       String role = authentication.getAuthorities().stream().findFirst().get().getAuthority();
-      String token = jwtUtil.generateToken(loginRequest.getUsername());
-
-      ResponseCookie jwtCookie = ResponseCookie.from("jwt", token)
-          .httpOnly(true)
-          .secure(true)
-          .path("/")
-          .maxAge(60 * 60 * 5) // 5 hours
-          .sameSite("none") // only for development, maybe
-          .build();
-
-      ResponseCookie authIndicatorCookie = ResponseCookie.from("authIndicator", role)
-          .httpOnly(false)
-          .secure(true)
-          .path("/")
-          .maxAge(60 * 60 * 5) // 5 hours
-          .sameSite("none") // only for development, maybe
-          .build();
-
-      response.addHeader("Set-Cookie", jwtCookie.toString());
-      response.addHeader("Set-Cookie", authIndicatorCookie.toString());
+      CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+      issueTokens(userDetails.getUserId(), userDetails.getUsername(), role, response);
 
       return ResponseEntity.ok(Map.of("message", "Login successful"));
 
     } catch (AuthenticationException e) {
+      loginThrottle.recordFailure(loginRequest.getUsername(), ip);
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid credentials"));
     }
   }
 
+  @PermitAll
+  @PostMapping(value = "/api/refresh", produces = "application/json")
+  @Operation(summary = "Refresh", description = "Issues a new access token and a new refresh token in exchange for the refresh token cookie, "
+      + "without asking for the password. Each refresh token can only be used once.")
+  public ResponseEntity<?> refresh(@CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken,
+      HttpServletResponse response) {
+    Claims claims = refreshToken == null ? null : jwtUtil.getVerifiedClaims(refreshToken);
+    CustomUserDetails userDetails = claims == null || !JwtUtil.isRefreshToken(claims) ? null
+        : CustomUserDetails.fromClaims(claims);
+    Integer tokenVersion = claims == null ? null : claims.get(JwtUtil.CLAIM_TOKEN_VERSION, Integer.class);
+
+    // Revoking the old refresh token first means a second request with the same token is turned away
+    if (userDetails == null || tokenVersion == null
+        || !tokenVersions.isCurrent(userDetails.getUserId(), tokenVersion) || !revokedTokens.revokeOnce(claims)) {
+      clearTokenCookies(response);
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid refresh token"));
+    }
+
+    String role = userDetails.getAuthorities().iterator().next().getAuthority();
+    issueTokens(userDetails.getUserId(), userDetails.getUsername(), role, response);
+    return ResponseEntity.ok(Map.of("message", "Refresh successful"));
+  }
+
   @PostMapping("/api/logout")
   @Operation(summary = "Logout", description = "Logout from the system")
-  public String logout(HttpServletRequest request, HttpServletResponse response) {
-    // Invalidate the session if it exists
-    HttpSession session = request.getSession(false);
-    if (session != null) {
-      session.invalidate();
+  public String logout(@CookieValue(name = JWT_COOKIE, required = false) String token,
+      @CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken, HttpServletResponse response) {
+    // There is no session to invalidate; revoke the tokens so they stop working even if the client keeps a copy
+    for (String issuedToken : new String[] { token, refreshToken }) {
+      Claims claims = issuedToken == null ? null : jwtUtil.getVerifiedClaims(issuedToken);
+      if (claims != null) {
+        revokedTokens.revoke(claims);
+      }
     }
-
-    // Clear the authentication
     SecurityContextHolder.clearContext();
 
-    // Clear the JWT cookie
-    ResponseCookie jwtCookie = ResponseCookie.from("jwt", "")
-        .httpOnly(true)
+    clearTokenCookies(response);
+
+    return "User has been logged out successfully.";
+  }
+
+  private void issueTokens(long userId, String username, String role, HttpServletResponse response) {
+    int tokenVersion = tokenVersions.currentVersion(userId);
+    String accessToken = jwtUtil.generateToken(userId, username, role, tokenVersion);
+    String refreshToken = jwtUtil.generateRefreshToken(userId, username, role, tokenVersion);
+    long accessMaxAge = secondsUntilExpiry(accessToken);
+    long refreshMaxAge = secondsUntilExpiry(refreshToken);
+
+    // The access cookie goes away with its token; the indicator lasts as long as the user can still refresh
+    response.addHeader("Set-Cookie", cookie(JWT_COOKIE, accessToken, "/", accessMaxAge, true).toString());
+    response.addHeader("Set-Cookie", cookie(REFRESH_COOKIE, refreshToken, REFRESH_COOKIE_PATH, refreshMaxAge, true).toString());
+    response.addHeader("Set-Cookie", cookie("authIndicator", role, "/", refreshMaxAge, false).toString());
+  }
+
+  private void clearTokenCookies(HttpServletResponse response) {
+    // Expire the cookies immediately
+    response.addHeader("Set-Cookie", cookie(JWT_COOKIE, "", "/", 0, true).toString());
+    response.addHeader("Set-Cookie", cookie(REFRESH_COOKIE, "", REFRESH_COOKIE_PATH, 0, true).toString());
+  }
+
+  private long secondsUntilExpiry(String token) {
+    long millis = jwtUtil.getVerifiedClaims(token).getExpiration().getTime() - System.currentTimeMillis();
+    return Math.max(0, millis / 1000);
+  }
+
+  private static ResponseCookie cookie(String name, String value, String path, long maxAgeSeconds, boolean httpOnly) {
+    return ResponseCookie.from(name, value)
+        .httpOnly(httpOnly)
         .secure(true)
-        .path("/")
-        .maxAge(0) // Expire the cookie immediately
+        .path(path)
+        .maxAge(maxAgeSeconds)
         .sameSite("none") // only for development, maybe
         .build();
-
-    response.addHeader("Set-Cookie", jwtCookie.toString());
-
-    return "User has been logged out successfully.";
   }
 
 }
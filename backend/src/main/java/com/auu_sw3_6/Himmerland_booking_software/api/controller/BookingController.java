@@ -1,9 +1,14 @@
 package com.auu_sw3_6.Himmerland_booking_software.api.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,14 +18,23 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
-import com.auu_sw3_6.Himmerland_booking_software.api.model.Resource;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingFilter;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPage;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingSummary;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.ErrorResponse;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+import com.auu_sw3_6.Himmerland_booking_software.service.BookingArchiveService;
 import com.auu_sw3_6.Himmerland_booking_software.service.BookingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 
 
 @RestController
@@ -29,21 +43,103 @@ import io.swagger.v3.oas.annotations.Operation;
 public class BookingController {
 
   private final BookingService bookingService;
+  private final BookingArchiveService bookingArchiveService;
+  private final ObjectWriter bookingWriter;
 
   @Autowired
-  public BookingController(BookingService bookingService) {
+  public BookingController(BookingService bookingService, BookingArchiveService bookingArchiveService,
+      ObjectMapper objectMapper) {
     this.bookingService = bookingService;
+    this.bookingArchiveService = bookingArchiveService;
+    // Flushing after every booking would turn a streamed export into one write per row
+    this.bookingWriter = objectMapper.writerFor(BookingSummary.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
   }
 
-  @Operation(summary = "Get all bookings", description = "Retrieve a list of all bookings")
+  @Operation(summary = "Get all bookings", description = "Retrieve the bookings matching the filters in id order, one page at a time. "
+      + "If there are more bookings, the X-Next-Cursor response header holds the cursor for the next page.")
   @GetMapping(value = "/get-all", produces = "application/json")
-  public ResponseEntity<List<Booking>> getBookings() {
-    List<Booking> bookings = bookingService.getAllBookings();
-    if (bookings.isEmpty()) {
+  public ResponseEntity<Object> getBookings(
+      @Parameter(description = "Only bookings with these statuses") @RequestParam(required = false) List<BookingStatus> status,
+      @Parameter(description = "Only bookings of this resource type") @RequestParam(required = false) ResourceType resourceType,
+      @Parameter(description = "Only bookings of this resource") @RequestParam(required = false) Long resourceId,
+      @Parameter(description = "Only bookings made by this tenant") @RequestParam(required = false) Long tenantId,
+      @Parameter(description = "Only bookings ending on or after this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @Parameter(description = "Only bookings starting on or before this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @Parameter(description = "Whether to include bookings of deleted resources") @RequestParam(defaultValue = "true") boolean includeDeletedResources,
+      @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+      @Parameter(description = "Page size, 50 by default") @RequestParam(required = false) Integer limit) {
+    BookingPage page;
+    try {
+      page = bookingService.getAllBookings(
+          new BookingFilter(status, from, to, resourceType, resourceId, tenantId, includeDeletedResources), cursor, limit);
+    } catch (IllegalArgumentException e) {
+      return new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST).send();
+    }
+
+    if (page.bookings().isEmpty()) {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-    } else {
-      return ResponseEntity.ok(bookings);
     }
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      response.header(BookingPage.NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(page.bookings());
+  }
+
+  @Operation(summary = "Stream all bookings", description = "Write every booking matching the filters as one JSON array, in id order. "
+      + "Bookings are read and written in batches, so this is meant for exports of the full history.")
+  @GetMapping(value = "/get-all/stream", produces = "application/json")
+  public ResponseEntity<StreamingResponseBody> streamBookings(
+      @Parameter(description = "Only bookings with these statuses") @RequestParam(required = false) List<BookingStatus> status,
+      @Parameter(description = "Only bookings of this resource type") @RequestParam(required = false) ResourceType resourceType,
+      @Parameter(description = "Only bookings of this resource") @RequestParam(required = false) Long resourceId,
+      @Parameter(description = "Only bookings made by this tenant") @RequestParam(required = false) Long tenantId,
+      @Parameter(description = "Only bookings ending on or after this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @Parameter(description = "Only bookings starting on or before this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @Parameter(description = "Whether to include bookings of deleted resources") @RequestParam(defaultValue = "true") boolean includeDeletedResources) {
+    BookingFilter filter = new BookingFilter(status, from, to, resourceType, resourceId, tenantId,
+        includeDeletedResources);
+
+    StreamingResponseBody body = outputStream -> {
+      try (SequenceWriter writer = bookingWriter.writeValuesAsArray(outputStream)) {
+        bookingService.streamAllBookings(filter, booking -> {
+          try {
+            writer.write(booking);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
+  @Operation(summary = "Get archived bookings", description = "Retrieve completed and canceled bookings that have been moved to the archive, "
+      + "in booking id order, one page at a time. If there are more bookings, the X-Next-Cursor response header holds the cursor for the next page.")
+  @GetMapping(value = "/history", produces = "application/json")
+  public ResponseEntity<Object> getBookingHistory(
+      @Parameter(description = "Only bookings with these statuses") @RequestParam(required = false) List<BookingStatus> status,
+      @Parameter(description = "Only bookings of this resource type") @RequestParam(required = false) ResourceType resourceType,
+      @Parameter(description = "Only bookings of this resource") @RequestParam(required = false) Long resourceId,
+      @Parameter(description = "Only bookings made by this tenant") @RequestParam(required = false) Long tenantId,
+      @Parameter(description = "Only bookings ending on or after this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @Parameter(description = "Only bookings starting on or before this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+      @Parameter(description = "Page size, 50 by default") @RequestParam(required = false) Integer limit) {
+    BookingPage page;
+    try {
+      page = bookingArchiveService.getArchivedBookings(
+          new BookingFilter(status, from, to, resourceType, resourceId, tenantId), cursor, limit);
+    } catch (IllegalArgumentException e) {
+      return new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST).send();
+    }
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      response.header(BookingPage.NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(page.bookings());
   }
 
   @Operation(summary = "Delete a booking", description = "Remove a booking from the system by its ID")
@@ -0,0 +1,55 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.controller;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.ErrorResponse;
+import com.auu_sw3_6.Himmerland_booking_software.service.PictureVariants;
+
+/**
+ * Builds the responses of the picture endpoints.
+ *
+ * Stored pictures never change: they are named after the hash of their
+ * content. The file name is therefore used as a strong ETag, which lets Spring answer
+ * If-None-Match with 304 and serve Range requests from the file without
+ * reading it into memory. When the client asks for the picture with the file
+ * name in the {@code v} parameter, the URL itself identifies the content and
+ * the response may be cached as immutable; without it the URL can point to a
+ * newer picture later, so browsers must revalidate. The same applies to the
+ * smaller variants asked for with {@code size}, which are named after the
+ * picture they were made from.
+ */
+final class PictureResponses {
+
+  static final String VERSION_PARAM = "v";
+  static final String SIZE_PARAM = "size";
+
+  private static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(365);
+
+  private PictureResponses() {
+  }
+
+  static ResponseEntity<Object> of(Optional<Resource> picture, String version, String notFoundMessage) {
+    if (picture.isEmpty()) {
+      return new ErrorResponse(notFoundMessage, HttpStatus.NOT_FOUND).send();
+    }
+    Resource resource = picture.get();
+    String fileName = resource.getFilename();
+    CacheControl cacheControl = fileName != null && PictureVariants.originalFileName(fileName).equals(version)
+        ? CacheControl.maxAge(IMMUTABLE_MAX_AGE).cachePrivate().immutable()
+        : CacheControl.noCache().cachePrivate();
+
+    return ResponseEntity.ok()
+        .contentType(MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM))
+        .eTag(fileName)
+        .cacheControl(cacheControl)
+        .body(resource);
+  }
+}
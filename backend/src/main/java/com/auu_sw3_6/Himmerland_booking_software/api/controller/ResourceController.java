@@ -1,17 +1,19 @@
 package com.auu_sw3_6.Himmerland_booking_software.api.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
@@ -19,6 +21,7 @@ import org.springframework.web.multipart.MultipartFile;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingDate;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.ErrorResponse;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Resource;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.ResourceSummary;
 import com.auu_sw3_6.Himmerland_booking_software.exception.ResourceNotFoundException;
 import com.auu_sw3_6.Himmerland_booking_software.service.BookingService;
 import com.auu_sw3_6.Himmerland_booking_software.service.ResourceService;
@@ -57,8 +60,8 @@ public abstract class ResourceController<T extends Resource> {
 
   @Operation(summary = "Get all resources", description = "Retrieve a list of all available resources")
   @GetMapping(value = "/get-all", produces = "application/json")
-  public ResponseEntity<List<T>> getResources() {
-    List<T> resources = resourceService.getAllResources();
+  public ResponseEntity<List<ResourceSummary>> getResources() {
+    List<ResourceSummary> resources = resourceService.getResourceSummaries();
     if (resources.isEmpty()) {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     } else {
@@ -66,12 +69,18 @@ public abstract class ResourceController<T extends Resource> {
     }
   }
 
-  @Operation(summary = "Get confirmed booked dates for a resource", description = "Retrieve an array of dates, along with the amount booked on that date when a specific resource is booked")
+  @Operation(summary = "Get confirmed booked dates for a resource", description = "Retrieve an array of dates, along with the amount booked on that date when a specific resource is booked. The optional from and to dates (yyyy-MM-dd) limit the result to at most 366 days")
   @GetMapping(value = "/{id}/booked-dates", produces = "application/json")
-  public ResponseEntity<List<BookingDate>> getReservedDates(@PathVariable Long id) {
+  public ResponseEntity<Object> getReservedDates(@PathVariable Long id,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
     Resource resource = resourceService.getResourceById(id).orElse(null);
-    List<BookingDate> reservedDates = bookingService.getBookedDatesWithAmount(resource);
-    return ResponseEntity.ok(reservedDates);
+    try {
+      List<BookingDate> reservedDates = bookingService.getBookedDatesWithAmount(resource, from, to);
+      return ResponseEntity.ok(reservedDates);
+    } catch (IllegalArgumentException e) {
+      return new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST).send();
+    }
   }
 
   @Operation(summary = "Delete a resource", description = "Remove a resource from the system by its ID and type")
@@ -95,15 +104,12 @@ public abstract class ResourceController<T extends Resource> {
     return ResponseEntity.ok(resource);
   }
 
-  @GetMapping(value = "/{id}/picture", produces = "application/json")
-  @Operation(summary = "Get resource picture", description = "This endpoint returns the id of a resource from the resource id.")
-  public ResponseEntity<Object> getResourcePicture(@PathVariable long id) {
-    Optional<byte[]> imageBytesOptional = resourceService.getresourcePicturesByResourceId(id);
-    if (imageBytesOptional.isPresent()) {
-      return ResponseEntity.ok()
-          .contentType(MediaType.IMAGE_JPEG)
-          .body(imageBytesOptional.get());
-    }
-    return new ErrorResponse("Resource picture not found", HttpStatus.NOT_FOUND).send();
+  @GetMapping("/{id}/picture")
+  @Operation(summary = "Get resource picture", description = "This endpoint returns the picture of a resource from the resource id.")
+  public ResponseEntity<Object> getResourcePicture(@PathVariable long id,
+      @RequestParam(value = PictureResponses.SIZE_PARAM, required = false) Integer size,
+      @RequestParam(value = PictureResponses.VERSION_PARAM, required = false) String version) {
+    return PictureResponses.of(resourceService.getresourcePicturesByResourceId(id, size), version,
+        "Resource picture not found");
   }
 }
\ No newline at end of file
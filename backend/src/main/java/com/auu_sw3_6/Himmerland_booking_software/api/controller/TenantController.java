@@ -1,8 +1,10 @@
 package com.auu_sw3_6.Himmerland_booking_software.api.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
@@ -14,12 +16,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingDetails;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingFilter;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPage;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.ErrorResponse;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
 import com.auu_sw3_6.Himmerland_booking_software.service.TenantService;
@@ -105,10 +111,49 @@ public class TenantController extends UserController<Tenant> {
   }
 
   @GetMapping(value = "/getOwnBookings", produces = "application/json")
-  @Operation(summary = "Get own bookings", description = "This endpoint retrieves all bookings for the current user.")
-  public ResponseEntity<List<Booking>> getOwnBookings() {
-    List<Booking> bookings = tenantService.getOwnBookings();
-    return ResponseEntity.ok(bookings);
+  @Operation(summary = "Get own bookings", description = "This endpoint retrieves the bookings of the current user, newest first, one page at a time. "
+      + "If there are more bookings, the X-Next-Cursor response header holds the cursor for the next page.")
+  public ResponseEntity<Object> getOwnBookings(
+      @Parameter(description = "Only bookings with these statuses") @RequestParam(required = false) List<BookingStatus> status,
+      @Parameter(description = "Only bookings ending on or after this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @Parameter(description = "Only bookings starting on or before this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+      @Parameter(description = "Page size, 50 by default") @RequestParam(required = false) Integer limit) {
+    BookingPage page;
+    try {
+      page = tenantService.getOwnBookings(new BookingFilter(status, from, to), cursor, limit);
+    } catch (IllegalArgumentException e) {
+      return new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST).send();
+    }
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      response.header(BookingPage.NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(page.bookings());
+  }
+
+  @GetMapping(value = "/getOwnBookingHistory", produces = "application/json")
+  @Operation(summary = "Get own archived bookings", description = "This endpoint retrieves the current user's completed and canceled bookings that have been moved to the archive, "
+      + "one page at a time. If there are more bookings, the X-Next-Cursor response header holds the cursor for the next page.")
+  public ResponseEntity<Object> getOwnBookingHistory(
+      @Parameter(description = "Only bookings with these statuses") @RequestParam(required = false) List<BookingStatus> status,
+      @Parameter(description = "Only bookings ending on or after this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @Parameter(description = "Only bookings starting on or before this date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+      @Parameter(description = "Page size, 50 by default") @RequestParam(required = false) Integer limit) {
+    BookingPage page;
+    try {
+      page = tenantService.getOwnBookingHistory(new BookingFilter(status, from, to), cursor, limit);
+    } catch (IllegalArgumentException e) {
+      return new ErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST).send();
+    }
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      response.header(BookingPage.NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return response.body(page.bookings());
   }
 
   @PutMapping("/cancelBooking/{bookingId}")
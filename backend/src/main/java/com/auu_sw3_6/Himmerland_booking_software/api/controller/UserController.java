@@ -5,7 +5,6 @@ import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -16,6 +15,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingDetails;
@@ -71,17 +71,14 @@ public abstract class UserController<T extends User> {
   @SecurityRequirement(name = "bearerAuth")
   @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_TENANT')")
   @GetMapping("profilePicture")
-  public ResponseEntity<Object> getProfilePicture() {
+  public ResponseEntity<Object> getProfilePicture(
+      @RequestParam(value = PictureResponses.SIZE_PARAM, required = false) Integer size,
+      @RequestParam(value = PictureResponses.VERSION_PARAM, required = false) String version) {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
     String username = authentication.getName();
 
-    Optional<byte[]> imageBytesOptional = userService.getProfilePictureByUsername(username);
-    if (imageBytesOptional.isPresent()) {
-      return ResponseEntity.ok()
-          .contentType(MediaType.IMAGE_JPEG)
-          .body(imageBytesOptional.get());
-    }
-    return new ErrorResponse("Profile picture not found", HttpStatus.NOT_FOUND).send();
+    return PictureResponses.of(userService.getProfilePictureByUsername(username, size), version,
+        "Profile picture not found");
   }
 
   @SecurityRequirement(name = "bearerAuth")
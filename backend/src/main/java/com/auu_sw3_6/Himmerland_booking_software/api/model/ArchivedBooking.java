@@ -0,0 +1,103 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+import java.time.LocalDate;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.TimeRange;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A completed or canceled booking that has been moved out of the booking
+ * table by the archive job. Resource and user are kept as plain ids, so
+ * archived rows never load with the live entities. The unique index on the
+ * booking id is created by ArchivedBookingRepository.createBookingIdIndex.
+ */
+@Entity
+@Table(indexes = {
+    @Index(name = "idx_archived_booking_user", columnList = "userId, bookingId"),
+    @Index(name = "idx_archived_booking_resource", columnList = "resourceId, bookingId")
+})
+public class ArchivedBooking {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private long id;
+
+  private long bookingId;
+  private long resourceId;
+  private long userId;
+
+  private LocalDate startDate;
+  private LocalDate endDate;
+
+  private TimeRange pickupTime;
+  private TimeRange dropoffTime;
+
+  @Enumerated(EnumType.STRING)
+  private BookingStatus status;
+
+  private String receiverName;
+
+  private String handoverName;
+
+  private LocalDate archivedOn;
+
+  public ArchivedBooking() {
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public long getBookingId() {
+    return bookingId;
+  }
+
+  public long getResourceId() {
+    return resourceId;
+  }
+
+  public long getUserId() {
+    return userId;
+  }
+
+  public LocalDate getStartDate() {
+    return startDate;
+  }
+
+  public LocalDate getEndDate() {
+    return endDate;
+  }
+
+  public TimeRange getPickupTime() {
+    return pickupTime;
+  }
+
+  public TimeRange getDropoffTime() {
+    return dropoffTime;
+  }
+
+  public BookingStatus getStatus() {
+    return status;
+  }
+
+  public String getReceiverName() {
+    return receiverName;
+  }
+
+  public String getHandoverName() {
+    return handoverName;
+  }
+
+  public LocalDate getArchivedOn() {
+    return archivedOn;
+  }
+}
@@ -4,28 +4,52 @@ import java.time.LocalDate;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.TimeRange;
+import com.auu_sw3_6.Himmerland_booking_software.service.BookingOccupancyListener;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.Table;
 
 @Entity
+@EntityListeners(BookingOccupancyListener.class)
+@NamedEntityGraph(name = Booking.WITH_RESOURCE_AND_USER, attributeNodes = {
+    @NamedAttributeNode("resource"),
+    @NamedAttributeNode("user")
+})
+@Table(indexes = {
+    @Index(name = "idx_booking_resource_status_dates", columnList = "resource_id, status, start_date, end_date"),
+    @Index(name = "idx_booking_user_resource_status", columnList = "user_id, resource_id, status"),
+    @Index(name = "idx_booking_user_start", columnList = "user_id, start_date, id"),
+    @Index(name = "idx_booking_status_end", columnList = "status, end_date")
+})
 public class Booking {
 
+  /**
+   * Entity graph that loads the resource and user in the same query. Both are
+   * lazy by default, so list queries whose callers read them should use it.
+   */
+  public static final String WITH_RESOURCE_AND_USER = "Booking.withResourceAndUser";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private long id;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "resource_id", nullable = false)
   private Resource resource;
 
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "user_id", nullable = false)
   private User user;
 
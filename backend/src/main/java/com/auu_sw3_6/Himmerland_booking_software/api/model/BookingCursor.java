@@ -0,0 +1,36 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in a list of bookings ordered by start date and id. Clients get it
+ * as an opaque string of the form {@code yyyy-MM-dd_id} and send it back to
+ * fetch the next page.
+ */
+public record BookingCursor(LocalDate startDate, long id) {
+
+  private static final String SEPARATOR = "_";
+
+  public static BookingCursor of(BookingSummary booking) {
+    return new BookingCursor(booking.startDate(), booking.id());
+  }
+
+  public static BookingCursor parse(String value) {
+    int separatorIndex = value.lastIndexOf(SEPARATOR);
+    if (separatorIndex < 0) {
+      throw new IllegalArgumentException("Invalid cursor: " + value);
+    }
+    try {
+      return new BookingCursor(LocalDate.parse(value.substring(0, separatorIndex)),
+          Long.parseLong(value.substring(separatorIndex + 1)));
+    } catch (DateTimeParseException | NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + value);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return startDate + SEPARATOR + id;
+  }
+}
@@ -0,0 +1,38 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+
+/**
+ * Optional criteria for booking listings. A null or empty status list means
+ * every status, the date range keeps bookings that overlap it, and null
+ * resource or tenant criteria match every resource or tenant. Bookings of
+ * deleted resources are included unless asked otherwise.
+ */
+public record BookingFilter(List<BookingStatus> statuses, LocalDate from, LocalDate to, ResourceType resourceType,
+    Long resourceId, Long tenantId, boolean includeDeletedResources) {
+
+  public BookingFilter(List<BookingStatus> statuses, LocalDate from, LocalDate to, ResourceType resourceType,
+      Long resourceId, Long tenantId) {
+    this(statuses, from, to, resourceType, resourceId, tenantId, true);
+  }
+
+  public BookingFilter(List<BookingStatus> statuses, LocalDate from, LocalDate to) {
+    this(statuses, from, to, null, null, null);
+  }
+
+  public static BookingFilter none() {
+    return new BookingFilter(null, null, null);
+  }
+
+  public boolean anyStatus() {
+    return statuses == null || statuses.isEmpty();
+  }
+
+  public List<BookingStatus> statusesOrAll() {
+    return anyStatus() ? List.of(BookingStatus.values()) : statuses;
+  }
+}
@@ -0,0 +1,12 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated booking listing. The next cursor is null on
+ * the last page; controllers send it in the {@value #NEXT_CURSOR_HEADER} header.
+ */
+public record BookingPage(List<BookingSummary> bookings, String nextCursor) {
+
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+}
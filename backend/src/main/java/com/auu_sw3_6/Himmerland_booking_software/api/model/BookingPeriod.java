@@ -0,0 +1,9 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+import java.time.LocalDate;
+
+/**
+ * Start and end date of a booking, for queries that only need the dates.
+ */
+public record BookingPeriod(LocalDate startDate, LocalDate endDate) {
+}
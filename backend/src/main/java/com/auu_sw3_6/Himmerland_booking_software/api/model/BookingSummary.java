@@ -0,0 +1,35 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+import java.time.LocalDate;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.TimeRange;
+
+/**
+ * Read-only view of a booking for list endpoints. It carries only the
+ * resource and user columns the booking overviews show, and is selected
+ * directly by the repository instead of loading the entities.
+ */
+public record BookingSummary(long id, ResourceRef resource, UserRef user, LocalDate startDate, LocalDate endDate,
+    TimeRange pickupTime, TimeRange dropoffTime, BookingStatus status, String receiverName, String handoverName) {
+
+  public record ResourceRef(long id, String name, ResourceType type, String status, long capacity) {
+  }
+
+  public record UserRef(long id, String name, String email, String mobileNumber, String houseAddress) {
+  }
+
+  /**
+   * Flat constructor used by JPQL constructor expressions, which cannot build
+   * the nested references themselves.
+   */
+  public BookingSummary(long id, long resourceId, String resourceName, ResourceType resourceType,
+      String resourceStatus, long resourceCapacity, long userId, String userName, String userEmail,
+      String userMobileNumber, String userHouseAddress, LocalDate startDate, LocalDate endDate, TimeRange pickupTime,
+      TimeRange dropoffTime, BookingStatus status, String receiverName, String handoverName) {
+    this(id, new ResourceRef(resourceId, resourceName, resourceType, resourceStatus, resourceCapacity),
+        new UserRef(userId, userName, userEmail, userMobileNumber, userHouseAddress), startDate, endDate,
+        pickupTime, dropoffTime, status, receiverName, handoverName);
+  }
+}
@@ -0,0 +1,15 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+/**
+ * Counters for the login throttle. Failures and blocked attempts are counted
+ * since startup; the limits apply per username and per client IP within a
+ * sliding window of windowSeconds.
+ */
+public record LoginThrottleStats(
+    long failuresRecorded,
+    long attemptsBlocked,
+    int maxFailuresPerUsername,
+    int maxFailuresPerIp,
+    long windowSeconds,
+    long sketchBytes) {
+}
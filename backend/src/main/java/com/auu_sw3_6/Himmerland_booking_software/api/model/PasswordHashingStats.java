@@ -0,0 +1,20 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+/**
+ * Counters for the password hashing worker pool. Latencies cover the hash
+ * itself, not the time spent waiting in the queue. The cost is the BCrypt
+ * cost picked at startup, and calibratedHashMillis how long one hash took
+ * with it then. Upgraded counts logins whose stored hash was rehashed.
+ */
+public record PasswordHashingStats(
+    int cost,
+    double calibratedHashMillis,
+    long completed,
+    long rejected,
+    long upgraded,
+    double meanHashMillis,
+    double maxHashMillis,
+    int activeWorkers,
+    int queued,
+    int queueCapacity) {
+}
@@ -0,0 +1,17 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+/**
+ * Counters for the in-memory picture cache since startup. residentBytes is
+ * the size of the pictures currently held off the heap, never more than
+ * maxBytes.
+ */
+public record PictureCacheStats(
+    long hits,
+    long misses,
+    double hitRate,
+    long evictions,
+    int entries,
+    long residentBytes,
+    long maxBytes,
+    long maxEntryBytes) {
+}
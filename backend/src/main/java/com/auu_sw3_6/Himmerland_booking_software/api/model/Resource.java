@@ -1,6 +1,8 @@
 package com.auu_sw3_6.Himmerland_booking_software.api.model;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -11,6 +13,7 @@ import jakarta.persistence.InheritanceType;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Inheritance(strategy = InheritanceType.JOINED)
 public abstract class Resource {
 
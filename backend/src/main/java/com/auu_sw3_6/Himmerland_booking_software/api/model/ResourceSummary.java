@@ -0,0 +1,11 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+
+/**
+ * Read-only view of a resource for resource lists, selected from the shared
+ * resource columns only.
+ */
+public record ResourceSummary(long id, String name, String description, String resourcePictureFileName,
+    ResourceType type, long capacity, String status) {
+}
@@ -0,0 +1,33 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * A single token that was revoked before it expired, such as the token of a
+ * user who logged out. The row can be deleted once the token has expired.
+ */
+@Entity
+public class RevokedToken {
+
+    @Id
+    private String tokenId;
+
+    private long expiresAtMillis;
+
+    protected RevokedToken() {
+    }
+
+    public RevokedToken(String tokenId, long expiresAtMillis) {
+        this.tokenId = tokenId;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+}
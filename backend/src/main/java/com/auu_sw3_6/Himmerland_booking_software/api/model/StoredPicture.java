@@ -0,0 +1,50 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+
+/**
+ * A picture file in the content-addressed picture store, with the number of
+ * users or resources that point to it. Once nothing points to the picture
+ * any more, the file and the row are removed by the picture sweep job.
+ *
+ * Profile and resource pictures are stored in separate directories, so the
+ * same content uploaded as both is two files with a row each.
+ */
+@Entity
+@IdClass(StoredPicture.Key.class)
+public class StoredPicture {
+
+    @Id
+    private String fileName;
+
+    @Id
+    private boolean profilePicture;
+
+    private int referenceCount;
+
+    private long lastReleasedAtMillis;
+
+    protected StoredPicture() {
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public boolean isProfilePicture() {
+        return profilePicture;
+    }
+
+    public int getReferenceCount() {
+        return referenceCount;
+    }
+
+    public long getLastReleasedAtMillis() {
+        return lastReleasedAtMillis;
+    }
+
+    public record Key(String fileName, boolean profilePicture) {
+    }
+}
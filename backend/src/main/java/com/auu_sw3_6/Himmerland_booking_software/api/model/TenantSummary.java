@@ -0,0 +1,9 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+/**
+ * Read-only view of a tenant for the tenant list. Leaves out the password
+ * hash and profile picture file name.
+ */
+public record TenantSummary(long id, String name, String email, String mobileNumber, String username,
+    String houseAddress) {
+}
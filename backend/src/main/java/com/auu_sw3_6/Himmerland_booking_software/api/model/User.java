@@ -1,6 +1,9 @@
 package com.auu_sw3_6.Himmerland_booking_software.api.model;
 
+import java.util.Locale;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Entity;
@@ -9,15 +12,21 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 @Entity
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Inheritance(strategy = InheritanceType.JOINED)
 public abstract class User {
 
+  // Soft-deleted tenants all get this username, so it is left out of the unique lookup column
+  public static final String DELETED_USERNAME = "deleted";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   @Schema(description = "Unique identifier of the user", accessMode = Schema.AccessMode.READ_ONLY)
@@ -42,6 +51,11 @@ public abstract class User {
   @Schema(description = "The user's username")
   private String username;
 
+  // Trimmed, lower-case copy of the username used for lookups; null for soft-deleted users.
+  // Its unique index is created by UserRepository.createNormalizedUsernameIndex
+  @JsonIgnore
+  private String normalizedUsername;
+
   @NotNull(message = "Password cannot be null")
   @Size(min = 8, message = "Password should have at least 8 characters")
   @JsonIgnore(false)
@@ -109,6 +123,21 @@ public abstract class User {
     this.username = username;
   }
 
+  public String getNormalizedUsername() {
+    return normalizedUsername;
+  }
+
+  @PrePersist
+  @PreUpdate
+  public void updateNormalizedUsername() {
+    String normalized = normalizeUsername(username);
+    this.normalizedUsername = DELETED_USERNAME.equals(normalized) ? null : normalized;
+  }
+
+  public static String normalizeUsername(String username) {
+    return username == null ? null : username.trim().toLowerCase(Locale.ROOT);
+  }
+
   public String getPassword() {
     return password;
   }
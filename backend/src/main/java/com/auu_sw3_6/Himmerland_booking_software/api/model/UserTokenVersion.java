@@ -0,0 +1,33 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * The current token version of a user whose tokens have been invalidated at
+ * least once. Users without a row are on version 0.
+ */
+@Entity
+public class UserTokenVersion {
+
+    @Id
+    private Long userId;
+
+    private int version;
+
+    protected UserTokenVersion() {
+    }
+
+    public UserTokenVersion(Long userId, int version) {
+        this.userId = userId;
+        this.version = version;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,62 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.ArchivedBooking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingSummary;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    /**
+     * Creates the unique index that keeps a booking from being archived twice.
+     * The SQLite dialect does not emit unique indexes declared on the entity.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "CREATE UNIQUE INDEX IF NOT EXISTS idx_archived_booking_booking_id ON archived_booking (booking_id)",
+            nativeQuery = true)
+    void createBookingIdIndex();
+
+    /**
+     * Copies the given bookings into the archive in one statement.
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedBooking (bookingId, resourceId, userId, startDate, endDate, pickupTime, "
+            + "dropoffTime, status, receiverName, handoverName, archivedOn) "
+            + "SELECT b.id, b.resource.id, b.user.id, b.startDate, b.endDate, b.pickupTime, b.dropoffTime, "
+            + "b.status, b.receiverName, b.handoverName, :archivedOn FROM Booking b WHERE b.id IN :bookingIds")
+    int copyFromBookings(@Param("bookingIds") Collection<Long> bookingIds,
+            @Param("archivedOn") LocalDate archivedOn);
+
+    /**
+     * Returns archived bookings matching the filters in booking id order,
+     * starting after the given booking id.
+     */
+    @Query("SELECT new com.auu_sw3_6.Himmerland_booking_software.api.model.BookingSummary("
+            + "a.bookingId, r.id, r.name, r.type, r.status, r.capacity, u.id, u.name, u.email, u.mobileNumber, u.houseAddress, "
+            + "a.startDate, a.endDate, a.pickupTime, a.dropoffTime, a.status, a.receiverName, a.handoverName) "
+            + "FROM ArchivedBooking a JOIN Resource r ON r.id = a.resourceId JOIN User u ON u.id = a.userId "
+            + "WHERE (:anyStatus = true OR a.status IN :statuses) "
+            + "AND (:resourceType IS NULL OR r.type = :resourceType) "
+            + "AND (:resourceId IS NULL OR a.resourceId = :resourceId) "
+            + "AND (:tenantId IS NULL OR a.userId = :tenantId) "
+            + "AND (:from IS NULL OR a.endDate >= :from) AND (:to IS NULL OR a.startDate <= :to) "
+            + "AND a.bookingId > :afterId ORDER BY a.bookingId")
+    List<BookingSummary> findPage(@Param("anyStatus") boolean anyStatus,
+            @Param("statuses") Collection<BookingStatus> statuses, @Param("resourceType") ResourceType resourceType,
+            @Param("resourceId") Long resourceId, @Param("tenantId") Long tenantId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to, @Param("afterId") long afterId, Limit limit);
+}
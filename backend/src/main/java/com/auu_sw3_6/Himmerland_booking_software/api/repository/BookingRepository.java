@@ -1,19 +1,171 @@
 package com.auu_sw3_6.Himmerland_booking_software.api.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPeriod;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingSummary;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Resource;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    int STREAM_FETCH_SIZE = 500;
+
+    String SELECT_SUMMARY = "SELECT new com.auu_sw3_6.Himmerland_booking_software.api.model.BookingSummary("
+            + "b.id, r.id, r.name, r.type, r.status, r.capacity, u.id, u.name, u.email, u.mobileNumber, u.houseAddress, "
+            + "b.startDate, b.endDate, b.pickupTime, b.dropoffTime, b.status, b.receiverName, b.handoverName) "
+            + "FROM Booking b JOIN b.resource r JOIN b.user u ";
+
+    String ADMIN_LISTING = SELECT_SUMMARY + "WHERE (:anyStatus = true OR b.status IN :statuses) "
+            + "AND (:resourceType IS NULL OR r.type = :resourceType) "
+            + "AND (:resourceId IS NULL OR r.id = :resourceId) AND (:tenantId IS NULL OR u.id = :tenantId) "
+            + "AND (:from IS NULL OR b.endDate >= :from) AND (:to IS NULL OR b.startDate <= :to) "
+            + "AND (:includeDeletedResources = true OR r.status IS NULL OR r.status <> 'deleted') ";
+
+    @Override
+    @EntityGraph(Booking.WITH_RESOURCE_AND_USER)
+    Optional<Booking> findById(Long id);
+
+    @Override
+    @EntityGraph(Booking.WITH_RESOURCE_AND_USER)
+    List<Booking> findAll();
+
+    @EntityGraph(Booking.WITH_RESOURCE_AND_USER)
     List<Booking> findByResourceAndStatus(Resource resource, BookingStatus status);
+    @EntityGraph(Booking.WITH_RESOURCE_AND_USER)
     List<Booking> findByStatus(BookingStatus status);
+    @EntityGraph(Booking.WITH_RESOURCE_AND_USER)
     List<Booking> findByResource(Resource resource);
+    @EntityGraph(Booking.WITH_RESOURCE_AND_USER)
     List<Booking> findByResource_Id(Long resourceId);
+    @EntityGraph(Booking.WITH_RESOURCE_AND_USER)
     List<Booking> findByUser_Id(long userId);
-}
\ No newline at end of file
+    List<Booking> findByStatusNot(BookingStatus status);
+    long countByUser_IdAndResource_IdAndStatusIn(long userId, long resourceId, Collection<BookingStatus> statuses);
+
+    @Query("SELECT b FROM Booking b WHERE b.resource.id = :resourceId AND b.user.id = :userId "
+            + "AND b.id <> :excludedBookingId AND b.status <> :excludedStatus "
+            + "AND b.endDate >= :from AND b.startDate <= :to")
+    List<Booking> findUserBookingsForResourceInPeriod(@Param("resourceId") long resourceId,
+            @Param("userId") long userId, @Param("excludedBookingId") long excludedBookingId,
+            @Param("excludedStatus") BookingStatus excludedStatus, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Returns the user's bookings newest first, starting after the cursor
+     * (start date and id) when one is given.
+     */
+    @Query(SELECT_SUMMARY + "WHERE u.id = :userId AND b.status IN :statuses "
+            + "AND (:from IS NULL OR b.endDate >= :from) AND (:to IS NULL OR b.startDate <= :to) "
+            + "AND (:cursorDate IS NULL OR b.startDate < :cursorDate "
+            + "OR (b.startDate = :cursorDate AND b.id < :cursorId)) "
+            + "ORDER BY b.startDate DESC, b.id DESC")
+    List<BookingSummary> findPageByUser(@Param("userId") long userId,
+            @Param("statuses") Collection<BookingStatus> statuses, @Param("from") LocalDate from,
+            @Param("to") LocalDate to, @Param("cursorDate") LocalDate cursorDate, @Param("cursorId") long cursorId,
+            Limit limit);
+
+    @Query("SELECT new com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPeriod(b.startDate, b.endDate) "
+            + "FROM Booking b WHERE b.resource.id = :resourceId AND b.status IN :statuses "
+            + "AND b.startDate <= :to AND b.endDate >= :from")
+    List<BookingPeriod> findPeriodsByResourceInRange(@Param("resourceId") long resourceId,
+            @Param("statuses") Collection<BookingStatus> statuses, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Returns the highest number of non-canceled bookings occupying the resource
+     * on any day from startDate to endDate. A booking occupies its start date up
+     * to, but not including, its end date, so the peak is always reached on the
+     * first day of the window or on the start date of a booking inside it.
+     */
+    @Query(value = "SELECT COALESCE(MAX((SELECT COUNT(*) FROM booking b "
+            + "WHERE b.resource_id = :resourceId AND b.status <> 'CANCELED' AND b.id <> :excludedBookingId "
+            + "AND b.start_date <= d.day AND b.end_date > d.day)), 0) "
+            + "FROM (SELECT :startDate AS day "
+            + "UNION SELECT s.start_date FROM booking s "
+            + "WHERE s.resource_id = :resourceId AND s.status <> 'CANCELED' AND s.id <> :excludedBookingId "
+            + "AND s.start_date > :startDate AND s.start_date <= :endDate) d", nativeQuery = true)
+    long findPeakOccupancy(@Param("resourceId") long resourceId, @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate, @Param("excludedBookingId") long excludedBookingId);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.resource.id = :resourceId AND b.status IN :statuses")
+    List<Long> findIdsByResourceAndStatusIn(@Param("resourceId") long resourceId,
+            @Param("statuses") Collection<BookingStatus> statuses);
+
+    /**
+     * Sets the status of all the resource's bookings that currently have one of
+     * the given statuses, in a single statement. Bypasses entity listeners.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :newStatus WHERE b.resource.id = :resourceId AND b.status IN :statuses")
+    int updateStatusByResourceAndStatusIn(@Param("resourceId") long resourceId,
+            @Param("statuses") Collection<BookingStatus> statuses, @Param("newStatus") BookingStatus newStatus);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.user.id = :userId "
+            + "AND (b.status IS NULL OR b.status NOT IN :excludedStatuses)")
+    List<Long> findIdsByUserAndStatusNotIn(@Param("userId") long userId,
+            @Param("excludedStatuses") Collection<BookingStatus> excludedStatuses);
+
+    /**
+     * Sets the status of all the user's bookings that do not have one of the
+     * excluded statuses, in a single statement. Bypasses entity listeners.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :newStatus WHERE b.user.id = :userId "
+            + "AND (b.status IS NULL OR b.status NOT IN :excludedStatuses)")
+    int updateStatusByUserAndStatusNotIn(@Param("userId") long userId,
+            @Param("excludedStatuses") Collection<BookingStatus> excludedStatuses,
+            @Param("newStatus") BookingStatus newStatus);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.status IN :statuses AND b.endDate < :endedBefore ORDER BY b.id")
+    List<Long> findIdsToArchive(@Param("statuses") Collection<BookingStatus> statuses,
+            @Param("endedBefore") LocalDate endedBefore, Limit limit);
+
+    /**
+     * Deletes the given bookings in one statement. Bypasses entity listeners.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Booking b WHERE b.id IN :bookingIds")
+    int deleteByIdIn(@Param("bookingIds") Collection<Long> bookingIds);
+
+    /**
+     * Returns bookings matching the admin filters in id order, starting after
+     * the given id.
+     */
+    @Query(ADMIN_LISTING + "AND b.id > :afterId ORDER BY b.id")
+    List<BookingSummary> findPageForAdmin(@Param("anyStatus") boolean anyStatus,
+            @Param("statuses") Collection<BookingStatus> statuses, @Param("resourceType") ResourceType resourceType,
+            @Param("resourceId") Long resourceId, @Param("tenantId") Long tenantId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to, @Param("includeDeletedResources") boolean includeDeletedResources,
+            @Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Streams bookings matching the admin filters in id order. The driver reads
+     * {@value #STREAM_FETCH_SIZE} rows at a time, and the stream must be
+     * consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query(ADMIN_LISTING + "ORDER BY b.id")
+    Stream<BookingSummary> streamForAdmin(@Param("anyStatus") boolean anyStatus,
+            @Param("statuses") Collection<BookingStatus> statuses, @Param("resourceType") ResourceType resourceType,
+            @Param("resourceId") Long resourceId, @Param("tenantId") Long tenantId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to, @Param("includeDeletedResources") boolean includeDeletedResources);
+}
@@ -1,10 +1,14 @@
 package com.auu_sw3_6.Himmerland_booking_software.api.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Resource;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.ResourceSummary;
 
 @NoRepositoryBean 
 public interface ResourceRepository<T extends Resource> extends JpaRepository<T, Long> {
-}
\ No newline at end of file
+    List<ResourceSummary> findAllProjectedByOrderById();
+}
@@ -0,0 +1,46 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.StoredPicture;
+
+@Repository
+public interface StoredPictureRepository extends JpaRepository<StoredPicture, StoredPicture.Key> {
+
+    /**
+     * Adds a reference to the picture, registering it first if it is new.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO stored_picture (file_name, profile_picture, reference_count, last_released_at_millis) "
+            + "VALUES (:fileName, :profilePicture, 1, 0) "
+            + "ON CONFLICT (file_name, profile_picture) DO UPDATE SET reference_count = reference_count + 1", nativeQuery = true)
+    void acquire(@Param("fileName") String fileName, @Param("profilePicture") boolean profilePicture);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredPicture p SET p.referenceCount = p.referenceCount - 1, p.lastReleasedAtMillis = :now "
+            + "WHERE p.fileName = :fileName AND p.profilePicture = :profilePicture AND p.referenceCount > 0")
+    int release(@Param("fileName") String fileName, @Param("profilePicture") boolean profilePicture,
+            @Param("now") long now);
+
+    @Query("SELECT p FROM StoredPicture p WHERE p.referenceCount = 0 AND p.lastReleasedAtMillis < :releasedBefore")
+    List<StoredPicture> findOrphans(@Param("releasedBefore") long releasedBefore);
+
+    /**
+     * Removes the picture's row if it is still unreferenced, and returns
+     * whether it did. A picture that was uploaded again in the meantime is kept.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StoredPicture p "
+            + "WHERE p.fileName = :fileName AND p.profilePicture = :profilePicture AND p.referenceCount = 0")
+    int deleteIfUnreferenced(@Param("fileName") String fileName, @Param("profilePicture") boolean profilePicture);
+}
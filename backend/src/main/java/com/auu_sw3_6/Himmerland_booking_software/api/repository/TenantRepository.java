@@ -1,6 +1,11 @@
 package com.auu_sw3_6.Himmerland_booking_software.api.repository;
 
+import java.util.List;
+
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.TenantSummary;
 
 public interface TenantRepository extends UserBaseRepository<Tenant> {
+    List<TenantSummary> findByNameNotOrderById(String name);
 }
+
@@ -10,4 +10,6 @@ import com.auu_sw3_6.Himmerland_booking_software.api.model.User;
 @NoRepositoryBean  // Ensures Spring does not try to instantiate this directly
 public interface UserBaseRepository<T extends User> extends JpaRepository<T, Long> {
     Optional<T> findByUsername(String username);
+
+    Optional<T> findByNormalizedUsername(String normalizedUsername);
 }
\ No newline at end of file
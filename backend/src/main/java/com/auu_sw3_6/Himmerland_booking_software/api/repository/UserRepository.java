@@ -0,0 +1,47 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.User;
+
+/**
+ * Looks up users of any type through the base table. Queries return the
+ * concrete Tenant or Admin in a single statement.
+ */
+@Repository
+public interface UserRepository extends JpaRepository<User, Long> {
+    Optional<User> findByNormalizedUsername(String normalizedUsername);
+
+    boolean existsByNormalizedUsername(String normalizedUsername);
+
+    List<User> findByNormalizedUsernameIsNullAndUsernameNotOrderById(String username);
+
+    @Query("SELECT u.normalizedUsername FROM User u WHERE u.normalizedUsername IS NOT NULL")
+    List<String> findAllNormalizedUsernames();
+
+    /**
+     * Replaces only the password hash, leaving the rest of the row as it is.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") long id, @Param("password") String password);
+
+    /**
+     * Creates the unique index on the normalized username. The SQLite dialect
+     * does not emit unique indexes declared on the entity, so it is created here.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "CREATE UNIQUE INDEX IF NOT EXISTS idx_user_normalized_username ON user (normalized_username)",
+            nativeQuery = true)
+    void createNormalizedUsernameIndex();
+}
@@ -0,0 +1,11 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.UserTokenVersion;
+
+@Repository
+public interface UserTokenVersionRepository extends JpaRepository<UserTokenVersion, Long> {
+
+}
@@ -12,7 +12,10 @@ import com.auu_sw3_6.Himmerland_booking_software.api.model.Hospitality;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Tool;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Utility;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.ArchivedBookingRepository;
 import com.auu_sw3_6.Himmerland_booking_software.service.AdminService;
+import com.auu_sw3_6.Himmerland_booking_software.service.BookingService;
+import com.auu_sw3_6.Himmerland_booking_software.service.CustomUserDetailsService;
 import com.auu_sw3_6.Himmerland_booking_software.service.HospitalityService;
 import com.auu_sw3_6.Himmerland_booking_software.service.JobService;
 import com.auu_sw3_6.Himmerland_booking_software.service.ToolService;
@@ -107,6 +110,27 @@ public class AppConfig {
     };
   }
 
+  @Bean
+  public CommandLineRunner prepareUsernameIndexAtStartup(CustomUserDetailsService userDetailsService) {
+    return args -> {
+      userDetailsService.prepareUsernameIndex();
+    };
+  }
+
+  @Bean
+  public CommandLineRunner createArchiveIndexAtStartup(ArchivedBookingRepository archivedBookingRepository) {
+    return args -> {
+      archivedBookingRepository.createBookingIdIndex();
+    };
+  }
+
+  @Bean
+  public CommandLineRunner rebuildOccupancyIndexAtStartup(BookingService bookingService) {
+    return args -> {
+      bookingService.rebuildOccupancyIndex();
+    };
+  }
+
   @Bean
   public CommandLineRunner runMissedJobsAtStartup() {
     return args -> {
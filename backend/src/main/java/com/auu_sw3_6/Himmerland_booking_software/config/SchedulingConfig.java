@@ -0,0 +1,15 @@
+package com.auu_sw3_6.Himmerland_booking_software.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on the cron jobs in JobService. Tests switch it off with
+ * scheduling.enabled=false so no job fires in the middle of a test.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
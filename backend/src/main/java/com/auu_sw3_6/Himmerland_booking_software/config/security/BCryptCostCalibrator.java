@@ -0,0 +1,77 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.function.IntToLongFunction;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt cost for the hardware the application runs on.
+ *
+ * Every step up in cost doubles the hashing time, so the calibrator times a
+ * hash at the lowest allowed cost and keeps stepping up while the next cost
+ * still fits within the target. A small VM therefore ends up with a lower
+ * cost than a fast laptop, while both stay close to the same login latency.
+ */
+public class BCryptCostCalibrator {
+
+  public static final int LOWEST_COST = 4;
+  public static final int HIGHEST_COST = 31;
+
+  private static final String SAMPLE_PASSWORD = "CalibrationPassword1";
+  private static final int SAMPLES_PER_COST = 2;
+
+  public record Calibration(int cost, double hashMillis) {
+  }
+
+  private final IntToLongFunction hashNanos;
+
+  public BCryptCostCalibrator() {
+    this(BCryptCostCalibrator::timeHash);
+  }
+
+  // The function returns how many nanoseconds one hash at the given cost takes
+  BCryptCostCalibrator(IntToLongFunction hashNanos) {
+    this.hashNanos = hashNanos;
+  }
+
+  /**
+   * Returns the highest cost between minCost and maxCost whose hash takes at
+   * most targetMillis, or minCost if even that is slower than the target.
+   */
+  public Calibration calibrate(long targetMillis, int minCost, int maxCost) {
+    if (minCost < LOWEST_COST || maxCost > HIGHEST_COST || minCost > maxCost) {
+      throw new IllegalArgumentException(
+          "BCrypt cost must be between " + LOWEST_COST + " and " + HIGHEST_COST + ", got " + minCost + "-" + maxCost);
+    }
+
+    long targetNanos = targetMillis * 1_000_000L;
+    int cost = minCost;
+    long nanos = measure(cost);
+    // Only try the next cost if doubling the current time would still fit
+    while (cost < maxCost && nanos * 2 <= targetNanos) {
+      long nextNanos = measure(cost + 1);
+      if (nextNanos > targetNanos) {
+        break;
+      }
+      cost++;
+      nanos = nextNanos;
+    }
+    return new Calibration(cost, nanos / 1e6);
+  }
+
+  // Fastest of a few runs, so a single slow run caused by warm-up or a busy machine does not count
+  private long measure(int cost) {
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < SAMPLES_PER_COST; i++) {
+      fastest = Math.min(fastest, hashNanos.applyAsLong(cost));
+    }
+    return fastest;
+  }
+
+  private static long timeHash(int cost) {
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+    long start = System.nanoTime();
+    encoder.encode(SAMPLE_PASSWORD);
+    return System.nanoTime() - start;
+  }
+}
@@ -0,0 +1,67 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size Bloom filter of strings. {@link #mightContain} never returns
+ * false for a string that was added, and returns true for a string that was
+ * not added with roughly the false positive rate the filter was sized for.
+ *
+ * Adding and checking are lock-free, so the filter can be read on every
+ * request while other threads add to it. Strings cannot be removed; to drop
+ * entries, build a new filter.
+ */
+class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashCount;
+
+  BloomFilter(int expectedInsertions, double falsePositiveRate) {
+    int expected = Math.max(1, expectedInsertions);
+    long optimalBits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int words = (int) Math.max(1, (optimalBits + 63) / 64);
+    this.bits = new AtomicLongArray(words);
+    this.bitCount = (long) words * 64;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+  }
+
+  void add(String value) {
+    long hash = StringHash.hash64(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      setBit(index(h1 + i * h2));
+    }
+  }
+
+  boolean mightContain(String value) {
+    long hash = StringHash.hash64(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long bit = index(h1 + i * h2);
+      if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long index(int combinedHash) {
+    // Flip negative hashes to keep the index inside the filter
+    return (combinedHash < 0 ? ~combinedHash : combinedHash) % bitCount;
+  }
+
+  private void setBit(long bit) {
+    int word = (int) (bit >>> 6);
+    long mask = 1L << bit;
+    long current;
+    do {
+      current = bits.get(word);
+      if ((current & mask) != 0) {
+        return;
+      }
+    } while (!bits.compareAndSet(word, current, current | mask));
+  }
+}
@@ -0,0 +1,128 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.PasswordHashingStats;
+import com.auu_sw3_6.Himmerland_booking_software.exception.PasswordHashingRejectedException;
+
+/**
+ * Runs password hashing on a small, fixed pool of worker threads with a
+ * bounded queue in front of it.
+ *
+ * BCrypt is deliberately slow, so a burst of logins hashing on the request
+ * threads could take all of them and stall every other endpoint. Here at most
+ * {@code threads + queueCapacity} requests can wait for a hash at the same
+ * time; anything beyond that is rejected straight away with a
+ * {@link PasswordHashingRejectedException}, which is answered with 429.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final int queueCapacity;
+  private final BCryptCostCalibrator.Calibration calibration;
+
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong totalHashNanos = new AtomicLong();
+  private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+  private final AtomicLong upgraded = new AtomicLong();
+
+  /**
+   * The calibration is only reported in the stats; the delegate is expected to
+   * already hash with the calibrated cost.
+   */
+  public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+      BCryptCostCalibrator.Calibration calibration) {
+    this.delegate = delegate;
+    this.queueCapacity = queueCapacity;
+    this.calibration = calibration;
+
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return run(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return run(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    // Only asked after a successful login, which then stores a new hash if this returns true
+    boolean upgrade = delegate.upgradeEncoding(encodedPassword);
+    if (upgrade) {
+      upgraded.incrementAndGet();
+    }
+    return upgrade;
+  }
+
+  public PasswordHashingStats getStats() {
+    long completedHashes = completed.get();
+    double meanMillis = completedHashes == 0 ? 0 : totalHashNanos.get() / 1e6 / completedHashes;
+    return new PasswordHashingStats(calibration.cost(), calibration.hashMillis(), completedHashes, rejected.get(),
+        upgraded.get(), meanMillis, maxHashNanos.get() / 1e6, executor.getActiveCount(), executor.getQueue().size(),
+        queueCapacity);
+  }
+
+  // Called by Spring when the context closes
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private <T> T run(Callable<T> hash) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> timed(hash));
+    } catch (RejectedExecutionException e) {
+      rejected.incrementAndGet();
+      throw new PasswordHashingRejectedException("Too many password checks in progress, please try again shortly");
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  private <T> T timed(Callable<T> hash) throws Exception {
+    long start = System.nanoTime();
+    try {
+      return hash.call();
+    } finally {
+      long elapsed = System.nanoTime() - start;
+      completed.incrementAndGet();
+      totalHashNanos.addAndGet(elapsed);
+      maxHashNanos.accumulate(elapsed);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.Arrays;
+
+/**
+ * Approximate counts of strings in a fixed amount of memory.
+ *
+ * Each string is counted in one cell of every row, and its estimate is the
+ * smallest of those cells. Estimates are never lower than the real count and
+ * only higher when other strings share all of its cells. Counts are added
+ * with the conservative update rule, which only raises the cells holding the
+ * current minimum and keeps those overestimates small.
+ */
+class CountMinSketch {
+
+  private final int[][] rows;
+  private final int width;
+
+  CountMinSketch(int depth, int width) {
+    this.rows = new int[depth][width];
+    this.width = width;
+  }
+
+  /**
+   * Counts the string once more and returns its new estimate.
+   */
+  int add(String value) {
+    int[] cells = cells(value);
+    int estimate = estimate(cells);
+    for (int row = 0; row < rows.length; row++) {
+      if (rows[row][cells[row]] == estimate) {
+        rows[row][cells[row]] = estimate + 1;
+      }
+    }
+    return estimate + 1;
+  }
+
+  int estimate(String value) {
+    return estimate(cells(value));
+  }
+
+  void clear() {
+    for (int[] row : rows) {
+      Arrays.fill(row, 0);
+    }
+  }
+
+  long sizeInBytes() {
+    return (long) rows.length * width * Integer.BYTES;
+  }
+
+  private int estimate(int[] cells) {
+    int estimate = Integer.MAX_VALUE;
+    for (int row = 0; row < rows.length; row++) {
+      estimate = Math.min(estimate, rows[row][cells[row]]);
+    }
+    return estimate;
+  }
+
+  // One cell per row, from two halves of a 64-bit hash combined differently for every row
+  private int[] cells(String value) {
+    long hash = StringHash.hash64(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    int[] cells = new int[rows.length];
+    for (int row = 0; row < rows.length; row++) {
+      int combined = h1 + (row + 1) * h2;
+      cells[row] = (combined < 0 ? ~combined : combined) % width;
+    }
+    return cells;
+  }
+}
@@ -4,18 +4,47 @@ import java.util.Collection;
 import java.util.List;
 
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Admin;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.User;
 
+import io.jsonwebtoken.Claims;
+
 public class CustomUserDetails extends User implements UserDetails {
 
     private final User user;
     private final List<GrantedAuthority> authorities;
+    private final boolean fromToken;
 
     public CustomUserDetails(User user, List<GrantedAuthority> authorities) {
+        this(user, authorities, false);
+    }
+
+    private CustomUserDetails(User user, List<GrantedAuthority> authorities, boolean fromToken) {
         this.user = user;
         this.authorities = authorities;
+        this.fromToken = fromToken;
+    }
+
+    /**
+     * Builds the principal from verified token claims without touching the
+     * database. The wrapped user only has its id and username set. Returns
+     * null if the token does not carry the user id and role.
+     */
+    public static CustomUserDetails fromClaims(Claims claims) {
+        Long userId = claims.get(JwtUtil.CLAIM_USER_ID, Long.class);
+        String role = claims.get(JwtUtil.CLAIM_ROLE, String.class);
+        if (userId == null || role == null || claims.getSubject() == null) {
+            return null;
+        }
+
+        User user = "ROLE_ADMIN".equals(role) ? new Admin() : new Tenant();
+        user.setId(userId);
+        user.setUsername(claims.getSubject());
+        return new CustomUserDetails(user, List.of(new SimpleGrantedAuthority(role)), true);
     }
 
     @Override
@@ -33,10 +62,19 @@ public class CustomUserDetails extends User implements UserDetails {
         return user.getUsername();
     }
 
+    public long getUserId() {
+        return user.getId();
+    }
+
     public User toUser() {
         return user;
     }
 
+    // True if the user was built from token claims and only has its id and username set
+    public boolean isFromToken() {
+        return fromToken;
+    }
+
     // We maybe should impliment these methods
 
     @Override
@@ -8,12 +8,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.auu_sw3_6.Himmerland_booking_software.service.CustomUserDetailsService;
-
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -29,11 +27,16 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
   private final JwtUtil jwtUtil;
 
   @Autowired
-  private final CustomUserDetailsService userDetailsService;
+  private final TokenVersionRegistry tokenVersions;
+
+  @Autowired
+  private final TokenRevocationStore revokedTokens;
 
-  public JwtAuthorizationFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
+  public JwtAuthorizationFilter(JwtUtil jwtUtil, TokenVersionRegistry tokenVersions,
+      TokenRevocationStore revokedTokens) {
     this.jwtUtil = jwtUtil;
-    this.userDetailsService = userDetailsService;
+    this.tokenVersions = tokenVersions;
+    this.revokedTokens = revokedTokens;
   }
 
   @Override
@@ -55,28 +58,41 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
       chain.doFilter(request, response);
       return;
     }
-    String username = jwtUtil.extractUsername(token);
-
-    // Log the extracted username
-    logger.info("JWT parsed, extracted username: {}", username);
-
-    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      // Validate the token
-      if (jwtUtil.validateToken(token, username)) {
-        // Load user details using CustomUserDetailsService
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+    // Parse and verify the token once; the claims are cached until the token expires
+    Claims claims = jwtUtil.getVerifiedClaims(token);
+    if (claims == null) {
+      logger.warn("Invalid or expired JWT");
+      chain.doFilter(request, response);
+      return;
+    }
+    if (JwtUtil.isRefreshToken(claims)) {
+      logger.warn("Refresh token sent as access token for username: {}", claims.getSubject());
+      chain.doFilter(request, response);
+      return;
+    }
+    // The principal is built from the claims, so authenticating a request needs no database lookup
+    CustomUserDetails userDetails = CustomUserDetails.fromClaims(claims);
+    Integer tokenVersion = claims.get(JwtUtil.CLAIM_TOKEN_VERSION, Integer.class);
+    if (userDetails == null || tokenVersion == null
+        || !tokenVersions.isCurrent(userDetails.getUserId(), tokenVersion)) {
+      logger.warn("Outdated or incomplete JWT for username: {}", claims.getSubject());
+      chain.doFilter(request, response);
+      return;
+    }
+    // Answered from memory unless the token id might have been revoked
+    if (revokedTokens.isRevoked(claims.getId())) {
+      logger.debug("Revoked JWT for username: {}", claims.getSubject());
+      chain.doFilter(request, response);
+      return;
+    }
 
-        // Log the roles of the user
-        logger.info("User roles retrieved for username {}: {}", username, userDetails.getAuthorities());
+    if (SecurityContextHolder.getContext().getAuthentication() == null) {
+      logger.debug("JWT parsed for username {} with roles {}", userDetails.getUsername(), userDetails.getAuthorities());
 
-        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
-            userDetails.getAuthorities());
+      UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
+          userDetails.getAuthorities());
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-      } else {
-        // Log when the token is invalid
-        logger.warn("Invalid JWT for username: {}", username);
-      }
+      SecurityContextHolder.getContext().setAuthentication(authentication);
     }
 
     chain.doFilter(request, response);
@@ -3,12 +3,16 @@ package com.auu_sw3_6.Himmerland_booking_software.config.security;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 import javax.crypto.SecretKey;
 
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.Jwts.SIG;
 import io.jsonwebtoken.security.Keys;
@@ -19,41 +23,103 @@ public class JwtUtil {
     // Generate a secure random secret key. The key should be at least 32 bytes for HS256.
     private final SecretKey SECRET_KEY = Keys.hmacShaKeyFor("secret-key123secret-key123secret-key123!".getBytes());
 
-    // Generate a token with claims and the username as the subject
-    public String generateToken(String username) {
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    public static final long ACCESS_TOKEN_MILLIS = 1000L * 60 * 15; // 15 minutes
+    public static final long REFRESH_TOKEN_MILLIS = 1000L * 60 * 60 * 5; // 5 hours
+    // Lifetimes vary by up to this fraction either way, so tokens issued together do not all expire together
+    public static final double EXPIRY_JITTER = 0.1;
+
+    private static final int MAX_CACHED_TOKENS = 10_000;
+
+    // The parser is immutable and thread-safe, so it is built once
+    private final JwtParser parser = Jwts.parser().verifyWith(SECRET_KEY).build();
+    private final VerifiedClaimsCache verifiedClaims = new VerifiedClaimsCache(MAX_CACHED_TOKENS);
+
+    // Generate a short-lived access token with the username as the subject and the user's id, role and token version as claims
+    public String generateToken(long userId, String username, String role, int tokenVersion) {
+        return createToken(userClaims(userId, role, tokenVersion), username, ACCESS_TOKEN_MILLIS);
+    }
+
+    // Generate a refresh token, which is only accepted by the refresh endpoint and never authenticates a request
+    public String generateRefreshToken(long userId, String username, String role, int tokenVersion) {
+        Map<String, Object> claims = userClaims(userId, role, tokenVersion);
+        claims.put(CLAIM_TOKEN_TYPE, REFRESH_TOKEN_TYPE);
+        return createToken(claims, username, REFRESH_TOKEN_MILLIS);
+    }
+
+    public static boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN_TYPE.equals(claims.get(CLAIM_TOKEN_TYPE, String.class));
+    }
+
+    private Map<String, Object> userClaims(long userId, String role, int tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, username);
+        claims.put(CLAIM_USER_ID, userId);
+        claims.put(CLAIM_ROLE, role);
+        claims.put(CLAIM_TOKEN_VERSION, tokenVersion);
+        return claims;
     }
 
-    // Create the token with the given claims and subject (username)
-    private String createToken(Map<String, Object> claims, String subject) {
+    // Create the token with the given claims and subject (username), and a random id so it can be revoked
+    private String createToken(Map<String, Object> claims, String subject, long lifetimeMillis) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 5)) // 5 hours
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + jittered(lifetimeMillis)))
                 .signWith(SECRET_KEY, SIG.HS256)
                 .compact();
     }
 
+    static long jittered(long lifetimeMillis) {
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-EXPIRY_JITTER, EXPIRY_JITTER);
+        return Math.round(lifetimeMillis * factor);
+    }
+
+    /**
+     * Returns the claims of the token if its signature is valid and it has not
+     * expired, and null otherwise. A token is parsed and verified once; later
+     * calls with the same token are answered from the cache until it expires.
+     */
+    public Claims getVerifiedClaims(String token) {
+        long now = System.currentTimeMillis();
+        Claims claims = verifiedClaims.get(token, now);
+        if (claims != null) {
+            return claims;
+        }
+        try {
+            claims = parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        verifiedClaims.put(token, claims);
+        return claims;
+    }
+
     // Validate the token by checking username and expiration
     public boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        Claims claims = getVerifiedClaims(token);
+        return claims != null && username.equals(claims.getSubject());
     }
 
-    // Extract username from the token
+    // Extract username from the token, or null if the token is invalid or expired
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        Claims claims = getVerifiedClaims(token);
+        return claims == null ? null : claims.getSubject();
     }
 
-    // Extract all claims from the token
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().verifyWith(SECRET_KEY).build().parseSignedClaims(token).getPayload();
+    // Parse and verify the token, throwing if the signature is invalid or the token has expired
+    Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    // Check if the token is expired
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    void clearVerifiedClaims() {
+        verifiedClaims.clear();
     }
 }
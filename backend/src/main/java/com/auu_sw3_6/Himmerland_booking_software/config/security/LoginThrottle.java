@@ -0,0 +1,137 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.LoginThrottleStats;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.User;
+
+/**
+ * Counts failed logins per username and per client IP, and tells the login
+ * endpoint to refuse further attempts before any password is hashed once
+ * either count reaches its limit.
+ *
+ * Failures are counted in count-min sketches, so memory stays the same no
+ * matter how many distinct usernames or addresses are tried. Counts cover the
+ * current window plus a share of the previous one that shrinks as the current
+ * window goes on, so old failures fade out instead of all being forgotten at
+ * once. The sketches can overestimate, which at worst blocks a user whose
+ * counters are shared with heavily attacked names until the window moves on.
+ */
+@Component
+public class LoginThrottle {
+
+  private static final int SKETCH_DEPTH = 4;
+
+  private final int maxFailuresPerUsername;
+  private final int maxFailuresPerIp;
+  private final long windowMillis;
+  private final LongSupplier clock;
+
+  private final CountMinSketch[] usernameWindows;
+  private final CountMinSketch[] ipWindows;
+  private long currentWindow;
+
+  private final AtomicLong failuresRecorded = new AtomicLong();
+  private final AtomicLong attemptsBlocked = new AtomicLong();
+
+  @Autowired
+  public LoginThrottle(@Value("${login-throttle.max-failures-per-username:5}") int maxFailuresPerUsername,
+      @Value("${login-throttle.max-failures-per-ip:20}") int maxFailuresPerIp,
+      @Value("${login-throttle.window-seconds:300}") long windowSeconds,
+      @Value("${login-throttle.sketch-width:4096}") int sketchWidth) {
+    this(maxFailuresPerUsername, maxFailuresPerIp, windowSeconds, sketchWidth, System::currentTimeMillis);
+  }
+
+  LoginThrottle(int maxFailuresPerUsername, int maxFailuresPerIp, long windowSeconds, int sketchWidth,
+      LongSupplier clock) {
+    this.maxFailuresPerUsername = maxFailuresPerUsername;
+    this.maxFailuresPerIp = maxFailuresPerIp;
+    this.windowMillis = windowSeconds * 1000;
+    this.clock = clock;
+    // Index 0 is the current window, index 1 the previous one
+    this.usernameWindows = new CountMinSketch[] {
+        new CountMinSketch(SKETCH_DEPTH, sketchWidth), new CountMinSketch(SKETCH_DEPTH, sketchWidth) };
+    this.ipWindows = new CountMinSketch[] {
+        new CountMinSketch(SKETCH_DEPTH, sketchWidth), new CountMinSketch(SKETCH_DEPTH, sketchWidth) };
+    this.currentWindow = clock.getAsLong() / windowMillis;
+  }
+
+  /**
+   * Returns true if the username or the address has failed too often lately,
+   * in which case the attempt should be refused without checking the password.
+   */
+  public synchronized boolean isBlocked(String username, String ip) {
+    double previousWeight = advance();
+    boolean blocked = estimate(usernameWindows, usernameKey(username), previousWeight) >= maxFailuresPerUsername
+        || estimate(ipWindows, ip, previousWeight) >= maxFailuresPerIp;
+    if (blocked) {
+      attemptsBlocked.incrementAndGet();
+    }
+    return blocked;
+  }
+
+  public synchronized void recordFailure(String username, String ip) {
+    advance();
+    usernameWindows[0].add(usernameKey(username));
+    ipWindows[0].add(ip);
+    failuresRecorded.incrementAndGet();
+  }
+
+  /**
+   * How long until the current window ends, which is a reasonable time for a
+   * blocked client to wait before trying again.
+   */
+  public synchronized long secondsUntilNextWindow() {
+    long windowEnd = (currentWindow + 1) * windowMillis;
+    return Math.max(1, (windowEnd - clock.getAsLong() + 999) / 1000);
+  }
+
+  public LoginThrottleStats getStats() {
+    long sketchBytes = 0;
+    for (CountMinSketch sketch : usernameWindows) {
+      sketchBytes += sketch.sizeInBytes();
+    }
+    for (CountMinSketch sketch : ipWindows) {
+      sketchBytes += sketch.sizeInBytes();
+    }
+    return new LoginThrottleStats(failuresRecorded.get(), attemptsBlocked.get(), maxFailuresPerUsername,
+        maxFailuresPerIp, windowMillis / 1000, sketchBytes);
+  }
+
+  // Moves the windows forward if time has passed, and returns how much the previous window still counts
+  private double advance() {
+    long now = clock.getAsLong();
+    long window = now / windowMillis;
+    if (window > currentWindow) {
+      boolean skippedAWindow = window > currentWindow + 1;
+      rotate(usernameWindows, skippedAWindow);
+      rotate(ipWindows, skippedAWindow);
+      currentWindow = window;
+    }
+    return 1 - (double) (now % windowMillis) / windowMillis;
+  }
+
+  private static void rotate(CountMinSketch[] windows, boolean clearBoth) {
+    CountMinSketch previous = windows[1];
+    previous.clear();
+    windows[1] = windows[0];
+    windows[0] = previous;
+    if (clearBoth) {
+      windows[1].clear();
+    }
+  }
+
+  private static int estimate(CountMinSketch[] windows, String key, double previousWeight) {
+    return windows[0].estimate(key) + (int) Math.floor(windows[1].estimate(key) * previousWeight);
+  }
+
+  private static String usernameKey(String username) {
+    String normalized = User.normalizeUsername(username);
+    return normalized == null ? "" : normalized;
+  }
+}
@@ -2,8 +2,12 @@ package com.auu_sw3_6.Himmerland_booking_software.config.security;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -11,20 +15,26 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPage;
 import com.auu_sw3_6.Himmerland_booking_software.service.CustomUserDetailsService;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+  private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+  private static final String BCRYPT_ID = "bcrypt";
+
   @Autowired
   private JwtAuthorizationFilter jwtAuthorizationFilter;
 
@@ -38,18 +48,63 @@ public class SecurityConfig {
   @Autowired
   private CustomUserDetailsService customUserDetailsService;
 
+  @Value("${password-hashing.threads:2}")
+  private int passwordHashingThreads;
+
+  @Value("${password-hashing.queue-capacity:32}")
+  private int passwordHashingQueueCapacity;
+
+  // A fixed BCrypt cost, or 0 to measure the hardware and pick one at startup
+  @Value("${password-hashing.strength:0}")
+  private int passwordHashingStrength;
+
+  @Value("${password-hashing.target-millis:250}")
+  private long passwordHashingTargetMillis;
+
+  @Value("${password-hashing.min-strength:10}")
+  private int passwordHashingMinStrength;
+
+  @Value("${password-hashing.max-strength:16}")
+  private int passwordHashingMaxStrength;
+
+  /**
+   * Hashes new passwords with BCrypt at the calibrated cost, prefixed with
+   * {bcrypt}. Hashes stored without a prefix, or with a lower cost, still
+   * match and are rehashed on the next successful login.
+   */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public BoundedPasswordEncoder passwordEncoder() {
+    BCryptCostCalibrator.Calibration calibration;
+    if (passwordHashingStrength > 0) {
+      calibration = new BCryptCostCalibrator.Calibration(passwordHashingStrength, 0);
+      log.info("Hashing passwords with configured BCrypt cost {}", calibration.cost());
+    } else {
+      calibration = new BCryptCostCalibrator().calibrate(passwordHashingTargetMillis, passwordHashingMinStrength,
+          passwordHashingMaxStrength);
+      log.info("Hashing passwords with BCrypt cost {}, {} ms per hash against a target of {} ms",
+          calibration.cost(), String.format("%.1f", calibration.hashMillis()), passwordHashingTargetMillis);
+    }
+
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(calibration.cost());
+    DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+    delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+    return new BoundedPasswordEncoder(delegating, passwordHashingThreads, passwordHashingQueueCapacity,
+        calibration);
   }
 
   @Bean
   public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
     http
         .csrf(csrf -> csrf.disable())
+        // Every request is authenticated from its JWT cookie, so nothing is kept in an HttpSession
+        .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+        .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+        .requestCache(requestCache -> requestCache.disable())
+        .logout(logout -> logout.disable())
         .authorizeHttpRequests(authz -> authz
             .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll() // Allow all OPTIONS requests
-            .requestMatchers("/api/tenant/register", "/api/login", "/api/logout").permitAll()
+            .requestMatchers("/api/tenant/register", "/api/login", "/api/refresh", "/api/logout").permitAll()
             .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**").permitAll()
             .requestMatchers("/api/tool/update", "/api/tool/create", "/api/tool/delete").hasRole("ADMIN")
             .requestMatchers("/api/utility/update", "/api/utility/create", "/api/utility/delete").hasRole("ADMIN")
@@ -74,6 +129,7 @@ public class SecurityConfig {
     config.setAllowedOrigins(Collections.singletonList("http://localhost:5173"));
     config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
     config.setAllowedHeaders(Arrays.asList("Content-Type", "Authorization"));
+    config.setExposedHeaders(Arrays.asList(BookingPage.NEXT_CURSOR_HEADER));
     config.setAllowCredentials(true);
 
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,28 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The 64-bit hash used by the probabilistic filters in this package. Callers
+ * derive as many independent indexes as they need from its two halves.
+ */
+final class StringHash {
+
+  private StringHash() {
+  }
+
+  // 64-bit FNV-1a followed by a finalizer that spreads the bits of short, similar strings
+  static long hash64(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
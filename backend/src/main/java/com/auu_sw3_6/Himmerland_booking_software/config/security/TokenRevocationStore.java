@@ -0,0 +1,92 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.RevokedToken;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.RevokedTokenRepository;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Remembers single tokens that were revoked before they expired, keyed by
+ * their id (the jti claim).
+ *
+ * Revoked ids are stored in the database and added to an in-memory Bloom
+ * filter. The JWT filter asks the Bloom filter first, so a token that was
+ * never revoked is accepted without a query; only the rare ids the filter
+ * might contain are looked up in the table. Rows are deleted once their
+ * token has expired, and the Bloom filter is then rebuilt from the rows that
+ * are left, so it does not fill up over time.
+ */
+@Component
+public class TokenRevocationStore {
+
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final RevokedTokenRepository repository;
+  private final int expectedRevocations;
+  private volatile BloomFilter revokedIds;
+
+  @Autowired
+  public TokenRevocationStore(RevokedTokenRepository repository,
+      @Value("${token-revocation.expected-revocations:10000}") int expectedRevocations) {
+    this.repository = repository;
+    this.expectedRevocations = expectedRevocations;
+  }
+
+  @PostConstruct
+  public void load() {
+    purgeExpired(System.currentTimeMillis());
+  }
+
+  /**
+   * Revokes the token the claims belong to. Tokens without an id or expiry
+   * cannot be revoked one by one; invalidate the user's tokens instead.
+   */
+  public synchronized void revoke(Claims claims) {
+    if (claims.getId() == null || claims.getExpiration() == null) {
+      return;
+    }
+    repository.save(new RevokedToken(claims.getId(), claims.getExpiration().getTime()));
+    revokedIds.add(claims.getId());
+  }
+
+  /**
+   * Revokes the token unless it was already revoked, and returns whether this
+   * call revoked it. Used to make sure a refresh token is only used once,
+   * even if two requests present it at the same time.
+   */
+  public synchronized boolean revokeOnce(Claims claims) {
+    if (claims.getId() == null || claims.getExpiration() == null || isRevoked(claims.getId())) {
+      return false;
+    }
+    revoke(claims);
+    return true;
+  }
+
+  public boolean isRevoked(String tokenId) {
+    if (tokenId == null || !revokedIds.mightContain(tokenId)) {
+      return false;
+    }
+    return repository.existsById(tokenId);
+  }
+
+  /**
+   * Deletes revocations of tokens that have expired and rebuilds the Bloom
+   * filter from the rest. Returns how many revocations were deleted.
+   */
+  public synchronized int purgeExpired(long nowMillis) {
+    int deleted = repository.deleteExpired(nowMillis);
+    List<String> remaining = repository.findUnexpiredTokenIds(nowMillis);
+    // Leave room for as many revocations again before the next rebuild
+    BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, remaining.size() * 2), FALSE_POSITIVE_RATE);
+    remaining.forEach(rebuilt::add);
+    revokedIds = rebuilt;
+    return deleted;
+  }
+}
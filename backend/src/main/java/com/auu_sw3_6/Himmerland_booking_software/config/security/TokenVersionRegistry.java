@@ -0,0 +1,59 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.UserTokenVersion;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.UserTokenVersionRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Keeps the token version of every user in memory, so the JWT filter can
+ * reject tokens issued before a user was updated or deleted without querying
+ * the database.
+ *
+ * Tokens carry the version that was current when they were issued, and
+ * invalidating a user's tokens bumps the version. Only users that have been
+ * invalidated are stored; everyone else is on version 0. The versions are also
+ * written to the database, so a restart does not make old tokens valid again.
+ */
+@Component
+public class TokenVersionRegistry {
+
+  private final UserTokenVersionRepository repository;
+  private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+  @Autowired
+  public TokenVersionRegistry(UserTokenVersionRepository repository) {
+    this.repository = repository;
+  }
+
+  @PostConstruct
+  public void load() {
+    versions.clear();
+    for (UserTokenVersion tokenVersion : repository.findAll()) {
+      versions.put(tokenVersion.getUserId(), tokenVersion.getVersion());
+    }
+  }
+
+  public int currentVersion(long userId) {
+    return versions.getOrDefault(userId, 0);
+  }
+
+  public boolean isCurrent(long userId, int version) {
+    return currentVersion(userId) == version;
+  }
+
+  /**
+   * Makes every token issued to the user so far invalid.
+   */
+  public synchronized void invalidate(long userId) {
+    int version = currentVersion(userId) + 1;
+    repository.save(new UserTokenVersion(userId, version));
+    versions.put(userId, version);
+  }
+}
@@ -0,0 +1,87 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Remembers the claims of tokens whose signature has already been verified,
+ * so a client sending the same cookie again skips signature verification.
+ *
+ * Entries are keyed by the SHA-256 hash of the token rather than the token
+ * itself, expire together with the token, and the least recently used entry
+ * is dropped once the cache holds {@code capacity} tokens.
+ */
+class VerifiedClaimsCache {
+
+  private record Entry(Claims claims, long expiresAtMillis) {
+  }
+
+  private final Map<String, Entry> entries;
+
+  VerifiedClaimsCache(int capacity) {
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached claims of the token, or null if the token has not been
+   * verified before or has expired since.
+   */
+  Claims get(String token, long nowMillis) {
+    String key = hash(token);
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expiresAtMillis() <= nowMillis) {
+        entries.remove(key);
+        return null;
+      }
+      return entry.claims();
+    }
+  }
+
+  void put(String token, Claims claims) {
+    if (claims.getExpiration() == null) {
+      // Only tokens that expire are cached, so every entry eventually goes away
+      return;
+    }
+    Entry entry = new Entry(claims, claims.getExpiration().getTime());
+    String key = hash(token);
+    synchronized (entries) {
+      entries.put(key, entry);
+    }
+  }
+
+  void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
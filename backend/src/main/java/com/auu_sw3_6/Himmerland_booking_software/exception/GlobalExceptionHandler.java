@@ -6,6 +6,7 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +14,7 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.servlet.NoHandlerFoundException;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.ErrorResponse;
@@ -73,6 +75,22 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(ex.getStatus()).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
   }
 
+  @ExceptionHandler(PasswordHashingRejectedException.class)
+  public ResponseEntity<ErrorResponse> handlePasswordHashingRejectedException(PasswordHashingRejectedException ex) {
+    log.warn("Password hashing rejected: " + ex.getMessage());
+    ErrorResponse errorResponse = new ErrorResponse(ex.getMessage(), ex.getStatus());
+    return ResponseEntity.status(ex.getStatus()).header(HttpHeaders.RETRY_AFTER, "1")
+        .contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+  }
+
+  @ExceptionHandler(MaxUploadSizeExceededException.class)
+  public ResponseEntity<ErrorResponse> handleMaxUploadSizeExceededException(MaxUploadSizeExceededException ex) {
+    log.warn("Upload too large: " + ex.getMessage());
+    ErrorResponse errorResponse = new ErrorResponse("Uploaded file is too large", HttpStatus.PAYLOAD_TOO_LARGE);
+    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).contentType(MediaType.APPLICATION_JSON)
+        .body(errorResponse);
+  }
+
   @ExceptionHandler(ResourceNotFoundException.class)
   public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
     log.error(ex.getMessage());
@@ -0,0 +1,16 @@
+package com.auu_sw3_6.Himmerland_booking_software.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class PasswordHashingRejectedException extends RuntimeException {
+  private final HttpStatus status;
+
+  public PasswordHashingRejectedException(String message) {
+    super(message);
+    this.status = HttpStatus.TOO_MANY_REQUESTS;
+  }
+
+  public HttpStatus getStatus() {
+    return status;
+  }
+}
@@ -12,6 +12,7 @@ import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingDetails;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
 import com.auu_sw3_6.Himmerland_booking_software.api.repository.AdminRepository;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.TokenVersionRegistry;
 import com.auu_sw3_6.Himmerland_booking_software.exception.AdminNotFouldException;
 import com.auu_sw3_6.Himmerland_booking_software.exception.CaretakerNameConflictException;
 
@@ -25,8 +26,10 @@ public class AdminService extends UserService<Admin> {
 
   @Autowired
   public AdminService(AdminRepository adminRepository, PictureService profilePictureService,
-      PasswordEncoder passwordEncoder, BookingService bookingService) {
-    super(adminRepository, profilePictureService, passwordEncoder, bookingService);
+      PasswordEncoder passwordEncoder, BookingService bookingService, CustomUserDetailsService userDetailsService,
+      TokenVersionRegistry tokenVersions) {
+    super(adminRepository, profilePictureService, passwordEncoder, bookingService, userDetailsService,
+        tokenVersions);
     this.adminRepository = adminRepository;
     this.bookingService = bookingService;
     this.passwordEncoder = passwordEncoder;
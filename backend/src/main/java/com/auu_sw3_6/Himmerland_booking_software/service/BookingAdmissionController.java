@@ -0,0 +1,48 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Serializes the capacity check and the save of bookings for the same
+ * resource, so two concurrent requests cannot both take the last free slot.
+ *
+ * Locks are striped by resource id: bookings for the same resource always
+ * share a lock, while bookings for different resources only contend when
+ * their ids happen to map to the same stripe.
+ */
+@Component
+public class BookingAdmissionController {
+
+  private static final int STRIPES = 64;
+
+  private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+  public BookingAdmissionController() {
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Runs the given check-and-save action while holding the lock for the
+   * resource. The action must have committed its booking before it returns.
+   */
+  public <T> T admit(long resourceId, Supplier<T> action) {
+    ReentrantLock lock = lockFor(resourceId);
+    lock.lock();
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private ReentrantLock lockFor(long resourceId) {
+    // Fibonacci hashing, so sequential ids land on different stripes; the top 6 bits pick one of 64
+    long hash = resourceId * 0x9E3779B97F4A7C15L;
+    return locks[(int) (hash >>> 58)];
+  }
+}
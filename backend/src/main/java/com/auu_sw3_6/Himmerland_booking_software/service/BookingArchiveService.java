@@ -0,0 +1,100 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingFilter;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPage;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingSummary;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.ArchivedBookingRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.BookingRepository;
+
+/**
+ * Moves old completed and canceled bookings out of the booking table, and
+ * reads them back when a caller asks for history. The live booking queries
+ * never look at the archive.
+ */
+@Service
+public class BookingArchiveService {
+
+  private static final List<BookingStatus> ARCHIVED_STATUSES = List.of(BookingStatus.COMPLETED,
+      BookingStatus.CANCELED);
+
+  private final BookingRepository bookingRepository;
+  private final ArchivedBookingRepository archivedBookingRepository;
+  private final BookingOccupancyIndex occupancyIndex;
+  private final TransactionTemplate transactionTemplate;
+  private final TimeProvider timeProvider;
+  private final int archiveAfterDays;
+  private final int batchSize;
+
+  public BookingArchiveService(BookingRepository bookingRepository,
+      ArchivedBookingRepository archivedBookingRepository, BookingOccupancyIndex occupancyIndex,
+      TransactionTemplate transactionTemplate, TimeProvider timeProvider,
+      @Value("${booking.archive.after-days:180}") int archiveAfterDays,
+      @Value("${booking.archive.batch-size:500}") int batchSize) {
+    this.bookingRepository = bookingRepository;
+    this.archivedBookingRepository = archivedBookingRepository;
+    this.occupancyIndex = occupancyIndex;
+    this.transactionTemplate = transactionTemplate;
+    this.timeProvider = timeProvider;
+    this.archiveAfterDays = archiveAfterDays;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Archives every completed or canceled booking that ended more than the
+   * configured number of days ago, one batch per transaction, and returns how
+   * many bookings were moved.
+   */
+  public int archiveOldBookings() {
+    LocalDate endedBefore = timeProvider.getToday().minusDays(archiveAfterDays);
+    int archived = 0;
+    int moved;
+    do {
+      moved = transactionTemplate.execute(status -> archiveBatch(endedBefore));
+      archived += moved;
+    } while (moved == batchSize);
+    return archived;
+  }
+
+  private int archiveBatch(LocalDate endedBefore) {
+    List<Long> bookingIds = bookingRepository.findIdsToArchive(ARCHIVED_STATUSES, endedBefore, Limit.of(batchSize));
+    if (bookingIds.isEmpty()) {
+      return 0;
+    }
+
+    archivedBookingRepository.copyFromBookings(bookingIds, timeProvider.getToday());
+    bookingRepository.deleteByIdIn(bookingIds);
+    // Completed bookings still occupy their days in the index
+    BookingOccupancyListener.afterCommit(() -> occupancyIndex.removeAll(bookingIds));
+    return bookingIds.size();
+  }
+
+  /**
+   * Returns one page of archived bookings matching the filter, in booking id
+   * order. The cursor is the booking id of the last booking on the previous
+   * page, or null for the first page.
+   */
+  public BookingPage getArchivedBookings(BookingFilter filter, String cursor, Integer limit) {
+    long afterId = BookingService.parseIdCursor(cursor);
+    int pageSize = BookingService.resolvePageSize(limit);
+
+    // Fetch one extra row to find out whether there is a next page
+    List<BookingSummary> bookings = archivedBookingRepository.findPage(filter.anyStatus(), filter.statusesOrAll(),
+        filter.resourceType(), filter.resourceId(), filter.tenantId(), filter.from(), filter.to(), afterId,
+        Limit.of(pageSize + 1));
+
+    if (bookings.size() <= pageSize) {
+      return new BookingPage(bookings, null);
+    }
+    List<BookingSummary> page = bookings.subList(0, pageSize);
+    return new BookingPage(page, Long.toString(page.get(pageSize - 1).id()));
+  }
+}
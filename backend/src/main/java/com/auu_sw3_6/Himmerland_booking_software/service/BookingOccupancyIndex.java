@@ -0,0 +1,215 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+
+/**
+ * In-memory occupancy calendar per resource, used to answer availability
+ * checks without loading the booking history of a resource.
+ *
+ * A booking occupies the days from its start date up to, but not including,
+ * its end date, which matches the overlap rule of
+ * {@link com.auu_sw3_6.Himmerland_booking_software.api.repository.BookingRepository#findPeakOccupancy}.
+ * Canceled bookings and bookings without dates do not occupy anything.
+ */
+@Component
+public class BookingOccupancyIndex {
+
+  private final Map<Long, Span> spansByBooking = new HashMap<>();
+  private final Map<Long, OccupancyCalendar> calendarsByResource = new HashMap<>();
+  private volatile boolean ready = false;
+  // Changes committed while a rebuild is reading bookings, replayed onto the rebuilt maps
+  private List<Runnable> changesDuringRebuild;
+
+  /**
+   * Replaces the contents of the index with the bookings returned by the
+   * loader. The loader runs without holding the lock, so bookings committed
+   * meanwhile are not blocked; their changes are recorded and replayed on top
+   * of what was loaded, since the loader may or may not have seen them.
+   */
+  public void rebuild(Supplier<? extends Collection<Booking>> loader) {
+    synchronized (this) {
+      changesDuringRebuild = new ArrayList<>();
+    }
+
+    Collection<Booking> bookings;
+    try {
+      bookings = loader.get();
+    } catch (RuntimeException e) {
+      synchronized (this) {
+        changesDuringRebuild = null;
+      }
+      throw e;
+    }
+
+    synchronized (this) {
+      List<Runnable> changes = changesDuringRebuild;
+      changesDuringRebuild = null;
+      spansByBooking.clear();
+      calendarsByResource.clear();
+      for (Booking booking : bookings) {
+        Span span = Span.of(booking);
+        if (span != null) {
+          add(booking.getId(), span);
+        }
+      }
+      changes.forEach(Runnable::run);
+      ready = true;
+    }
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public synchronized void put(long bookingId, Span span) {
+    recordDuringRebuild(() -> put(bookingId, span));
+    removeSpan(bookingId);
+    if (span != null) {
+      add(bookingId, span);
+    }
+  }
+
+  public synchronized void remove(long bookingId) {
+    recordDuringRebuild(() -> remove(bookingId));
+    removeSpan(bookingId);
+  }
+
+  public synchronized void removeAll(Collection<Long> bookingIds) {
+    for (long bookingId : bookingIds) {
+      remove(bookingId);
+    }
+  }
+
+  /**
+   * Returns the highest number of bookings occupying the resource on any day
+   * from startDate to endDate (both inclusive), ignoring the booking with the
+   * given id.
+   */
+  public synchronized long peakOccupancy(long resourceId, LocalDate startDate, LocalDate endDate,
+      long excludedBookingId) {
+    OccupancyCalendar calendar = calendarsByResource.get(resourceId);
+    if (calendar == null) {
+      return 0;
+    }
+
+    Span excluded = spansByBooking.get(excludedBookingId);
+    if (excluded != null && excluded.resourceId() != resourceId) {
+      excluded = null;
+    }
+
+    long peak = 0;
+    for (long day = startDate.toEpochDay(); day <= endDate.toEpochDay(); day++) {
+      long count = calendar.get(day);
+      if (excluded != null && excluded.covers(day)) {
+        count--;
+      }
+      peak = Math.max(peak, count);
+    }
+    return peak;
+  }
+
+  private void recordDuringRebuild(Runnable change) {
+    if (changesDuringRebuild != null) {
+      changesDuringRebuild.add(change);
+    }
+  }
+
+  private void removeSpan(long bookingId) {
+    Span previous = spansByBooking.remove(bookingId);
+    if (previous != null) {
+      calendarsByResource.get(previous.resourceId()).add(previous.firstDay(), previous.lastDayExclusive(), -1);
+    }
+  }
+
+  private void add(long bookingId, Span span) {
+    spansByBooking.put(bookingId, span);
+    calendarsByResource.computeIfAbsent(span.resourceId(), id -> new OccupancyCalendar())
+        .add(span.firstDay(), span.lastDayExclusive(), 1);
+  }
+
+  /**
+   * The days a single booking occupies on its resource, as epoch days.
+   */
+  public record Span(long resourceId, long firstDay, long lastDayExclusive) {
+
+    /**
+     * Captures the occupied days of a booking, or returns null if the booking
+     * does not occupy its resource.
+     */
+    public static Span of(Booking booking) {
+      if (booking.getResource() == null || booking.getStatus() == null
+          || booking.getStatus() == BookingStatus.CANCELED
+          || booking.getStartDate() == null || booking.getEndDate() == null
+          || !booking.getStartDate().isBefore(booking.getEndDate())) {
+        return null;
+      }
+      return new Span(booking.getResource().getId(), booking.getStartDate().toEpochDay(),
+          booking.getEndDate().toEpochDay());
+    }
+
+    boolean covers(long day) {
+      return day >= firstDay && day < lastDayExclusive;
+    }
+  }
+
+  /**
+   * Booking counts per day for one resource, stored as a contiguous int array
+   * starting at {@code firstDay} and grown on demand.
+   */
+  private static final class OccupancyCalendar {
+
+    private long firstDay;
+    private int[] counts = new int[0];
+
+    int get(long day) {
+      long offset = day - firstDay;
+      return offset >= 0 && offset < counts.length ? counts[(int) offset] : 0;
+    }
+
+    void add(long fromDay, long toDayExclusive, int delta) {
+      ensureCovers(fromDay, toDayExclusive);
+      for (long day = fromDay; day < toDayExclusive; day++) {
+        counts[(int) (day - firstDay)] += delta;
+      }
+    }
+
+    private void ensureCovers(long fromDay, long toDayExclusive) {
+      if (counts.length == 0) {
+        firstDay = fromDay;
+        counts = new int[(int) Math.max(toDayExclusive - fromDay, 32)];
+        return;
+      }
+
+      long newFirstDay = Math.min(firstDay, fromDay);
+      long newEndDay = Math.max(firstDay + counts.length, toDayExclusive);
+      if (newFirstDay == firstDay && newEndDay == firstDay + counts.length) {
+        return;
+      }
+
+      // Grow with some headroom so a run of new bookings does not copy the array each time
+      long headroom = Math.max(32, counts.length / 2);
+      if (newFirstDay < firstDay) {
+        newFirstDay -= headroom;
+      }
+      if (newEndDay > firstDay + counts.length) {
+        newEndDay += headroom;
+      }
+
+      int[] grown = new int[(int) (newEndDay - newFirstDay)];
+      System.arraycopy(counts, 0, grown, (int) (firstDay - newFirstDay), counts.length);
+      counts = grown;
+      firstDay = newFirstDay;
+    }
+  }
+}
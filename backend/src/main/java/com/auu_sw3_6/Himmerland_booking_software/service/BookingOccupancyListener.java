@@ -0,0 +1,59 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Keeps the {@link BookingOccupancyIndex} in step with every booking written
+ * through JPA, including writes that do not go through {@link BookingService}.
+ *
+ * Hibernate creates this listener through Spring's bean container, so the
+ * index is injected by constructor.
+ */
+public class BookingOccupancyListener {
+
+  private final BookingOccupancyIndex occupancyIndex;
+
+  public BookingOccupancyListener(BookingOccupancyIndex occupancyIndex) {
+    this.occupancyIndex = occupancyIndex;
+  }
+
+  @PostPersist
+  @PostUpdate
+  public void bookingSaved(Booking booking) {
+    long bookingId = booking.getId();
+    BookingOccupancyIndex.Span span = BookingOccupancyIndex.Span.of(booking);
+    afterCommit(() -> occupancyIndex.put(bookingId, span));
+  }
+
+  @PostRemove
+  public void bookingRemoved(Booking booking) {
+    long bookingId = booking.getId();
+    afterCommit(() -> occupancyIndex.remove(bookingId));
+  }
+
+  /**
+   * Runs the action once the current transaction commits, or right away when
+   * there is no transaction. Bulk updates bypass this listener, so the
+   * service uses this to update the index the same way.
+   */
+  static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+}
@@ -9,15 +9,23 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingCursor;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingDate;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingDetails;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingFilter;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPage;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPeriod;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingSummary;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Resource;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.User;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
@@ -40,14 +48,30 @@ public class BookingService {
   private static final int MAX_BOOKING_DAYS = 5;
   private static final int COOLDOWN_DAYS = 15;
   private static final int MAX_ACTIVE_PER_RESOURCE = 5;
+  private static final long NO_BOOKING_ID = 0L;
+  private static final int DEFAULT_BOOKED_DATES_MONTHS = 6;
+  private static final int DEFAULT_PAGE_SIZE = 50;
+  private static final int MAX_PAGE_SIZE = 200;
+  private static final int MAX_BOOKED_DATES_DAYS = 366;
+  private static final List<BookingStatus> ACTIVE_BOOKING_STATUSES = List.of(BookingStatus.CONFIRMED,
+      BookingStatus.LATE, BookingStatus.PENDING);
   private final TimeProvider timeProvider;
+  private final BookingOccupancyIndex occupancyIndex;
+  private final BookingAdmissionController admissionController;
 
   public BookingService(BookingRepository bookingRepository, ResourceServiceFactory resourceServiceFactory,
-      ApplicationEventPublisher eventPublisher, TimeProvider timeProvider) {
+      ApplicationEventPublisher eventPublisher, TimeProvider timeProvider, BookingOccupancyIndex occupancyIndex,
+      BookingAdmissionController admissionController) {
     this.bookingRepository = bookingRepository;
     this.resourceServiceFactory = resourceServiceFactory;
     this.eventPublisher = eventPublisher;
     this.timeProvider = timeProvider;
+    this.occupancyIndex = occupancyIndex;
+    this.admissionController = admissionController;
+  }
+
+  public void rebuildOccupancyIndex() {
+    occupancyIndex.rebuild(() -> bookingRepository.findByStatusNot(BookingStatus.CANCELED));
   }
 
   public Booking createBooking(Booking booking) {
@@ -58,6 +82,52 @@ public class BookingService {
     return bookingRepository.findAll();
   }
 
+  /**
+   * Returns one page of all bookings matching the filter, in id order. The
+   * cursor is the id of the last booking on the previous page, or null for the
+   * first page.
+   */
+  public BookingPage getAllBookings(BookingFilter filter, String cursor, Integer limit) {
+    long afterId = parseIdCursor(cursor);
+    int pageSize = resolvePageSize(limit);
+
+    // Fetch one extra row to find out whether there is a next page
+    List<BookingSummary> bookings = bookingRepository.findPageForAdmin(filter.anyStatus(), filter.statusesOrAll(),
+        filter.resourceType(), filter.resourceId(), filter.tenantId(), filter.from(), filter.to(),
+        filter.includeDeletedResources(), afterId, Limit.of(pageSize + 1));
+
+    if (bookings.size() <= pageSize) {
+      return new BookingPage(bookings, null);
+    }
+    List<BookingSummary> page = bookings.subList(0, pageSize);
+    return new BookingPage(page, Long.toString(page.get(pageSize - 1).id()));
+  }
+
+  /**
+   * Hands every booking matching the filter to the consumer, in id order,
+   * without loading them all at once. The rows are read as summaries, so
+   * nothing piles up in the persistence context while the stream is consumed.
+   */
+  @Transactional(readOnly = true)
+  public void streamAllBookings(BookingFilter filter, Consumer<BookingSummary> consumer) {
+    try (Stream<BookingSummary> bookings = bookingRepository.streamForAdmin(filter.anyStatus(),
+        filter.statusesOrAll(), filter.resourceType(), filter.resourceId(), filter.tenantId(), filter.from(),
+        filter.to(), filter.includeDeletedResources())) {
+      bookings.forEach(consumer);
+    }
+  }
+
+  static long parseIdCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return NO_BOOKING_ID;
+    }
+    try {
+      return Long.parseLong(cursor);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+  }
+
   public Booking getBookingById(long id) {
     return bookingRepository.findById(id).orElse(null);
   }
@@ -75,8 +145,37 @@ public class BookingService {
   }
 
   public List<Booking> getBookingsByUserID(long userID) {
-    return bookingRepository.findAll().stream().filter(booking -> booking.getUser().getId() == userID)
-        .collect(Collectors.toList());
+    return bookingRepository.findByUser_Id(userID);
+  }
+
+  /**
+   * Returns one page of the user's bookings, newest start date first. The
+   * cursor is the next cursor of the previous page, or null for the first page.
+   */
+  public BookingPage getBookingsByUserID(long userID, BookingFilter filter, String cursor, Integer limit) {
+    BookingCursor after = cursor == null || cursor.isBlank() ? null : BookingCursor.parse(cursor);
+    int pageSize = resolvePageSize(limit);
+
+    // Fetch one extra row to find out whether there is a next page
+    List<BookingSummary> bookings = bookingRepository.findPageByUser(userID, filter.statusesOrAll(), filter.from(),
+        filter.to(), after == null ? null : after.startDate(), after == null ? NO_BOOKING_ID : after.id(),
+        Limit.of(pageSize + 1));
+
+    if (bookings.size() <= pageSize) {
+      return new BookingPage(bookings, null);
+    }
+    List<BookingSummary> page = bookings.subList(0, pageSize);
+    return new BookingPage(page, BookingCursor.of(page.get(pageSize - 1)).toString());
+  }
+
+  static int resolvePageSize(Integer limit) {
+    if (limit == null) {
+      return DEFAULT_PAGE_SIZE;
+    }
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    return limit;
   }
 
   public Booking updateBooking(Booking booking) {
@@ -111,15 +210,17 @@ public class BookingService {
     checkBookingPeriodValidity(true, timeProvider.getToday(), timeProvider.getNow(), editBookingRequest.getStartDate(), editBookingRequest.getEndDate(),
         editBookingRequest.getPickupTime(), editBookingRequest.getDropoffTime());
 
-    checkResourceAvailability(booking.getResource(), editBookingRequest.getStartDate(),
-        editBookingRequest.getEndDate(), user, booking);
+    return admissionController.admit(booking.getResource().getId(), () -> {
+      checkResourceAvailability(booking.getResource(), editBookingRequest.getStartDate(),
+          editBookingRequest.getEndDate(), user, booking);
 
-    booking.setStartDate(editBookingRequest.getStartDate());
-    booking.setEndDate(editBookingRequest.getEndDate());
-    booking.setPickupTime(editBookingRequest.getPickupTime());
-    booking.setDropoffTime(editBookingRequest.getDropoffTime());
+      booking.setStartDate(editBookingRequest.getStartDate());
+      booking.setEndDate(editBookingRequest.getEndDate());
+      booking.setPickupTime(editBookingRequest.getPickupTime());
+      booking.setDropoffTime(editBookingRequest.getDropoffTime());
 
-    return bookingRepository.save(booking);
+      return bookingRepository.save(booking);
+    });
 
   }
 
@@ -131,23 +232,23 @@ public class BookingService {
     LocalDate startDate = details.getStartDate();
     LocalDate endDate = details.getEndDate();
 
-    if (getBookingsByUserID(user.getId()).stream()
-        .filter(booking -> booking.getResource().getId() == resource.getId())
-        .filter(booking -> booking.getStatus() != BookingStatus.CANCELED)
-        .filter(booking -> booking.getStatus() != BookingStatus.COMPLETED)
-        .count() >= resource.getCapacity() * MAX_ACTIVE_PER_RESOURCE) {
-      throw new IllegalBookingException(BookingError.TOO_MANY_BOOKINGS);
-    }
+    // Everything from the quota check to the save must see the bookings committed by competing requests
+    return admissionController.admit(resource.getId(), () -> {
+      if (bookingRepository.countByUser_IdAndResource_IdAndStatusIn(user.getId(), resource.getId(),
+          ACTIVE_BOOKING_STATUSES) >= resource.getCapacity() * MAX_ACTIVE_PER_RESOURCE) {
+        throw new IllegalBookingException(BookingError.TOO_MANY_BOOKINGS);
+      }
 
-    checkBookingPeriodValidity(false, timeProvider.getToday(), timeProvider.getNow(), startDate, endDate, details.getPickupTime(), details.getDropoffTime());
+      checkBookingPeriodValidity(false, timeProvider.getToday(), timeProvider.getNow(), startDate, endDate, details.getPickupTime(), details.getDropoffTime());
 
-    checkResourceAvailability(resource, startDate, endDate, user);
+      checkResourceAvailability(resource, startDate, endDate, user);
 
-    Booking booking = new Booking(resource, user, startDate, endDate,
-        details.getPickupTime(), details.getDropoffTime(),
-        BookingStatus.PENDING, details.getReceiverName(), details.getHandoverName());
+      Booking booking = new Booking(resource, user, startDate, endDate,
+          details.getPickupTime(), details.getDropoffTime(),
+          BookingStatus.PENDING, details.getReceiverName(), details.getHandoverName());
 
-    return bookingRepository.save(booking);
+      return bookingRepository.save(booking);
+    });
 
   }
 
@@ -189,36 +290,29 @@ public class BookingService {
 
   private void checkResourceAvailability(Resource resource, LocalDate startDate, LocalDate endDate, User user,
       Booking currentBooking) {
-    List<Booking> bookings = getRelevantBookings(resource, currentBooking);
-    if (!isResourceAvailable(bookings, resource, startDate, endDate)) {
+    long excludedBookingId = currentBooking == null ? NO_BOOKING_ID : currentBooking.getId();
+
+    if (!isResourceAvailable(resource, startDate, endDate, excludedBookingId)) {
       throw new IllegalBookingException(BookingError.DEFAULT_ERROR);
     }
-    if (!checkUserCooldown(bookings, user, startDate)) {
+
+    // Only the user's own bookings that can touch the cooldown window matter here
+    List<Booking> userBookings = bookingRepository.findUserBookingsForResourceInPeriod(resource.getId(),
+        user.getId(), excludedBookingId, BookingStatus.CANCELED, startDate.minusDays(COOLDOWN_DAYS),
+        startDate.minusDays(1));
+    if (!checkUserCooldown(userBookings, user, startDate)) {
       throw new IllegalBookingException(BookingError.TOO_OFTEN_BOOKING);
     }
   }
 
-  private List<Booking> getRelevantBookings(Resource resource, Booking excludedBooking) {
-    return bookingRepository.findByResource(resource).stream()
-        .filter(b -> excludedBooking == null || b.getId() != excludedBooking.getId())
-        .filter(b -> b.getStatus() != BookingStatus.CANCELED)
-        .collect(Collectors.toList());
-  }
-
-  protected boolean isResourceAvailable(List<Booking> bookings, Resource resource, LocalDate startDate,
-      LocalDate endDate) {
-    for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-      LocalDate finalDate = date;
-
-      long overlappingBookingsCount = bookings.stream()
-          .filter(b -> b.getStartDate().isBefore(finalDate.plusDays(1)) && b.getEndDate().isAfter(finalDate))
-          .count();
+  private boolean isResourceAvailable(Resource resource, LocalDate startDate, LocalDate endDate,
+      long excludedBookingId) {
+    // The index is empty until it has been rebuilt at startup, so ask the database until then
+    long peakOccupancy = occupancyIndex.isReady()
+        ? occupancyIndex.peakOccupancy(resource.getId(), startDate, endDate, excludedBookingId)
+        : bookingRepository.findPeakOccupancy(resource.getId(), startDate, endDate, excludedBookingId);
 
-      if (overlappingBookingsCount >= resource.getCapacity()) {
-        return false;
-      }
-    }
-    return true;
+    return peakOccupancy < resource.getCapacity();
   }
 
   private boolean checkUserCooldown(List<Booking> bookings, User user, LocalDate startDate) {
@@ -273,33 +367,44 @@ public class BookingService {
     return upcomingBookings;
   }
 
-  private List<Booking> getAllActiveBookingsByResource(Resource resource) {
-    List<Booking> activeBookings = bookingRepository.findByResourceAndStatus(resource, BookingStatus.CONFIRMED);
-    activeBookings.addAll(bookingRepository.findByResourceAndStatus(resource, BookingStatus.LATE));
-    activeBookings.addAll(bookingRepository.findByResourceAndStatus(resource, BookingStatus.PENDING));
-    return activeBookings;
-
-  }
-
-  public List<BookingDate> getBookedDatesWithAmount(Resource resource) {
-
-    List<Booking> bookings = getAllActiveBookingsByResource(resource);
-
-    List<BookingDate> bookedDatesWithCapacity = new ArrayList<>();
-
-    Map<LocalDate, Long> dateToCapacityMap = new HashMap<>();
+  /**
+   * Returns how many active bookings cover each day from {@code from} to
+   * {@code to}, both inclusive. Days without bookings are left out. Missing
+   * bounds default to a window starting at the first day of the current month.
+   */
+  public List<BookingDate> getBookedDatesWithAmount(Resource resource, LocalDate from, LocalDate to) {
+    LocalDate rangeStart = from != null ? from : timeProvider.getToday().withDayOfMonth(1);
+    LocalDate rangeEnd = to != null ? to : rangeStart.plusMonths(DEFAULT_BOOKED_DATES_MONTHS).minusDays(1);
 
-    for (Booking booking : bookings) {
-      LocalDate start = booking.getStartDate();
-      LocalDate end = booking.getEndDate();
+    if (rangeEnd.isBefore(rangeStart)) {
+      throw new IllegalArgumentException("The end of the date range must not be before the start");
+    }
+    if (ChronoUnit.DAYS.between(rangeStart, rangeEnd) >= MAX_BOOKED_DATES_DAYS) {
+      throw new IllegalArgumentException("The date range cannot be longer than " + MAX_BOOKED_DATES_DAYS + " days");
+    }
+    if (resource == null) {
+      return new ArrayList<>();
+    }
 
-      for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
-        dateToCapacityMap.put(date, dateToCapacityMap.getOrDefault(date, 0L) + 1);
+    long firstDay = rangeStart.toEpochDay();
+    int[] bookedAmounts = new int[(int) (rangeEnd.toEpochDay() - firstDay) + 1];
+
+    List<BookingPeriod> periods = bookingRepository.findPeriodsByResourceInRange(resource.getId(),
+        ACTIVE_BOOKING_STATUSES, rangeStart, rangeEnd);
+    for (BookingPeriod period : periods) {
+      // Both the start and the end date count as booked
+      int startIndex = (int) Math.max(period.startDate().toEpochDay() - firstDay, 0);
+      int endIndex = (int) Math.min(period.endDate().toEpochDay() - firstDay, bookedAmounts.length - 1);
+      for (int i = startIndex; i <= endIndex; i++) {
+        bookedAmounts[i]++;
       }
     }
 
-    for (Map.Entry<LocalDate, Long> entry : dateToCapacityMap.entrySet()) {
-      bookedDatesWithCapacity.add(new BookingDate(entry.getKey(), entry.getValue()));
+    List<BookingDate> bookedDatesWithCapacity = new ArrayList<>();
+    for (int i = 0; i < bookedAmounts.length; i++) {
+      if (bookedAmounts[i] > 0) {
+        bookedDatesWithCapacity.add(new BookingDate(rangeStart.plusDays(i), (long) bookedAmounts[i]));
+      }
     }
 
     return bookedDatesWithCapacity;
@@ -358,39 +463,44 @@ public class BookingService {
     bookingRepository.save(booking);
   }
 
-  public void cancelConfirmedAndPendingBookingsForResource(long resourceId, ResourceType resourceType) {
+  /**
+   * Cancels every confirmed and pending booking of the resource with one bulk
+   * update, and returns the ids of the bookings that were canceled.
+   */
+  @Transactional
+  public List<Long> cancelConfirmedAndPendingBookingsForResource(long resourceId, ResourceType resourceType) {
     // Checks the given resource actually exists
     ResourceService<?> resourceService = resourceServiceFactory.getServiceByType(resourceType);
-    Resource resource = resourceService.getResourceById(resourceId)
+    resourceService.getResourceById(resourceId)
         .orElseThrow(() -> new ResourceNotFoundException("Resource not found with ID " + resourceId));
 
-    List<Booking> confirmedBookings = bookingRepository.findByResourceAndStatus(resource, BookingStatus.CONFIRMED);
-    List<Booking> pendingBookings = bookingRepository.findByResourceAndStatus(resource, BookingStatus.PENDING);
-
-    List<Booking> combinedBookingsList = new ArrayList<>();
-    combinedBookingsList.addAll(confirmedBookings);
-    combinedBookingsList.addAll(pendingBookings);
-
-    if (combinedBookingsList.isEmpty()) {
-      return;
+    List<BookingStatus> statuses = List.of(BookingStatus.CONFIRMED, BookingStatus.PENDING);
+    List<Long> bookingIds = bookingRepository.findIdsByResourceAndStatusIn(resourceId, statuses);
+    if (bookingIds.isEmpty()) {
+      return bookingIds;
     }
 
-    combinedBookingsList.forEach(booking -> booking.setStatus(BookingStatus.CANCELED));
-    bookingRepository.saveAll(combinedBookingsList);
-  }
-
-  public void cancelAllNonCompletedBookingsForUser(long userId) {
-
-    List<Booking> userIdBookings = bookingRepository.findByUser_Id(userId).stream()
-        .filter(booking -> booking.getStatus() != BookingStatus.COMPLETED)
-        .toList();
-
-    if (userIdBookings.isEmpty()) {
-      return;
+    bookingRepository.updateStatusByResourceAndStatusIn(resourceId, statuses, BookingStatus.CANCELED);
+    BookingOccupancyListener.afterCommit(() -> occupancyIndex.removeAll(bookingIds));
+    return bookingIds;
+  }
+
+  /**
+   * Cancels every booking of the user that is not completed or already
+   * canceled with one bulk update, and returns the ids of the bookings that
+   * were canceled.
+   */
+  @Transactional
+  public List<Long> cancelAllNonCompletedBookingsForUser(long userId) {
+    List<BookingStatus> excludedStatuses = List.of(BookingStatus.COMPLETED, BookingStatus.CANCELED);
+    List<Long> bookingIds = bookingRepository.findIdsByUserAndStatusNotIn(userId, excludedStatuses);
+    if (bookingIds.isEmpty()) {
+      return bookingIds;
     }
 
-    userIdBookings.forEach(booking -> booking.setStatus(BookingStatus.CANCELED));
-    bookingRepository.saveAll(userIdBookings);
+    bookingRepository.updateStatusByUserAndStatusNotIn(userId, excludedStatuses, BookingStatus.CANCELED);
+    BookingOccupancyListener.afterCommit(() -> occupancyIndex.removeAll(bookingIds));
+    return bookingIds;
   }
 
   public void deleteAllBookingsForResource(long resourceId) {
@@ -1,7 +1,9 @@
 package com.auu_sw3_6.Himmerland_booking_software.service;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,51 +11,106 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Admin;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.User;
-import com.auu_sw3_6.Himmerland_booking_software.api.repository.AdminRepository;
-import com.auu_sw3_6.Himmerland_booking_software.api.repository.TenantRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.UserRepository;
 import com.auu_sw3_6.Himmerland_booking_software.config.security.CustomUserDetails;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
-    private final TenantRepository tenantRepository;
-    private final AdminRepository adminRepository;
+    private final UserRepository userRepository;
 
     @Autowired
-    public CustomUserDetailsService(TenantRepository tenantRepository, AdminRepository adminRepository) {
-        this.tenantRepository = tenantRepository;
-        this.adminRepository = adminRepository;
+    public CustomUserDetailsService(UserRepository userRepository) {
+        this.userRepository = userRepository;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        User user = findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        String role = roleOf(user);
 
-        Optional<? extends User> user = tenantRepository.findByUsername(username);
-        String role = "ROLE_TENANT";
+        logger.info("User found: {} with roles: {}", user.getUsername(), role);
 
-        // If user is not found in the tenant repository, search in the admin repository
-        if (user.isEmpty()) {
-            user = adminRepository.findByUsername(username);
-            if (user.isPresent()) {
-                role = "ROLE_ADMIN";
-            }
-        }
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(role));
+
+        return new CustomUserDetails(user, authorities);
+    }
+
+    /**
+     * Stores a new hash of the password the user just logged in with. Called
+     * after a successful login when the stored hash uses an older format or a
+     * lower cost than the current password encoder.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newEncodedPassword) {
+        CustomUserDetails customUserDetails = (CustomUserDetails) userDetails;
+        userRepository.updatePassword(customUserDetails.getUserId(), newEncodedPassword);
+        logger.info("Rehashed the password of user {}", customUserDetails.getUserId());
+
+        User user = customUserDetails.toUser();
+        user.setPassword(newEncodedPassword);
+        return new CustomUserDetails(user, List.copyOf(customUserDetails.getAuthorities()));
+    }
 
-        if (user.isEmpty()) {
-            throw new UsernameNotFoundException("User not found");
+    /**
+     * Finds a tenant or admin by username, ignoring case and surrounding
+     * whitespace, with one indexed query on the user table.
+     */
+    public Optional<User> findByUsername(String username) {
+        String normalized = User.normalizeUsername(username);
+        if (normalized == null || normalized.isEmpty()) {
+            return Optional.empty();
         }
+        return userRepository.findByNormalizedUsername(normalized);
+    }
 
-        logger.info("User found: {} with roles: {}", user.get().getUsername(), role);
+    public boolean isUsernameTaken(String username) {
+        String normalized = User.normalizeUsername(username);
+        return User.DELETED_USERNAME.equals(normalized) || userRepository.existsByNormalizedUsername(normalized);
+    }
 
-        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(role));
+    /**
+     * Loads the full user behind a principal.
+     */
+    public Optional<User> findUser(CustomUserDetails userDetails) {
+        return userRepository.findById(userDetails.getUserId());
+    }
 
-        return new CustomUserDetails(user.get(), authorities);
+    public static String roleOf(User user) {
+        return user instanceof Admin ? "ROLE_ADMIN" : "ROLE_TENANT";
+    }
+
+    /**
+     * Fills in the normalized username of users saved before the column
+     * existed, then creates its unique index. Usernames used to be case
+     * sensitive, so when several users only differ in case the oldest one keeps
+     * the name and the others are logged and left out of the index until they
+     * are renamed.
+     */
+    public int prepareUsernameIndex() {
+        Set<String> indexed = new HashSet<>(userRepository.findAllNormalizedUsernames());
+        int updated = 0;
+        for (User user : userRepository.findByNormalizedUsernameIsNullAndUsernameNotOrderById(User.DELETED_USERNAME)) {
+            if (!indexed.add(User.normalizeUsername(user.getUsername()))) {
+                logger.warn("Username {} of user {} clashes with another user and was not indexed",
+                        user.getUsername(), user.getId());
+                continue;
+            }
+            user.updateNormalizedUsername();
+            userRepository.save(user);
+            updated++;
+        }
+        userRepository.createNormalizedUsernameIndex();
+        return updated;
     }
 }
@@ -10,17 +10,26 @@ import org.springframework.stereotype.Service;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.JobExecutionLog;
 import com.auu_sw3_6.Himmerland_booking_software.api.repository.JobExecutionLogRepository;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.TokenRevocationStore;
 
 @Service
 public class JobService {
 
   private final NotificationService notificationService;
   private final JobExecutionLogRepository jobExecutionLogRepository;
+  private final BookingArchiveService bookingArchiveService;
+  private final TokenRevocationStore tokenRevocationStore;
+  private final PictureService pictureService;
 
   @Autowired
-  public JobService(NotificationService notificationService, JobExecutionLogRepository jobExecutionLogRepository) {
+  public JobService(NotificationService notificationService, JobExecutionLogRepository jobExecutionLogRepository,
+      BookingArchiveService bookingArchiveService, TokenRevocationStore tokenRevocationStore,
+      PictureService pictureService) {
     this.notificationService = notificationService;
     this.jobExecutionLogRepository = jobExecutionLogRepository;
+    this.bookingArchiveService = bookingArchiveService;
+    this.tokenRevocationStore = tokenRevocationStore;
+    this.pictureService = pictureService;
   }
 
   // Job for 05:00:00
@@ -57,6 +66,43 @@ public class JobService {
     }
   }
 
+  // Job for 03:30:00, before the morning notifications
+  @Scheduled(cron = "0 30 3 * * *")
+  public void runArchiveJob() {
+    System.out.println("Running Archive Job");
+    int archived = bookingArchiveService.archiveOldBookings();
+    System.out.println("Archived " + archived + " bookings");
+
+    JobExecutionLog log = new JobExecutionLog();
+    log.setJobName("Archive Job");
+    log.setExecutionTime(LocalDateTime.now());
+    log.setStatus("COMPLETED");
+    jobExecutionLogRepository.save(log);
+  }
+
+  // Job for 04:00:00; deletes stored pictures that nothing points to any more
+  @Scheduled(cron = "0 0 4 * * *")
+  public void runPictureSweepJob() {
+    System.out.println("Running Picture Sweep Job");
+    int deleted = pictureService.sweepOrphans(System.currentTimeMillis());
+    System.out.println("Deleted " + deleted + " unused pictures");
+
+    JobExecutionLog log = new JobExecutionLog();
+    log.setJobName("Picture Sweep Job");
+    log.setExecutionTime(LocalDateTime.now());
+    log.setStatus("COMPLETED");
+    jobExecutionLogRepository.save(log);
+  }
+
+  // Every hour; drops revocations of tokens that have expired since. Not logged, it runs too often
+  @Scheduled(cron = "0 15 * * * *")
+  public void runRevokedTokenPurgeJob() {
+    int purged = tokenRevocationStore.purgeExpired(System.currentTimeMillis());
+    if (purged > 0) {
+      System.out.println("Purged " + purged + " expired token revocations");
+    }
+  }
+
   private void executeJob(String jobName) {
     System.out.println("Running " + jobName);
 
@@ -0,0 +1,207 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.PictureCacheStats;
+
+/**
+ * Keeps the most recently served pictures in memory, so popular pictures are
+ * not read from disk on every request.
+ *
+ * Picture bytes are held in direct buffers outside the Java heap, so they do
+ * not add to garbage collection work however often they are served. The
+ * cache is bounded by the total size of the pictures it holds and drops the
+ * least recently used ones to stay under it. Pictures larger than the entry
+ * limit are always streamed from disk.
+ *
+ * Stored pictures are named after the hash of their content and never
+ * overwritten, so a cached picture cannot go stale. It is only evicted once
+ * its file has been deleted.
+ */
+@Component
+public class PictureCache {
+
+  private final long maxBytes;
+  private final long maxEntryBytes;
+
+  // Access-ordered, so iteration starts at the least recently used picture
+  private final LinkedHashMap<String, ByteBuffer> pictures = new LinkedHashMap<>(16, 0.75f, true);
+  private long residentBytes;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  @Autowired
+  public PictureCache(@Value("${picture-cache.max-bytes:16777216}") long maxBytes,
+      @Value("${picture-cache.max-entry-bytes:1048576}") long maxEntryBytes) {
+    this.maxBytes = maxBytes;
+    this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+  }
+
+  /**
+   * Returns the picture from memory, reading it into the cache first if it is
+   * not there yet.
+   */
+  public Resource get(File file) throws IOException {
+    String fileName = file.getName();
+    ByteBuffer cached;
+    synchronized (this) {
+      cached = pictures.get(fileName);
+    }
+    if (cached != null) {
+      hits.incrementAndGet();
+      return new ByteBufferResource(fileName, cached);
+    }
+
+    misses.incrementAndGet();
+    long size = file.length();
+    if (size > maxEntryBytes) {
+      return new FileSystemResource(file);
+    }
+    ByteBuffer loaded = load(file, (int) size);
+    put(fileName, loaded);
+    return new ByteBufferResource(fileName, loaded);
+  }
+
+  public synchronized void evict(String fileName) {
+    if (fileName == null) {
+      return;
+    }
+    ByteBuffer removed = pictures.remove(fileName);
+    if (removed != null) {
+      residentBytes -= removed.capacity();
+    }
+  }
+
+  public synchronized PictureCacheStats getStats() {
+    long hitCount = hits.get();
+    long missCount = misses.get();
+    long lookups = hitCount + missCount;
+    return new PictureCacheStats(hitCount, missCount, lookups == 0 ? 0 : (double) hitCount / lookups,
+        evictions.get(), pictures.size(), residentBytes, maxBytes, maxEntryBytes);
+  }
+
+  private synchronized void put(String fileName, ByteBuffer picture) {
+    ByteBuffer previous = pictures.put(fileName, picture);
+    if (previous != null) {
+      residentBytes -= previous.capacity();
+    }
+    residentBytes += picture.capacity();
+
+    Iterator<Map.Entry<String, ByteBuffer>> leastRecentlyUsed = pictures.entrySet().iterator();
+    while (residentBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+      residentBytes -= leastRecentlyUsed.next().getValue().capacity();
+      leastRecentlyUsed.remove();
+      evictions.incrementAndGet();
+    }
+  }
+
+  // Reads the file straight into off-heap memory, without a heap copy on the way
+  private static ByteBuffer load(File file, int size) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // Keep reading until the buffer is full or the file ends
+      }
+    }
+    buffer.flip();
+    return buffer.asReadOnlyBuffer();
+  }
+
+  /**
+   * A cached picture. Every stream reads from its own view of the buffer, so
+   * any number of responses can be written from it at the same time, and an
+   * evicted picture stays valid for the responses still using it.
+   */
+  static class ByteBufferResource extends AbstractResource {
+
+    private final String fileName;
+    private final ByteBuffer buffer;
+
+    ByteBufferResource(String fileName, ByteBuffer buffer) {
+      this.fileName = fileName;
+      this.buffer = buffer;
+    }
+
+    @Override
+    public String getFilename() {
+      return fileName;
+    }
+
+    @Override
+    public String getDescription() {
+      return "Cached picture [" + fileName + "]";
+    }
+
+    @Override
+    public boolean exists() {
+      return true;
+    }
+
+    @Override
+    public long contentLength() {
+      return buffer.limit();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return new ByteBufferInputStream(buffer.duplicate());
+    }
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override
+    public long skip(long n) {
+      int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
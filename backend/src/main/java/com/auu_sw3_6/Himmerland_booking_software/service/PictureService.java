@@ -1,19 +1,34 @@
 package com.auu_sw3_6.Himmerland_booking_software.service;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.Optional;
-import java.util.UUID;
 
+import javax.imageio.IIOException;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.auu_sw3_6.Himmerland_booking_software.api.model.StoredPicture;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.StoredPictureRepository;
+
 @Service
 public class PictureService {
 
@@ -25,9 +40,33 @@ public class PictureService {
   protected static String RESOURCE_PICTURE_DIRECTORY = Paths
       .get("src", "main", "resources", "database", "img", "resourcePictures").toAbsolutePath().toString();
 
-  public PictureService() {
+  private static final int PICTURE_SIZE = 300;
+  private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+  private static final byte[] JPEG_SIGNATURE = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF };
+
+  private final PictureCache pictureCache;
+  private final StoredPictureRepository storedPictureRepository;
+  private final DataSize maxUploadSize;
+  private final long orphanGraceMillis;
+  // Keeps a save from reusing a file that the sweep is deleting at the same moment
+  private final Object storeLock = new Object();
+
+  @Autowired
+  public PictureService(PictureCache pictureCache, StoredPictureRepository storedPictureRepository,
+      @Value("${spring.servlet.multipart.max-file-size:512KB}") DataSize maxUploadSize,
+      @Value("${picture-store.orphan-grace-minutes:60}") long orphanGraceMinutes) {
+    this.pictureCache = pictureCache;
+    this.storedPictureRepository = storedPictureRepository;
+    this.maxUploadSize = maxUploadSize;
+    this.orphanGraceMillis = orphanGraceMinutes * 60_000;
   }
 
+  /**
+   * Stores an upload under the SHA-256 hash of its content and returns the
+   * file name. The hash is computed while the upload is written to disk. If
+   * the same picture is already stored, a reference to the existing file is
+   * added instead of writing a copy.
+   */
   public String savePicture(MultipartFile picture, boolean isProfilePicture) {
     String directoryPath = isProfilePicture ? PROFILE_PICTURE_DIRECTORY : RESOURCE_PICTURE_DIRECTORY;
 
@@ -39,66 +78,196 @@ public class PictureService {
         directory.mkdirs();
       }
 
-      String originalFileName = picture.getOriginalFilename();
-      String extension = "";
-      if (originalFileName != null) {
-        int index = originalFileName.lastIndexOf('.');
-        if (index > 0) {
-          extension = originalFileName.substring(index);
+      Path upload = Files.createTempFile(directory.toPath(), "upload-", ".tmp");
+      try {
+        MessageDigest digest = sha256();
+        try (InputStream input = new DigestInputStream(picture.getInputStream(), digest)) {
+          Files.copy(input, upload, StandardCopyOption.REPLACE_EXISTING);
         }
-      }
-
-      String uniqueFileName = UUID.randomUUID().toString() + extension;
-      Path imagePath = Paths.get(directoryPath, uniqueFileName);
-      picture.transferTo(imagePath.toFile());
+        String fileName = HexFormat.of().formatHex(digest.digest()) + extension(upload, picture.getOriginalFilename());
+        Path target = upload.resolveSibling(fileName);
 
-      return uniqueFileName;
+        synchronized (storeLock) {
+          storedPictureRepository.acquire(fileName, isProfilePicture);
+          try {
+            if (!Files.exists(target)) {
+              Files.move(upload, target);
+              PictureVariants.generate(target);
+            }
+          } catch (IOException | RuntimeException e) {
+            // No owner will be saved, so hand the reference back for the sweep to clean up
+            releasePicture(fileName, isProfilePicture);
+            throw e;
+          }
+        }
+        return fileName;
+      } finally {
+        Files.deleteIfExists(upload);
+      }
     } catch (IOException e) {
       throw new RuntimeException("Failed to save picture", e);
     }
   }
 
-  public void validatePicture(MultipartFile picture) {
-    try {
-        // Check file type
-        String contentType = picture.getContentType();
-        if (contentType == null || 
-           (!contentType.equals("image/png") && !contentType.equals("image/jpeg"))) {
-            throw new IllegalArgumentException("Invalid file type. Only PNG and JPG are allowed.");
-        }
+  /**
+   * Drops a reference to a stored picture, for example when a resource gets
+   * a new picture. The file is deleted by {@link #sweepOrphans} once nothing
+   * has pointed to it for the grace period.
+   */
+  public void releasePicture(String fileName, boolean isProfilePicture) {
+    if (fileName != null) {
+      storedPictureRepository.release(fileName, isProfilePicture, System.currentTimeMillis());
+    }
+  }
 
-        // Check dimensions
-        BufferedImage bufferedImage = ImageIO.read(picture.getInputStream());
-        if (bufferedImage == null) {
-            throw new IllegalArgumentException("Invalid image file.");
+  /**
+   * Deletes the files of stored pictures that have had no references for the
+   * grace period, and returns how many pictures were deleted. The grace
+   * period covers saves whose user or resource has not been written yet.
+   */
+  public int sweepOrphans(long nowMillis) {
+    int deleted = 0;
+    for (StoredPicture orphan : storedPictureRepository.findOrphans(nowMillis - orphanGraceMillis)) {
+      String fileName = orphan.getFileName();
+      String directoryPath = orphan.isProfilePicture() ? PROFILE_PICTURE_DIRECTORY : RESOURCE_PICTURE_DIRECTORY;
+      synchronized (storeLock) {
+        if (storedPictureRepository.deleteIfUnreferenced(fileName, orphan.isProfilePicture()) == 0) {
+          continue;
         }
-        int width = bufferedImage.getWidth();
-        int height = bufferedImage.getHeight();
-
-        if (width != 300 || height != 300) {
-            throw new IllegalArgumentException("Image dimensions must be 300x300.");
+        try {
+          Files.deleteIfExists(Paths.get(directoryPath, fileName));
+          for (int width : PictureVariants.WIDTHS) {
+            Files.deleteIfExists(Paths.get(directoryPath, PictureVariants.fileName(fileName, width)));
+          }
+        } catch (IOException e) {
+          throw new RuntimeException("Failed to delete picture", e);
         }
+        evictPicture(fileName);
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  // Named after the detected format, so the same picture uploaded as .JPG and .jpeg is stored once
+  private static String extension(Path upload, String originalFileName) throws IOException {
+    try (ImageInputStream image = ImageIO.createImageInputStream(upload.toFile())) {
+      String format = image == null ? null : sniffFormat(image);
+      if ("png".equals(format)) {
+        return ".png";
+      }
+      if ("jpeg".equals(format)) {
+        return ".jpg";
+      }
+    }
+    if (originalFileName != null) {
+      int index = originalFileName.lastIndexOf('.');
+      if (index > 0) {
+        return originalFileName.substring(index);
+      }
+    }
+    return "";
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Checks the size, type and dimensions of an upload without decoding it.
+   * The type is taken from the first bytes of the file rather than the
+   * content type the client sent, and the dimensions from the image header,
+   * so an oversized or malformed picture is rejected before any pixels are
+   * read.
+   */
+  public void validatePicture(MultipartFile picture) {
+    if (picture.getSize() > maxUploadSize.toBytes()) {
+      throw new IllegalArgumentException("Image file is too large. The limit is " + maxUploadSize.toKilobytes() + " KB.");
+    }
+
+    try (InputStream input = picture.getInputStream();
+        ImageInputStream image = ImageIO.createImageInputStream(input)) {
+      String format = image == null ? null : sniffFormat(image);
+      if (format == null) {
+        throw new IllegalArgumentException("Invalid file type. Only PNG and JPG are allowed.");
+      }
+
+      ImageReader reader = ImageIO.getImageReadersByFormatName(format).next();
+      int width;
+      int height;
+      try {
+        reader.setInput(image, true, true);
+        width = reader.getWidth(0);
+        height = reader.getHeight(0);
+      } catch (IIOException e) {
+        throw new IllegalArgumentException("Invalid image file.");
+      } finally {
+        reader.dispose();
+      }
+
+      if (width != PICTURE_SIZE || height != PICTURE_SIZE) {
+        throw new IllegalArgumentException("Image dimensions must be 300x300.");
+      }
     } catch (IOException e) {
-        throw new RuntimeException("Failed to validate picture", e);
+      throw new RuntimeException("Failed to validate picture", e);
     }
-}
+  }
+
+  // Returns the image format named by the file's magic bytes, or null if it is not PNG or JPEG
+  private static String sniffFormat(ImageInputStream image) throws IOException {
+    byte[] header = new byte[PNG_SIGNATURE.length];
+    image.mark();
+    int read = image.read(header);
+    image.reset();
+    if (read == PNG_SIGNATURE.length && Arrays.equals(header, PNG_SIGNATURE)) {
+      return "png";
+    }
+    if (read >= JPEG_SIGNATURE.length && Arrays.equals(header, 0, JPEG_SIGNATURE.length, JPEG_SIGNATURE, 0,
+        JPEG_SIGNATURE.length)) {
+      return "jpeg";
+    }
+    return null;
+  }
 
-  public Optional<byte[]> readPicture(String fileName, boolean isProfilePicture) {
+  public Optional<Resource> readPicture(String fileName, boolean isProfilePicture) {
+    return readPicture(fileName, isProfilePicture, null);
+  }
+
+  /**
+   * Returns the stored picture as a resource that can be streamed to the
+   * client, served from the picture cache when possible. With a width, the
+   * smallest variant at least that wide is returned instead, falling back to
+   * the picture itself for pictures saved before variants were made.
+   */
+  public Optional<Resource> readPicture(String fileName, boolean isProfilePicture, Integer width) {
     String directoryPath = isProfilePicture ? PROFILE_PICTURE_DIRECTORY : RESOURCE_PICTURE_DIRECTORY;
     if (fileName != null) {
-      File file = new File(directoryPath, fileName);
-      if (!file.exists()) {
+      File file = new File(directoryPath, PictureVariants.bestFileName(fileName, width));
+      if (!file.isFile()) {
+        file = new File(directoryPath, fileName);
+      }
+      if (!file.isFile()) {
         return Optional.empty();
       }
       try {
-        byte[] pictureBytes = Files.readAllBytes(file.toPath());
-        return Optional.of(pictureBytes);
+        return Optional.of(pictureCache.get(file));
       } catch (IOException e) {
         throw new RuntimeException("Failed to read picture", e);
       }
     }
     return Optional.empty();
   }
+
+  private void evictPicture(String fileName) {
+    pictureCache.evict(fileName);
+    for (int width : PictureVariants.WIDTHS) {
+      pictureCache.evict(PictureVariants.fileName(fileName, width));
+    }
+  }
   
   public void setProfilePictureDirectory(String profilePictureDirectory) {
     PictureService.PROFILE_PICTURE_DIRECTORY = profilePictureDirectory;
@@ -0,0 +1,149 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Smaller copies of stored pictures, made when a picture is saved so that
+ * lists can show small pictures without downloading the full size one.
+ *
+ * A variant is stored next to its picture with the width added to the file
+ * name, so "{hash}.png" gets "{hash}_96.png" and "{hash}_192.png". Uploads
+ * are 300x300, which makes the stored picture itself the largest size.
+ */
+public final class PictureVariants {
+
+  /** Widths of the stored variants, smallest first: a list thumbnail and the same at 2x. */
+  static final int[] WIDTHS = { 96, 192 };
+
+  private static final char WIDTH_SEPARATOR = '_';
+  private static final float JPEG_QUALITY = 0.85f;
+
+  private PictureVariants() {
+  }
+
+  /**
+   * Returns the file name of the smallest variant at least as wide as the
+   * requested width, or the picture itself if no variant is wide enough.
+   */
+  static String bestFileName(String fileName, Integer requestedWidth) {
+    if (requestedWidth == null) {
+      return fileName;
+    }
+    for (int width : WIDTHS) {
+      if (width >= requestedWidth) {
+        return fileName(fileName, width);
+      }
+    }
+    return fileName;
+  }
+
+  static String fileName(String fileName, int width) {
+    int extension = fileName.lastIndexOf('.');
+    if (extension <= 0) {
+      return fileName + WIDTH_SEPARATOR + width;
+    }
+    return fileName.substring(0, extension) + WIDTH_SEPARATOR + width + fileName.substring(extension);
+  }
+
+  /**
+   * Returns the name of the picture a variant was made from, or the name
+   * itself if it is not a variant.
+   */
+  public static String originalFileName(String fileName) {
+    int separator = fileName.lastIndexOf(WIDTH_SEPARATOR);
+    if (separator < 0) {
+      return fileName;
+    }
+    int extension = fileName.indexOf('.', separator);
+    int end = extension < 0 ? fileName.length() : extension;
+    for (int i = separator + 1; i < end; i++) {
+      if (!Character.isDigit(fileName.charAt(i))) {
+        return fileName;
+      }
+    }
+    return fileName.substring(0, separator) + fileName.substring(end);
+  }
+
+  /**
+   * Writes the variants of a saved picture. The picture itself is left as
+   * uploaded, since its name is the hash of its content. Files that cannot
+   * be decoded are left without variants, and are then always served at
+   * full size.
+   */
+  static void generate(Path picture) throws IOException {
+    String format;
+    BufferedImage image;
+    try (ImageInputStream input = ImageIO.createImageInputStream(picture.toFile())) {
+      Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+      if (readers == null || !readers.hasNext()) {
+        return;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        format = reader.getFormatName().toLowerCase();
+        image = reader.read(0);
+      } catch (IIOException e) {
+        // The header was valid, but the body is truncated or corrupt
+        return;
+      } finally {
+        reader.dispose();
+      }
+    }
+
+    String fileName = picture.getFileName().toString();
+    for (int width : WIDTHS) {
+      if (width < image.getWidth()) {
+        Files.write(picture.resolveSibling(fileName(fileName, width)), encode(scale(image, width), format));
+      }
+    }
+  }
+
+  private static BufferedImage scale(BufferedImage image, int width) {
+    int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+    // Area averaging looks clearly better than bilinear when shrinking by a factor of two or more
+    Image scaled = image.getScaledInstance(width, height, Image.SCALE_AREA_AVERAGING);
+    BufferedImage result = new BufferedImage(width, height,
+        image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = result.createGraphics();
+    try {
+      graphics.drawImage(scaled, 0, 0, null);
+    } finally {
+      graphics.dispose();
+    }
+    return result;
+  }
+
+  private static byte[] encode(BufferedImage image, String format) throws IOException {
+    ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+    ImageWriteParam param = writer.getDefaultWriteParam();
+    if (param.canWriteCompressed() && format.startsWith("jp")) {
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality(JPEG_QUALITY);
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+      writer.setOutput(output);
+      writer.write(null, new IIOImage(image, null, null), param);
+    } finally {
+      writer.dispose();
+    }
+    return bytes.toByteArray();
+  }
+}
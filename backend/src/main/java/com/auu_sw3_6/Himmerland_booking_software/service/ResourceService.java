@@ -5,10 +5,11 @@ import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Resource;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.ResourceSummary;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.ResourceRepository;
 import com.auu_sw3_6.Himmerland_booking_software.exception.ResourceNotFoundException;
 
 public abstract class ResourceService<T extends Resource> {
@@ -17,36 +18,45 @@ public abstract class ResourceService<T extends Resource> {
   @Value("${resource.pictures.directory}")
   private String resourcePicturesDirectory;
 
-  private final JpaRepository<T, Long> repository;
+  private final ResourceRepository<T> repository;
   private final PictureService pictureService;
 
   @Autowired
-  public ResourceService(JpaRepository<T, Long> repository, PictureService pictureService) {
+  public ResourceService(ResourceRepository<T> repository, PictureService pictureService) {
     this.repository = repository;
     this.pictureService = pictureService;
   }
 
   public T createResource(T resource, MultipartFile resourcePictures) {
-    if (resourcePictures != null && !resourcePictures.isEmpty()) {
+    boolean pictureSaved = resourcePictures != null && !resourcePictures.isEmpty();
+    if (pictureSaved) {
       String uniqueFileName = pictureService.savePicture(resourcePictures, false);
       resource.setResourcePictureFileName(uniqueFileName);
     }
 
-    return repository.save(resource);
+    return savePictureOwner(resource, pictureSaved);
   }
 
   public List<T> getAllResources() {
     return repository.findAll();
   }
 
+  public List<ResourceSummary> getResourceSummaries() {
+    return repository.findAllProjectedByOrderById();
+  }
+
   public Optional<T> getResourceById(Long id) {
     return repository.findById(id);
   }
 
 
-  public Optional<byte[]> getresourcePicturesByResourceId(long resourceId) {
+  public Optional<org.springframework.core.io.Resource> getresourcePicturesByResourceId(long resourceId) {
+    return getresourcePicturesByResourceId(resourceId, null);
+  }
+
+  public Optional<org.springframework.core.io.Resource> getresourcePicturesByResourceId(long resourceId, Integer width) {
     Optional<T> resourceOptional = repository.findById(resourceId);
-    return resourceOptional.flatMap(user -> pictureService.readPicture(user.getResourcePictureFileName(), false));
+    return resourceOptional.flatMap(user -> pictureService.readPicture(user.getResourcePictureFileName(), false, width));
   }
 
   public T updateResource(T updatedResource, MultipartFile pictureFile) {
@@ -54,18 +64,40 @@ public abstract class ResourceService<T extends Resource> {
 
     if (existingResourceOptional.isPresent()) {
 
-      if (pictureFile != null && !pictureFile.isEmpty()) {
-        String uniqueFileName = pictureService.savePicture(pictureFile, false);
-        updatedResource.setResourcePictureFileName(uniqueFileName);
+      // Keep the stored picture, not whichever name the client sent back, unless a new one is uploaded
+      String previousPicture = existingResourceOptional.get().getResourcePictureFileName();
+      updatedResource.setResourcePictureFileName(previousPicture);
+      boolean pictureSaved = pictureFile != null && !pictureFile.isEmpty();
+      if (pictureSaved) {
+        updatedResource.setResourcePictureFileName(pictureService.savePicture(pictureFile, false));
       }
 
-      return repository.save(updatedResource);
+      T savedResource = savePictureOwner(updatedResource, pictureSaved);
+      if (pictureSaved) {
+        pictureService.releasePicture(previousPicture, false);
+      }
+      return savedResource;
       
     } else {
         throw new ResourceNotFoundException("Resource with ID " + updatedResource.getId() + " not found");
     }
   }
 
+  /**
+   * Saves a resource, and if a new picture was stored for it and the save
+   * fails, hands back the reference taken on that picture so it can be swept.
+   */
+  private T savePictureOwner(T resource, boolean pictureSaved) {
+    try {
+      return repository.save(resource);
+    } catch (RuntimeException e) {
+      if (pictureSaved) {
+        pictureService.releasePicture(resource.getResourcePictureFileName(), false);
+      }
+      throw e;
+    }
+  }
+
   public boolean softDeleteResource(Long id) {
     Optional<T> resourceOptional = repository.findById(id);
 
@@ -82,7 +114,7 @@ public abstract class ResourceService<T extends Resource> {
     }
   }
 
-  public Optional<byte[]> getResourcePictureByResourcename(String resourceName) {
+  public Optional<org.springframework.core.io.Resource> getResourcePictureByResourcename(String resourceName) {
     Optional<T> resource = getResourceByResourceName(resourceName);
     return resource.flatMap(u -> getresourcePicturesByResourceId(u.getId()));
   }
@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,11 +13,14 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingFilter;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPage;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.TenantSummary;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.User;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
 import com.auu_sw3_6.Himmerland_booking_software.api.repository.TenantRepository;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.TokenVersionRegistry;
 import com.auu_sw3_6.Himmerland_booking_software.exception.RestrictedUsernameException;
 import com.auu_sw3_6.Himmerland_booking_software.exception.UserAlreadyExistsException;
 
@@ -25,9 +29,9 @@ import jakarta.annotation.PostConstruct;
 @Service
 public class TenantService extends UserService<Tenant> {
 
-  private final AdminService adminService;
   private final TenantRepository tenantRepository;
   private final PasswordEncoder passwordEncoder;
+  private final BookingArchiveService bookingArchiveService;
 
   @Value("${restricted.usernames}")
   private String restrictedUsernames;
@@ -38,12 +42,15 @@ public class TenantService extends UserService<Tenant> {
   public TenantService(TenantRepository tenantRepository,
       PictureService profilePictureService,
       PasswordEncoder passwordEncoder,
-      AdminService adminService,
-      BookingService bookingService) {
-    super(tenantRepository, profilePictureService, passwordEncoder, bookingService);
-    this.adminService = adminService;
+      BookingService bookingService,
+      BookingArchiveService bookingArchiveService,
+      CustomUserDetailsService userDetailsService,
+      TokenVersionRegistry tokenVersions) {
+    super(tenantRepository, profilePictureService, passwordEncoder, bookingService, userDetailsService,
+        tokenVersions);
     this.tenantRepository = tenantRepository;
     this.passwordEncoder = passwordEncoder;
+    this.bookingArchiveService = bookingArchiveService;
   }
 
   private Set<String> initializeRestrictedUsernames() {
@@ -51,12 +58,13 @@ public class TenantService extends UserService<Tenant> {
       System.out.println("Restricted usernames not set.");
       return new HashSet<>();
     }
-    return new HashSet<>(Arrays.asList(restrictedUsernames.split(",")));
+    return Arrays.stream(restrictedUsernames.split(","))
+        .map(User::normalizeUsername)
+        .collect(Collectors.toSet());
   }
 
-  public List<Tenant> getAllTenants() {
-    return tenantRepository.findAll().stream()
-        .filter(tenant -> !tenant.getName().equals("deleted")).toList();
+  public List<TenantSummary> getAllTenants() {
+    return tenantRepository.findByNameNotOrderById("deleted");
   }
 
   public Tenant createTenant(Tenant tenant, MultipartFile profilePicture) {
@@ -64,7 +72,8 @@ public class TenantService extends UserService<Tenant> {
       throw new IllegalArgumentException("Username cannot be null or empty.");
     }
 
-    if (restrictedUsernamesSet.contains(tenant.getUsername())) {
+    if (restrictedUsernamesSet.contains(User.normalizeUsername(tenant.getUsername()))
+        || User.DELETED_USERNAME.equals(User.normalizeUsername(tenant.getUsername()))) {
       throw new RestrictedUsernameException(tenant.getUsername());
     }
 
@@ -76,7 +85,7 @@ public class TenantService extends UserService<Tenant> {
   }
 
   private boolean userExists(String username) {
-    return getUserByUsername(username).isPresent() || adminService.getUserByUsername(username).isPresent();
+    return userDetailsService.isUsernameTaken(username);
   }
 
   public void softDeleteTenant(Long userId) {
@@ -91,12 +100,15 @@ public class TenantService extends UserService<Tenant> {
       tenantToBeDeleted.setName("deleted");
       tenantToBeDeleted.setEmail("deleted@gmail.com");
       tenantToBeDeleted.setMobileNumber("00000000");
-      tenantToBeDeleted.setUsername("deleted");
+      tenantToBeDeleted.setUsername(User.DELETED_USERNAME);
       tenantToBeDeleted.setPassword("Deleted123");
+      String profilePictureFileName = tenantToBeDeleted.getProfilePictureFileName();
       tenantToBeDeleted.setProfilePictureFileName("deleted");
       tenantToBeDeleted.setHouseAddress("deleted");
 
       tenantRepository.save(tenantToBeDeleted);
+      pictureService.releasePicture(profilePictureFileName, true);
+      tokenVersions.invalidate(userId);
 
     } else {
       throw new IllegalArgumentException("Tenant with ID " + userId + " not found");
@@ -117,13 +129,17 @@ public class TenantService extends UserService<Tenant> {
     this.restrictedUsernamesSet = restrictedUsernames;
   }
 
-  public List<Booking> getOwnBookings() {
-    User user = getAuthenticatedUser();
-    return bookingService.getBookingsByUserID(user.getId());
+  public BookingPage getOwnBookings(BookingFilter filter, String cursor, Integer limit) {
+    return bookingService.getBookingsByUserID(getAuthenticatedUserId(), filter, cursor, limit);
+  }
+
+  public BookingPage getOwnBookingHistory(BookingFilter filter, String cursor, Integer limit) {
+    return bookingArchiveService.getArchivedBookings(
+        new BookingFilter(filter.statuses(), filter.from(), filter.to(), null, null, getAuthenticatedUserId()),
+        cursor, limit);
   }
 
   public void setBookingStatus(long bookingId, BookingStatus status) {
-    User user = getAuthenticatedUser();
-    bookingService.setBookingStatus(bookingId, status, user.getId(), currentUserIsAdmin());
+    bookingService.setBookingStatus(bookingId, status, getAuthenticatedUserId(), currentUserIsAdmin());
   }
 }
\ No newline at end of file
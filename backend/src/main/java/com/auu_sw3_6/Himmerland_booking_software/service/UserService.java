@@ -4,7 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.core.io.Resource;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -15,48 +15,61 @@ import org.springframework.web.multipart.MultipartFile;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingDetails;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.User;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.UserBaseRepository;
 import com.auu_sw3_6.Himmerland_booking_software.config.security.CustomUserDetails;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.TokenVersionRegistry;
+import com.auu_sw3_6.Himmerland_booking_software.exception.UserAlreadyExistsException;
 import com.auu_sw3_6.Himmerland_booking_software.exception.UserNotFoundException;
 
 @Service
 public abstract class UserService<T extends User> {
 
-  private final JpaRepository<T, Long> repository;
-  private final PictureService pictureService;
+  private final UserBaseRepository<T> repository;
+  protected final PictureService pictureService;
   private final PasswordEncoder passwordEncoder;
   protected final BookingService bookingService;
+  protected final CustomUserDetailsService userDetailsService;
+  protected final TokenVersionRegistry tokenVersions;
 
   @Autowired
-  public UserService(JpaRepository<T, Long> repository, PictureService pictureService,
-      PasswordEncoder passwordEncoder, BookingService bookingService) {
+  public UserService(UserBaseRepository<T> repository, PictureService pictureService,
+      PasswordEncoder passwordEncoder, BookingService bookingService,
+      CustomUserDetailsService userDetailsService, TokenVersionRegistry tokenVersions) {
     this.repository = repository;
     this.pictureService = pictureService;
     this.passwordEncoder = passwordEncoder;
     this.bookingService = bookingService;
+    this.userDetailsService = userDetailsService;
+    this.tokenVersions = tokenVersions;
   }
 
   public User updateUser(Long id, User updatedUser) {
     return repository.findById(id)
         .map(user -> {
+          checkUsernameAvailable(user, updatedUser.getUsername());
           user.setName(updatedUser.getName());
           user.setEmail(updatedUser.getEmail());
           user.setMobileNumber(updatedUser.getMobileNumber());
           user.setUsername(updatedUser.getUsername());
-          user.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
-          user.setProfilePictureFileName(updatedUser.getProfilePictureFileName());
+          if (isNewPassword(updatedUser.getPassword(), user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
+          }
           user.setHouseAddress(updatedUser.getHouseAddress());
-          return repository.save(user);
+          T savedUser = repository.save(user);
+          tokenVersions.invalidate(savedUser.getId());
+          return savedUser;
         })
         .orElseThrow(() -> new UserNotFoundException("User not found"));
   }
 
   public T createUser(T user, MultipartFile profilePicture) {
-    if (profilePicture != null && !profilePicture.isEmpty()) {
+    user.setPassword(passwordEncoder.encode(user.getPassword()));
+    boolean pictureSaved = profilePicture != null && !profilePicture.isEmpty();
+    if (pictureSaved) {
       String uniqueFileName = pictureService.savePicture(profilePicture, true);
       user.setProfilePictureFileName(uniqueFileName);
     }
-    user.setPassword(passwordEncoder.encode(user.getPassword()));
-    return repository.save(user);
+    return savePictureOwner(user, pictureSaved);
   }
 
   public List<T> getAllUsers() {
@@ -67,35 +80,42 @@ public abstract class UserService<T extends User> {
     return repository.findById(id);
   }
 
-  public Optional<byte[]> getProfilePictureByUserId(long userId) {
+  public Optional<Resource> getProfilePictureByUserId(long userId) {
+    return getProfilePictureByUserId(userId, null);
+  }
+
+  public Optional<Resource> getProfilePictureByUserId(long userId, Integer width) {
     Optional<T> userOptional = repository.findById(userId);
-    return userOptional.flatMap(user -> pictureService.readPicture(user.getProfilePictureFileName(), true));
+    return userOptional.flatMap(user -> pictureService.readPicture(user.getProfilePictureFileName(), true, width));
   }
 
   public void deleteUser(Long id) {
+    Optional<T> user = repository.findById(id);
     repository.deleteById(id);
+    user.ifPresent(deletedUser -> pictureService.releasePicture(deletedUser.getProfilePictureFileName(), true));
+    tokenVersions.invalidate(id);
+  }
+
+  public Optional<Resource> getProfilePictureByUsername(String username) {
+    return getProfilePictureByUsername(username, null);
   }
 
-  public Optional<byte[]> getProfilePictureByUsername(String username) {
-    Optional<T> user = getUserByUsername(username);
-    return user.flatMap(u -> getProfilePictureByUserId(u.getId()));
+  public Optional<Resource> getProfilePictureByUsername(String username, Integer width) {
+    return userDetailsService.findByUsername(username)
+        .flatMap(user -> pictureService.readPicture(user.getProfilePictureFileName(), true, width));
   }
 
   public Optional<T> getUserByUsername(String username) {
-    return repository.findAll().stream()
-        .filter(u -> u.getUsername().equals(username))
-        .findFirst();
+    return repository.findByNormalizedUsername(User.normalizeUsername(username));
   }
 
   public User getAuthenticatedUser() throws UserNotFoundException {
-    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-    if (authentication == null || !authentication.isAuthenticated()) {
-      throw new UserNotFoundException("User not authenticated");
-    }
+    CustomUserDetails userDetails = getAuthenticatedUserDetails();
 
-    CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-    User user = userDetails.toUser();
+    // Principals built from the token only carry the id and username, so load the full user
+    User user = userDetails.isFromToken()
+        ? userDetailsService.findUser(userDetails).orElse(null)
+        : userDetails.toUser();
 
     if (user == null) {
       throw new UserNotFoundException("User not found");
@@ -104,6 +124,21 @@ public abstract class UserService<T extends User> {
     return user;
   }
 
+  // Returns the id of the current user without loading the user from the database
+  public long getAuthenticatedUserId() throws UserNotFoundException {
+    return getAuthenticatedUserDetails().getUserId();
+  }
+
+  private CustomUserDetails getAuthenticatedUserDetails() throws UserNotFoundException {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+    if (authentication == null || !authentication.isAuthenticated()
+        || !(authentication.getPrincipal() instanceof CustomUserDetails userDetails)) {
+      throw new UserNotFoundException("User not authenticated");
+    }
+    return userDetails;
+  }
+
   public Boolean currentUserIsAdmin() {
     return getUserRole().equals("ADMIN");
   }
@@ -131,6 +166,28 @@ public abstract class UserService<T extends User> {
     return true;
   }
 
+  /**
+   * Throws if the user is being renamed to a username another user already
+   * has, which the unique index on the normalized username would reject.
+   * Changing only the case of the user's own username is allowed.
+   */
+  private void checkUsernameAvailable(User existingUser, String newUsername) {
+    String normalized = User.normalizeUsername(newUsername);
+    if (normalized != null && !normalized.equals(existingUser.getNormalizedUsername())
+        && userDetailsService.isUsernameTaken(newUsername)) {
+      throw new UserAlreadyExistsException(newUsername);
+    }
+  }
+
+  /**
+   * Returns true if the submitted password has to be hashed. Clients send the
+   * stored hash back when the password is left unchanged, and hashing that
+   * again would both waste a BCrypt round and lock the user out.
+   */
+  private boolean isNewPassword(String submittedPassword, String storedPassword) {
+    return submittedPassword != null && !submittedPassword.isEmpty() && !submittedPassword.equals(storedPassword);
+  }
+
   public boolean isValidPassword(String password) {
 
     if (password == null || password.length() < 8) {
@@ -158,12 +215,9 @@ public abstract class UserService<T extends User> {
 
     if (existingAdminOptional.isPresent()) {
       T existingAdmin = existingAdminOptional.get();
+      checkUsernameAvailable(existingAdmin, user.getUsername());
 
-      if (pictureFile != null && !pictureFile.isEmpty()) {
-        setUserProfilePicture(user, pictureFile);
-      }
-
-      if (user.getPassword() != null && !user.getPassword().isEmpty()) {
+      if (isNewPassword(user.getPassword(), existingAdmin.getPassword())) {
 
         if (isValidPassword(user.getPassword())) {
           user.setPassword(passwordEncoder.encode(user.getPassword()));
@@ -172,15 +226,44 @@ public abstract class UserService<T extends User> {
               "Password is invalid, needs to contain atleast 8 chars, 1 digit, 1 uppercase, and 1 lowercase");
         }
       } else {
-        // If the password is null or empty, retain the existing password
+        // If the password is null, empty or the stored hash sent back unchanged, retain the existing password
         user.setPassword(existingAdmin.getPassword());
       }
-      return repository.save(user);
+
+      // Keep the stored picture, not whichever name the client sent back, unless a new one is uploaded
+      String previousPicture = existingAdmin.getProfilePictureFileName();
+      user.setProfilePictureFileName(previousPicture);
+      boolean pictureSaved = pictureFile != null && !pictureFile.isEmpty();
+      if (pictureSaved) {
+        setUserProfilePicture(user, pictureFile);
+      }
+
+      T savedUser = savePictureOwner(user, pictureSaved);
+      if (pictureSaved) {
+        pictureService.releasePicture(previousPicture, true);
+      }
+      tokenVersions.invalidate(savedUser.getId());
+      return savedUser;
     } else {
       throw new IllegalArgumentException("User with ID " + user.getId() + " not found");
     }
   }
 
+  /**
+   * Saves a user, and if a new profile picture was stored for it and the save
+   * fails, hands back the reference taken on that picture so it can be swept.
+   */
+  private T savePictureOwner(T user, boolean pictureSaved) {
+    try {
+      return repository.save(user);
+    } catch (RuntimeException e) {
+      if (pictureSaved) {
+        pictureService.releasePicture(user.getProfilePictureFileName(), true);
+      }
+      throw e;
+    }
+  }
+
 
 
 
@@ -3,17 +3,26 @@ package com.auu_sw3_6.Himmerland_booking_software.api.controller;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
@@ -118,4 +127,79 @@ public abstract class AbstractResourceControllerTest<T extends Resource> {
     assertEquals(updatedResource.getType(), responseResource.getType());
   }
 
+  @Test
+  public void getReservedDates_withRange_shouldReturnOk() throws Exception {
+
+    SecurityContextHelper.setSecurityContext("admin");
+
+    mockMvc.perform(get(getBasePath() + "/" + testResource.getId() + "/booked-dates")
+        .param("from", "2024-11-01")
+        .param("to", "2024-11-30"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$").isArray());
+  }
+
+  @Test
+  public void getReservedDates_withTooLongRange_shouldReturnBadRequest() throws Exception {
+
+    SecurityContextHelper.setSecurityContext("admin");
+
+    mockMvc.perform(get(getBasePath() + "/" + testResource.getId() + "/booked-dates")
+        .param("from", "2024-01-01")
+        .param("to", "2025-06-30"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void getResourcePicture_shouldSupportConditionalAndRangeRequests() throws Exception {
+
+    SecurityContextHelper.setSecurityContext("admin");
+
+    Path imagePath = Paths.get(getClass().getClassLoader().getResource("300x300-test-image.png").toURI());
+    byte[] imageBytes = Files.readAllBytes(imagePath);
+    MockMultipartFile pictureFile = new MockMultipartFile("pictureFile", "testPicture.png", "image/png", imageBytes);
+    MockMultipartHttpServletRequestBuilder builder = (MockMultipartHttpServletRequestBuilder) multipart(
+        getBasePath() + "/update").with(request -> {
+          request.setMethod("PUT");
+          return request;
+        });
+    mockMvc.perform(builder
+        .file(pictureFile)
+        .file("updatedResource", objectMapper.writeValueAsBytes(testResource))
+        .contentType(MediaType.MULTIPART_FORM_DATA))
+        .andExpect(status().isOk());
+
+    String picturePath = getBasePath() + "/" + testResource.getId() + "/picture";
+    MvcResult result = mockMvc.perform(get(picturePath))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.IMAGE_PNG))
+        .andExpect(content().bytes(imageBytes))
+        .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+        .andReturn();
+    String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+    String fileName = eTag.substring(1, eTag.length() - 1);
+
+    mockMvc.perform(get(picturePath).header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified());
+
+    mockMvc.perform(get(picturePath).header(HttpHeaders.RANGE, "bytes=0-9"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/" + imageBytes.length))
+        .andExpect(content().bytes(Arrays.copyOf(imageBytes, 10)));
+
+    mockMvc.perform(get(picturePath).param("v", fileName))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, private, immutable"));
+
+    MvcResult thumbnail = mockMvc.perform(get(picturePath).param("size", "96").param("v", fileName))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.IMAGE_PNG))
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, private, immutable"))
+        .andReturn();
+    BufferedImage thumbnailImage = ImageIO.read(new ByteArrayInputStream(thumbnail.getResponse().getContentAsByteArray()));
+    assertEquals(96, thumbnailImage.getWidth());
+    assertEquals(96, thumbnailImage.getHeight());
+  }
+
 }
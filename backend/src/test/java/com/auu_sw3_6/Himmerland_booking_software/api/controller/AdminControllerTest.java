@@ -2,11 +2,14 @@ package com.auu_sw3_6.Himmerland_booking_software.api.controller;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.controller.testSecurityHelpers.SecurityContextHelper;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Admin;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.PasswordHashingStats;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
 import com.auu_sw3_6.Himmerland_booking_software.service.AdminService;
 import com.auu_sw3_6.Himmerland_booking_software.service.TenantService;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -75,11 +78,26 @@ public class AdminControllerTest extends AbstractUserControllerTest<Admin> {
         objectMapper.getTypeFactory().constructCollectionType(List.class, Tenant.class));
 
     assertEquals(3, responseTenants.size());
+    assertFalse(jsonResponse.contains("password"));
     assertEquals(tenant1.getUsername(), responseTenants.get(0).getUsername());
     assertEquals(tenant2.getUsername(), responseTenants.get(1).getUsername());
     assertEquals(tenant3.getUsername(), responseTenants.get(2).getUsername());
   }
 
+  @Test
+  public void getPasswordHashingStats_shouldCountHashesOfCreatedUsers() throws Exception {
+    SecurityContextHelper.setSecurityContext(testUser, "admin");
+
+    MvcResult result = mockMvc.perform(get(getBasePath() + "/getPasswordHashingStats"))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    PasswordHashingStats stats = objectMapper.readValue(result.getResponse().getContentAsString(),
+        PasswordHashingStats.class);
+    assertTrue(stats.completed() >= 1);
+    assertTrue(stats.queueCapacity() > 0);
+  }
+
   @Test
   public void addCaretakerName_shouldAddCaretakerName() throws Exception {
   String caretakerName = "John Doe";
@@ -3,7 +3,9 @@ package com.auu_sw3_6.Himmerland_booking_software.api.controller;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -17,6 +19,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -25,10 +28,16 @@ import com.auu_sw3_6.Himmerland_booking_software.api.controller.testSecurityHelp
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Admin;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.LoginRequest;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.User;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.UserRepository;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.BoundedPasswordEncoder;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.JwtUtil;
 import com.auu_sw3_6.Himmerland_booking_software.service.AdminService;
 import com.auu_sw3_6.Himmerland_booking_software.service.TenantService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.servlet.http.Cookie;
+
 @ActiveProfiles("test")
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -40,6 +49,12 @@ public class AuthControllerTest {
   @Autowired
   private AdminService adminService;
 
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private BoundedPasswordEncoder passwordEncoder;
+
   @Autowired
   protected MockMvc mockMvc;
 
@@ -103,14 +118,14 @@ public class AuthControllerTest {
     List<String> cookieHeaders = result.getResponse().getHeaders("Set-Cookie");
 
     assertNotNull(cookieHeaders);
-    assertEquals(2, cookieHeaders.size());
+    assertEquals(3, cookieHeaders.size());
 
     String jwtCookie = cookieHeaders.stream().filter(c -> c.startsWith("jwt=")).findFirst().orElse(null);
     assertNotNull(jwtCookie);
     assertTrue(jwtCookie.contains("HttpOnly"));
     assertTrue(jwtCookie.contains("Secure"));
     assertTrue(jwtCookie.contains("SameSite=none"));
-    assertTrue(jwtCookie.contains("Max-Age=18000"));
+    assertMaxAgeWithinJitter(jwtCookie, JwtUtil.ACCESS_TOKEN_MILLIS);
 
     String authIndicatorCookie = cookieHeaders.stream().filter(c -> c.startsWith("authIndicator=")).findFirst()
         .orElse(null);
@@ -118,7 +133,13 @@ public class AuthControllerTest {
     assertFalse(authIndicatorCookie.contains("HttpOnly"));
     assertTrue(authIndicatorCookie.contains("Secure"));
     assertTrue(authIndicatorCookie.contains("SameSite=none"));
-    assertTrue(authIndicatorCookie.contains("Max-Age=18000"));
+    assertMaxAgeWithinJitter(authIndicatorCookie, JwtUtil.REFRESH_TOKEN_MILLIS);
+
+    String refreshCookie = cookieHeaders.stream().filter(c -> c.startsWith("refreshToken=")).findFirst().orElse(null);
+    assertNotNull(refreshCookie);
+    assertTrue(refreshCookie.contains("HttpOnly"));
+    assertTrue(refreshCookie.contains("Path=/api"));
+    assertMaxAgeWithinJitter(refreshCookie, JwtUtil.REFRESH_TOKEN_MILLIS);
 
     assertTrue(authIndicatorCookie.contains("ROLE_ADMIN"));
 
@@ -179,14 +200,14 @@ public class AuthControllerTest {
     List<String> cookieHeaders = result.getResponse().getHeaders("Set-Cookie");
 
     assertNotNull(cookieHeaders);
-    assertEquals(2, cookieHeaders.size());
+    assertEquals(3, cookieHeaders.size());
 
     String jwtCookie = cookieHeaders.stream().filter(c -> c.startsWith("jwt=")).findFirst().orElse(null);
     assertNotNull(jwtCookie);
     assertTrue(jwtCookie.contains("HttpOnly"));
     assertTrue(jwtCookie.contains("Secure"));
     assertTrue(jwtCookie.contains("SameSite=none"));
-    assertTrue(jwtCookie.contains("Max-Age=18000"));
+    assertMaxAgeWithinJitter(jwtCookie, JwtUtil.ACCESS_TOKEN_MILLIS);
 
     String authIndicatorCookie = cookieHeaders.stream().filter(c -> c.startsWith("authIndicator=")).findFirst()
         .orElse(null);
@@ -194,7 +215,13 @@ public class AuthControllerTest {
     assertFalse(authIndicatorCookie.contains("HttpOnly"));
     assertTrue(authIndicatorCookie.contains("Secure"));
     assertTrue(authIndicatorCookie.contains("SameSite=none"));
-    assertTrue(authIndicatorCookie.contains("Max-Age=18000"));
+    assertMaxAgeWithinJitter(authIndicatorCookie, JwtUtil.REFRESH_TOKEN_MILLIS);
+
+    String refreshCookie = cookieHeaders.stream().filter(c -> c.startsWith("refreshToken=")).findFirst().orElse(null);
+    assertNotNull(refreshCookie);
+    assertTrue(refreshCookie.contains("HttpOnly"));
+    assertTrue(refreshCookie.contains("Path=/api"));
+    assertMaxAgeWithinJitter(refreshCookie, JwtUtil.REFRESH_TOKEN_MILLIS);
 
     assertTrue(authIndicatorCookie.contains("ROLE_TENANT"));
   }
@@ -229,6 +256,49 @@ public class AuthControllerTest {
 
   }
 
+  @Test
+  public void login_withLegacyHash_shouldRehashStoredPassword() throws Exception {
+    User storedTenant = userRepository.findByNormalizedUsername("testtenant").orElseThrow();
+    String legacyHash = new BCryptPasswordEncoder(4).encode("rawPassword321");
+    userRepository.updatePassword(storedTenant.getId(), legacyHash);
+
+    LoginRequest loginRequest = new LoginRequest();
+    loginRequest.setUsername("testTenant");
+    loginRequest.setPassword("rawPassword321");
+
+    mockMvc.perform(post("/api/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(loginRequest)))
+        .andExpect(status().isOk());
+
+    String rehashed = userRepository.findById(storedTenant.getId()).orElseThrow().getPassword();
+    assertTrue(rehashed.startsWith("{bcrypt}"), "The legacy hash should be replaced by a prefixed one");
+  }
+
+  @Test
+  public void loginAndAuthenticatedRequest_shouldNotCreateSession() throws Exception {
+    LoginRequest loginRequest = new LoginRequest();
+    loginRequest.setUsername("testTenant");
+    loginRequest.setPassword("rawPassword321");
+
+    MvcResult login = mockMvc.perform(post("/api/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(loginRequest)))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    assertNull(login.getRequest().getSession(false), "Login should not create a session");
+    assertTrue(login.getResponse().getHeaders("Set-Cookie").stream().noneMatch(c -> c.startsWith("JSESSIONID")));
+    Cookie jwt = login.getResponse().getCookie("jwt");
+    assertNotNull(jwt);
+
+    MvcResult authenticated = mockMvc.perform(get("/api/tenant/test").cookie(jwt))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    assertNull(authenticated.getRequest().getSession(false), "Authenticated requests should not create a session");
+  }
+
   @Test
   public void logoutForAdmin_shouldReturn_EmptyJWTToken_AndClearSecurityContext() throws Exception {
 
@@ -241,7 +311,7 @@ public class AuthControllerTest {
     List<String> cookieHeaders = result.getResponse().getHeaders("Set-Cookie");
 
     assertNotNull(cookieHeaders);
-    assertEquals(1, cookieHeaders.size());
+    assertEquals(2, cookieHeaders.size());
 
     String jwtCookie = cookieHeaders.stream().filter(c -> c.startsWith("jwt=")).findFirst().orElse(null);
     assertNotNull(jwtCookie);
@@ -249,10 +319,29 @@ public class AuthControllerTest {
     assertTrue(jwtCookie.contains("Secure"));
     assertTrue(jwtCookie.contains("SameSite=none"));
     assertTrue(jwtCookie.contains("Max-Age=0"));
+    assertTrue(cookieHeaders.stream().anyMatch(c -> c.startsWith("refreshToken=;") && c.contains("Max-Age=0")));
 
     assertEquals(SecurityContextHolder.getContext().getAuthentication(), null);
   }
 
+  @Test
+  public void logout_shouldRevokeTheToken() throws Exception {
+    LoginRequest loginRequest = new LoginRequest();
+    loginRequest.setUsername("testTenant");
+    loginRequest.setPassword("rawPassword321");
+
+    Cookie jwt = mockMvc.perform(post("/api/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(loginRequest)))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getCookie("jwt");
+    mockMvc.perform(get("/api/tenant/test").cookie(jwt)).andExpect(status().isOk());
+
+    mockMvc.perform(post("/api/logout").cookie(jwt)).andExpect(status().isOk());
+
+    mockMvc.perform(get("/api/tenant/test").cookie(jwt)).andExpect(status().isUnauthorized());
+  }
+
   @Test
   public void logoutForTenant_shouldReturn_EmptyJWTToken_AndClearSecurityContext() throws Exception {
 
@@ -265,7 +354,7 @@ public class AuthControllerTest {
     List<String> cookieHeaders = result.getResponse().getHeaders("Set-Cookie");
 
     assertNotNull(cookieHeaders);
-    assertEquals(1, cookieHeaders.size());
+    assertEquals(2, cookieHeaders.size());
 
     String jwtCookie = cookieHeaders.stream().filter(c -> c.startsWith("jwt=")).findFirst().orElse(null);
     assertNotNull(jwtCookie);
@@ -273,9 +362,92 @@ public class AuthControllerTest {
     assertTrue(jwtCookie.contains("Secure"));
     assertTrue(jwtCookie.contains("SameSite=none"));
     assertTrue(jwtCookie.contains("Max-Age=0"));
+    assertTrue(cookieHeaders.stream().anyMatch(c -> c.startsWith("refreshToken=;") && c.contains("Max-Age=0")));
 
     assertEquals(SecurityContextHolder.getContext().getAuthentication(), null);
   }
 
+  @Test
+  public void refresh_shouldRotateTokensWithoutPassword_andRejectReuse() throws Exception {
+    MvcResult login = loginAsTenant();
+    Cookie refreshToken = login.getResponse().getCookie("refreshToken");
+
+    MvcResult refreshed = mockMvc.perform(post("/api/refresh").cookie(refreshToken))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    Cookie newAccessToken = refreshed.getResponse().getCookie("jwt");
+    Cookie newRefreshToken = refreshed.getResponse().getCookie("refreshToken");
+    assertNotNull(newAccessToken);
+    assertNotNull(newRefreshToken);
+    assertFalse(newRefreshToken.getValue().equals(refreshToken.getValue()));
+    mockMvc.perform(get("/api/tenant/test").cookie(newAccessToken)).andExpect(status().isOk());
+
+    // The old refresh token was used up by the rotation
+    mockMvc.perform(post("/api/refresh").cookie(refreshToken)).andExpect(status().isUnauthorized());
+    mockMvc.perform(post("/api/refresh").cookie(newRefreshToken)).andExpect(status().isOk());
+  }
+
+  @Test
+  public void refreshToken_shouldNotAuthenticateRequests_andAccessToken_shouldNotRefresh() throws Exception {
+    MvcResult login = loginAsTenant();
+    Cookie accessToken = login.getResponse().getCookie("jwt");
+    Cookie refreshToken = login.getResponse().getCookie("refreshToken");
+
+    mockMvc.perform(get("/api/tenant/test").cookie(new Cookie("jwt", refreshToken.getValue())))
+        .andExpect(status().isUnauthorized());
+    mockMvc.perform(post("/api/refresh").cookie(new Cookie("refreshToken", accessToken.getValue())))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  public void logout_shouldRevokeTheRefreshToken() throws Exception {
+    MvcResult login = loginAsTenant();
+    Cookie refreshToken = login.getResponse().getCookie("refreshToken");
+
+    mockMvc.perform(post("/api/logout").cookie(login.getResponse().getCookie("jwt"), refreshToken))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(post("/api/refresh").cookie(refreshToken)).andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  public void repeatedFailedLogins_shouldBeRefusedBeforeHashing() throws Exception {
+    LoginRequest loginRequest = new LoginRequest();
+    loginRequest.setUsername("throttledTenant");
+    loginRequest.setPassword("wrongPassword123");
+    String json = objectMapper.writeValueAsString(loginRequest);
+
+    for (int i = 0; i < 5; i++) {
+      mockMvc.perform(post("/api/login").contentType(MediaType.APPLICATION_JSON).content(json))
+          .andExpect(status().isUnauthorized());
+    }
+    long hashesBefore = passwordEncoder.getStats().completed();
+
+    MvcResult result = mockMvc.perform(post("/api/login").contentType(MediaType.APPLICATION_JSON).content(json))
+        .andExpect(status().isTooManyRequests())
+        .andReturn();
+
+    assertNotNull(result.getResponse().getHeader("Retry-After"));
+    assertEquals(hashesBefore, passwordEncoder.getStats().completed(), "A refused login should not hash anything");
+  }
+
+  private MvcResult loginAsTenant() throws Exception {
+    LoginRequest loginRequest = new LoginRequest();
+    loginRequest.setUsername("testTenant");
+    loginRequest.setPassword("rawPassword321");
+
+    return mockMvc.perform(post("/api/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(loginRequest)))
+        .andExpect(status().isOk())
+        .andReturn();
+  }
 
-}
\ No newline at end of file
+  private static void assertMaxAgeWithinJitter(String cookie, long lifetimeMillis) {
+    long maxAge = Long.parseLong(cookie.replaceAll(".*Max-Age=(\\d+).*", "$1"));
+    long lifetimeSeconds = lifetimeMillis / 1000;
+    assertTrue(maxAge >= lifetimeSeconds * (1 - JwtUtil.EXPIRY_JITTER) - 1
+        && maxAge <= lifetimeSeconds * (1 + JwtUtil.EXPIRY_JITTER), "Unexpected Max-Age in " + cookie);
+  }
+}
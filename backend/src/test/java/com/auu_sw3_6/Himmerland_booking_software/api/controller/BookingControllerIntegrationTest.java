@@ -1,12 +1,17 @@
 package com.auu_sw3_6.Himmerland_booking_software.api.controller;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPage;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Tool;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.ArchivedBookingRepository;
 import com.auu_sw3_6.Himmerland_booking_software.api.repository.BookingRepository;
 import com.auu_sw3_6.Himmerland_booking_software.api.repository.ToolRepository;
 import com.auu_sw3_6.Himmerland_booking_software.api.repository.TenantRepository;
+import com.auu_sw3_6.Himmerland_booking_software.service.BookingArchiveService;
+import com.auu_sw3_6.Himmerland_booking_software.service.BookingOccupancyIndex;
 import com.auu_sw3_6.Himmerland_booking_software.service.BookingService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,9 +22,18 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 
@@ -43,6 +57,15 @@ class BookingControllerIntegrationTest {
     @Autowired
     private TenantRepository tenantRepository;
 
+    @Autowired
+    private BookingOccupancyIndex occupancyIndex;
+
+    @Autowired
+    private BookingArchiveService bookingArchiveService;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
     private Tool testResource;
     private Tenant testTenant;
 
@@ -71,6 +94,7 @@ class BookingControllerIntegrationTest {
 
     @AfterEach
     void cleanUp() {
+        archivedBookingRepository.deleteAll();
         bookingRepository.deleteAll();
         toolRepository.deleteAll();
         tenantRepository.deleteAll();
@@ -119,4 +143,147 @@ class BookingControllerIntegrationTest {
                // Assert:
                .andExpect(status().isForbidden());
     }
+
+    private Booking createBooking(LocalDate startDate, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setResource(testResource);
+        booking.setUser(testTenant);
+        booking.setStartDate(startDate);
+        booking.setEndDate(startDate.plusDays(2));
+        booking.setStatus(status);
+        return bookingService.createBooking(booking);
+    }
+
+    @WithMockUser(username = "caretaker", roles = {"ADMIN"})
+    @Test
+    void getBookings_shouldReturnPagesWithNextCursor_whenLimitIsGiven() throws Exception {
+        Booking first = createBooking(LocalDate.of(2030, 1, 7), BookingStatus.PENDING);
+        Booking second = createBooking(LocalDate.of(2030, 1, 14), BookingStatus.PENDING);
+        Booking third = createBooking(LocalDate.of(2030, 1, 21), BookingStatus.PENDING);
+
+        mockMvc.perform(get("/api/booking/get-all").param("limit", "2"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$", hasSize(2)))
+               .andExpect(jsonPath("$[0].id").value(first.getId()))
+               .andExpect(jsonPath("$[1].id").value(second.getId()))
+               .andExpect(jsonPath("$[0].resource.name").value("Test Tool"))
+               .andExpect(jsonPath("$[0].resource.capacity").value(10))
+               .andExpect(jsonPath("$[0].user.name").value("Test Tenant"))
+               .andExpect(jsonPath("$[0].user.password").doesNotExist())
+               .andExpect(header().string(BookingPage.NEXT_CURSOR_HEADER, String.valueOf(second.getId())));
+
+        mockMvc.perform(get("/api/booking/get-all").param("limit", "2").param("cursor", String.valueOf(second.getId())))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$", hasSize(1)))
+               .andExpect(jsonPath("$[0].id").value(third.getId()))
+               .andExpect(header().doesNotExist(BookingPage.NEXT_CURSOR_HEADER));
+    }
+
+    @WithMockUser(username = "caretaker", roles = {"ADMIN"})
+    @Test
+    void getBookings_shouldApplyFilters() throws Exception {
+        createBooking(LocalDate.of(2030, 1, 7), BookingStatus.CANCELED);
+        Booking confirmed = createBooking(LocalDate.of(2030, 1, 14), BookingStatus.CONFIRMED);
+        createBooking(LocalDate.of(2030, 3, 4), BookingStatus.CONFIRMED);
+
+        mockMvc.perform(get("/api/booking/get-all")
+                .param("status", "CONFIRMED", "PENDING")
+                .param("resourceType", "TOOL")
+                .param("resourceId", String.valueOf(testResource.getId()))
+                .param("tenantId", String.valueOf(testTenant.getId()))
+                .param("from", "2030-01-01")
+                .param("to", "2030-01-31"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$", hasSize(1)))
+               .andExpect(jsonPath("$[0].id").value(confirmed.getId()));
+
+        mockMvc.perform(get("/api/booking/get-all").param("resourceType", "UTILITY"))
+               .andExpect(status().isNotFound());
+    }
+
+    @WithMockUser(username = "caretaker", roles = {"ADMIN"})
+    @Test
+    void getBookings_shouldLeaveOutDeletedResources_whenAsked() throws Exception {
+        Booking kept = createBooking(LocalDate.of(2030, 1, 7), BookingStatus.COMPLETED);
+
+        Tool deletedTool = new Tool();
+        deletedTool.setName("Deleted Tool");
+        deletedTool.setDescription("This tool has been deleted");
+        deletedTool.setCapacity(1);
+        deletedTool.setStatus("deleted");
+        deletedTool.setType(ResourceType.TOOL);
+        deletedTool = toolRepository.save(deletedTool);
+        Booking ofDeletedTool = new Booking();
+        ofDeletedTool.setResource(deletedTool);
+        ofDeletedTool.setUser(testTenant);
+        ofDeletedTool.setStatus(BookingStatus.COMPLETED);
+        bookingService.createBooking(ofDeletedTool);
+
+        mockMvc.perform(get("/api/booking/get-all").param("includeDeletedResources", "false"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$", hasSize(1)))
+               .andExpect(jsonPath("$[0].id").value(kept.getId()));
+
+        mockMvc.perform(get("/api/booking/get-all"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @WithMockUser(username = "caretaker", roles = {"ADMIN"})
+    @Test
+    void getBookings_shouldReturnBadRequest_whenCursorIsInvalid() throws Exception {
+        mockMvc.perform(get("/api/booking/get-all").param("cursor", "not-a-cursor"))
+               .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser(username = "caretaker", roles = {"ADMIN"})
+    @Test
+    void streamBookings_shouldWriteMatchingBookingsAsJsonArray() throws Exception {
+        Booking first = createBooking(LocalDate.of(2030, 1, 7), BookingStatus.PENDING);
+        createBooking(LocalDate.of(2030, 1, 14), BookingStatus.CANCELED);
+        Booking third = createBooking(LocalDate.of(2030, 1, 21), BookingStatus.CONFIRMED);
+
+        MvcResult result = mockMvc.perform(get("/api/booking/get-all/stream").param("status", "PENDING", "CONFIRMED"))
+               .andExpect(request().asyncStarted())
+               .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$", hasSize(2)))
+               .andExpect(jsonPath("$[0].id").value(first.getId()))
+               .andExpect(jsonPath("$[1].id").value(third.getId()));
+    }
+
+    @WithMockUser(username = "caretaker", roles = {"ADMIN"})
+    @Test
+    void cancelBookings_shouldCancelConfirmedAndPendingBookingsOfResource() throws Exception {
+        LocalDate monday = LocalDate.of(2030, 1, 7);
+        Booking pending = createBooking(monday, BookingStatus.PENDING);
+        Booking confirmed = createBooking(monday, BookingStatus.CONFIRMED);
+        Booking completed = createBooking(monday, BookingStatus.COMPLETED);
+
+        mockMvc.perform(put("/api/booking/TOOL/" + testResource.getId() + "/cancel-bookings-for-resource"))
+               .andExpect(status().isOk());
+
+        assertEquals(BookingStatus.CANCELED, bookingRepository.findById(pending.getId()).get().getStatus());
+        assertEquals(BookingStatus.CANCELED, bookingRepository.findById(confirmed.getId()).get().getStatus());
+        assertEquals(BookingStatus.COMPLETED, bookingRepository.findById(completed.getId()).get().getStatus());
+        // The bulk update skips the entity listener, so the index is updated by the service
+        assertEquals(1, occupancyIndex.peakOccupancy(testResource.getId(), monday, monday.plusDays(1), 0L));
+    }
+
+    @WithMockUser(username = "caretaker", roles = {"ADMIN"})
+    @Test
+    void getBookingHistory_shouldReturnArchivedBookings() throws Exception {
+        Booking archived = createBooking(LocalDate.of(2020, 1, 6), BookingStatus.COMPLETED);
+        createBooking(LocalDate.of(2020, 1, 13), BookingStatus.LATE);
+        bookingArchiveService.archiveOldBookings();
+
+        mockMvc.perform(get("/api/booking/history").param("tenantId", String.valueOf(testTenant.getId())))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$", hasSize(1)))
+               .andExpect(jsonPath("$[0].id").value(archived.getId()))
+               .andExpect(jsonPath("$[0].resource.name").value("Test Tool"))
+               .andExpect(jsonPath("$[0].resource.capacity").value(10));
+    }
 }
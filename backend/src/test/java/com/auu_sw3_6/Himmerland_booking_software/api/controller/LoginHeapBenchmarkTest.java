@@ -0,0 +1,116 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.LoginRequest;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.TenantRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Logs in 10,000 distinct tenants and prints the heap in use after a GC at
+ * a few checkpoints. With a stateless security chain no session or security
+ * context is kept per login, so the heap should stay flat.
+ *
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+// MockMvc otherwise keeps the printout of every request in case the test fails
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@ActiveProfiles("test")
+public class LoginHeapBenchmarkTest {
+
+  private static final int TENANTS = 10_000;
+  private static final int WARMUP_LOGINS = 1_000;
+  private static final int CHECKPOINT_EVERY = 2_250;
+  private static final String PASSWORD = "Benchmark123";
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private ObjectMapper objectMapper;
+  @Autowired
+  private TenantRepository tenantRepository;
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  @BeforeEach
+  public void setUp() {
+    // Hashing once and sharing the hash keeps the setup fast
+    String hash = passwordEncoder.encode(PASSWORD);
+    List<Tenant> tenants = new ArrayList<>(TENANTS);
+    for (int i = 0; i < TENANTS; i++) {
+      Tenant tenant = new Tenant();
+      tenant.setName("Heap Tenant " + i);
+      tenant.setEmail("heap" + i + "@example.com");
+      tenant.setUsername("heaptenant" + i);
+      tenant.setPassword(hash);
+      tenant.setMobileNumber("23456789");
+      tenants.add(tenant);
+    }
+    tenantRepository.saveAll(tenants);
+  }
+
+  @Test
+  public void heapStaysFlatAcrossDistinctLogins() throws Exception {
+    int sessions = 0;
+    for (int i = 0; i < WARMUP_LOGINS; i++) {
+      sessions += login(i);
+    }
+
+    long baseline = usedHeapAfterGc();
+    System.out.printf("Heap after %d warm-up logins: %.1f MB%n", WARMUP_LOGINS, baseline / 1e6);
+    for (int i = WARMUP_LOGINS; i < TENANTS; i++) {
+      sessions += login(i);
+      int done = i + 1;
+      if ((done - WARMUP_LOGINS) % CHECKPOINT_EVERY == 0) {
+        long used = usedHeapAfterGc();
+        System.out.printf("Heap after %d logins: %.1f MB (%+.1f MB)%n", done, used / 1e6, (used - baseline) / 1e6);
+      }
+    }
+
+    assertEquals(0, sessions, "No login should create an HttpSession");
+  }
+
+  // Returns 1 if the login created a session
+  private int login(int tenant) throws Exception {
+    LoginRequest loginRequest = new LoginRequest();
+    loginRequest.setUsername("heaptenant" + tenant);
+    loginRequest.setPassword(PASSWORD);
+
+    MvcResult result = mockMvc.perform(post("/api/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(loginRequest)))
+        .andExpect(status().isOk())
+        .andReturn();
+    return result.getRequest().getSession(false) == null ? 0 : 1;
+  }
+
+  private static long usedHeapAfterGc() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
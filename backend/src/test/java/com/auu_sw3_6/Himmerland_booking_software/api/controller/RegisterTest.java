@@ -171,9 +171,74 @@ void testGetOwnBookings_Positive() throws Exception {
             // Assert
             .andExpect(status().isOk())
             .andExpect(jsonPath("$[0].resource.name").value("Test Tool"))
+            .andExpect(jsonPath("$[0].resource.capacity").value(10))
             .andExpect(jsonPath("$[0].status").value("CONFIRMED"));
 }
 
+@Test
+void testGetOwnBookings_WithLimit_ShouldReturnCursorForNextPage() throws Exception {
+    // Arrange
+    Booking olderBooking = new Booking();
+    olderBooking.setResource(toolRepository.findAll().get(0));
+    olderBooking.setUser(testTenant);
+    olderBooking.setStartDate(LocalDate.of(2034, 1, 2));
+    olderBooking.setEndDate(LocalDate.of(2034, 1, 4));
+    olderBooking.setPickupTime(TimeRange.EARLY);
+    olderBooking.setDropoffTime(TimeRange.LATE);
+    olderBooking.setStatus(BookingStatus.COMPLETED);
+    bookingRepository.save(olderBooking);
+
+    CustomUserDetails userDetails = new CustomUserDetails(testTenant, List.of(() -> "ROLE_TENANT"));
+    Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+
+    // Act
+    MvcResult firstPage = mockMvc.perform(get("/api/tenant/getOwnBookings").param("limit", "1"))
+            // Assert
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].status").value("CONFIRMED"))
+            .andReturn();
+
+    String cursor = firstPage.getResponse().getHeader("X-Next-Cursor");
+    assertNotNull(cursor);
+
+    MvcResult secondPage = mockMvc.perform(get("/api/tenant/getOwnBookings").param("limit", "1").param("cursor", cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].status").value("COMPLETED"))
+            .andReturn();
+
+    assertNull(secondPage.getResponse().getHeader("X-Next-Cursor"));
+}
+
+@Test
+void testGetOwnBookings_WithStatusFilter_ShouldOnlyReturnMatchingBookings() throws Exception {
+    // Arrange
+    CustomUserDetails userDetails = new CustomUserDetails(testTenant, List.of(() -> "ROLE_TENANT"));
+    Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+
+    // Act
+    mockMvc.perform(get("/api/tenant/getOwnBookings").param("status", "PENDING", "COMPLETED"))
+            // Assert
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+}
+
+@Test
+void testGetOwnBookings_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+    // Arrange
+    CustomUserDetails userDetails = new CustomUserDetails(testTenant, List.of(() -> "ROLE_TENANT"));
+    Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+
+    // Act
+    mockMvc.perform(get("/api/tenant/getOwnBookings").param("cursor", "not-a-cursor"))
+            // Assert
+            .andExpect(status().isBadRequest());
+}
+
 @Test
 void testGetOwnBookings_Negative_Unauthorized() throws Exception {
     // Act
@@ -22,7 +22,9 @@ public class TenantControllerTest extends AbstractUserControllerTest<Tenant> {
     tenant.setHouseAddress("tenantAddress");
     tenant.setProfilePictureFileName("tenantPicture");
 
-    return tenantService.createUser(tenant, null);
+    // Usernames are unique, so reuse the tenant created by an earlier test
+    return tenantService.getUserByUsername(tenant.getUsername())
+        .orElseGet(() -> tenantService.createUser(tenant, null));
   }
 
   @Override
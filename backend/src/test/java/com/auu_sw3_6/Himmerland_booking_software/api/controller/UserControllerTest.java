@@ -10,6 +10,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -108,24 +110,25 @@ class UserControllerTest {
     @Test
     void getProfilePicture_ShouldReturnProfilePicture() {
         String username = "testuser";
-        byte[] profilePicture = new byte[] { 1, 2, 3 };
+        Resource profilePicture = new FileSystemResource("profile.jpg");
         when(authentication.getName()).thenReturn(username);
-        when(userService.getProfilePictureByUsername(username)).thenReturn(Optional.of(profilePicture));
+        when(userService.getProfilePictureByUsername(username, null)).thenReturn(Optional.of(profilePicture));
 
-        ResponseEntity<Object> response = userController.getProfilePicture();
+        ResponseEntity<Object> response = userController.getProfilePicture(null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(MediaType.IMAGE_JPEG, response.getHeaders().getContentType());
-        assertArrayEquals(profilePicture, (byte[]) response.getBody());
+        assertEquals("\"profile.jpg\"", response.getHeaders().getETag());
+        assertSame(profilePicture, response.getBody());
     }
 
     @Test
     void getProfilePicture_ShouldReturnNotFound_WhenProfilePictureNotFound() {
         String username = "testuser";
         when(authentication.getName()).thenReturn(username);
-        when(userService.getProfilePictureByUsername(username)).thenReturn(Optional.empty());
+        when(userService.getProfilePictureByUsername(username, null)).thenReturn(Optional.empty());
 
-        ResponseEntity<Object> response = userController.getProfilePicture();
+        ResponseEntity<Object> response = userController.getProfilePicture(null, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
@@ -20,7 +20,7 @@ public class NoOpJwtAuthorizationFilterConfig {
   @Primary
   public JwtAuthorizationFilter noOpJwtAuthorizationFilter() {
     System.out.println("Running this instead of JwtAuthorizationFilter");
-    return new JwtAuthorizationFilter(null, null) {
+    return new JwtAuthorizationFilter(null, null, null) {
       @Override
       protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
           throws IOException, ServletException {
@@ -0,0 +1,140 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tool;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.TimeRange;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookingRepositoryTest {
+
+  @Autowired
+  private BookingRepository bookingRepository;
+  @Autowired
+  private ToolRepository toolRepository;
+  @Autowired
+  private TenantRepository tenantRepository;
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  private Tool tool;
+  private Tenant tenant;
+  private LocalDate monday = LocalDate.of(2030, 1, 7);
+
+  @BeforeEach
+  public void setUp() {
+    bookingRepository.deleteAll();
+    toolRepository.deleteAll();
+    tenantRepository.deleteAll();
+
+    tenant = new Tenant();
+    tenant.setName("Test Tenant");
+    tenant.setEmail("testtenant@example.com");
+    tenant.setUsername("testtenant");
+    tenant.setPassword("password123");
+    tenant.setMobileNumber("23456789");
+    tenant = tenantRepository.save(tenant);
+
+    tool = new Tool();
+    tool.setName("Test Tool");
+    tool.setDescription("This is a test tool resource");
+    tool.setCapacity(3);
+    tool.setStatus("Available");
+    tool.setType(ResourceType.TOOL);
+    tool = toolRepository.save(tool);
+  }
+
+  @AfterEach
+  public void cleanUp() {
+    bookingRepository.deleteAll();
+    toolRepository.deleteAll();
+    tenantRepository.deleteAll();
+  }
+
+  private Booking saveBooking(LocalDate startDate, LocalDate endDate, BookingStatus status) {
+    return bookingRepository.save(new Booking(tool, tenant, startDate, endDate, TimeRange.EARLY, TimeRange.LATE,
+        status, null, null));
+  }
+
+  @Test
+  public void findPeakOccupancy_shouldReturnZeroWithoutBookings() {
+    assertEquals(0, bookingRepository.findPeakOccupancy(tool.getId(), monday, monday.plusDays(4), 0L));
+  }
+
+  @Test
+  public void findPeakOccupancy_shouldReturnHighestOverlapInWindow() {
+    saveBooking(monday, monday.plusDays(2), BookingStatus.PENDING);
+    saveBooking(monday.plusDays(1), monday.plusDays(3), BookingStatus.CONFIRMED);
+    saveBooking(monday.plusDays(1), monday.plusDays(2), BookingStatus.LATE);
+
+    assertEquals(3, bookingRepository.findPeakOccupancy(tool.getId(), monday, monday.plusDays(4), 0L));
+    assertEquals(1, bookingRepository.findPeakOccupancy(tool.getId(), monday.plusDays(2), monday.plusDays(4), 0L));
+  }
+
+  @Test
+  public void findPeakOccupancy_shouldNotCountEndDate() {
+    saveBooking(monday, monday.plusDays(2), BookingStatus.PENDING);
+
+    assertEquals(0, bookingRepository.findPeakOccupancy(tool.getId(), monday.plusDays(2), monday.plusDays(3), 0L));
+  }
+
+  @Test
+  public void findPeakOccupancy_shouldIgnoreCanceledAndExcludedBookings() {
+    Booking excluded = saveBooking(monday, monday.plusDays(2), BookingStatus.PENDING);
+    saveBooking(monday, monday.plusDays(2), BookingStatus.CANCELED);
+    saveBooking(monday.plusDays(1), monday.plusDays(2), BookingStatus.PENDING);
+
+    assertEquals(1,
+        bookingRepository.findPeakOccupancy(tool.getId(), monday, monday.plusDays(4), excluded.getId()));
+  }
+
+  @Test
+  public void updateStatusByResourceAndStatusIn_shouldOnlyCancelMatchingBookings() {
+    Booking pending = saveBooking(monday, monday.plusDays(2), BookingStatus.PENDING);
+    Booking confirmed = saveBooking(monday, monday.plusDays(2), BookingStatus.CONFIRMED);
+    Booking completed = saveBooking(monday, monday.plusDays(2), BookingStatus.COMPLETED);
+    List<BookingStatus> statuses = List.of(BookingStatus.CONFIRMED, BookingStatus.PENDING);
+
+    List<Long> ids = bookingRepository.findIdsByResourceAndStatusIn(tool.getId(), statuses);
+    int updated = transactionTemplate.execute(status -> bookingRepository
+        .updateStatusByResourceAndStatusIn(tool.getId(), statuses, BookingStatus.CANCELED));
+
+    assertEquals(List.of(pending.getId(), confirmed.getId()), ids.stream().sorted().toList());
+    assertEquals(2, updated);
+    assertEquals(BookingStatus.CANCELED, bookingRepository.findById(pending.getId()).get().getStatus());
+    assertEquals(BookingStatus.CANCELED, bookingRepository.findById(confirmed.getId()).get().getStatus());
+    assertEquals(BookingStatus.COMPLETED, bookingRepository.findById(completed.getId()).get().getStatus());
+  }
+
+  @Test
+  public void updateStatusByUserAndStatusNotIn_shouldSkipCompletedAndCanceledBookings() {
+    Booking late = saveBooking(monday, monday.plusDays(2), BookingStatus.LATE);
+    saveBooking(monday, monday.plusDays(2), BookingStatus.CANCELED);
+    Booking completed = saveBooking(monday, monday.plusDays(2), BookingStatus.COMPLETED);
+    List<BookingStatus> excluded = List.of(BookingStatus.COMPLETED, BookingStatus.CANCELED);
+
+    List<Long> ids = bookingRepository.findIdsByUserAndStatusNotIn(tenant.getId(), excluded);
+    int updated = transactionTemplate.execute(status -> bookingRepository
+        .updateStatusByUserAndStatusNotIn(tenant.getId(), excluded, BookingStatus.CANCELED));
+
+    assertEquals(List.of(late.getId()), ids);
+    assertEquals(1, updated);
+    assertEquals(BookingStatus.CANCELED, bookingRepository.findById(late.getId()).get().getStatus());
+    assertEquals(BookingStatus.COMPLETED, bookingRepository.findById(completed.getId()).get().getStatus());
+  }
+}
@@ -0,0 +1,88 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.StoredPicture;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class StoredPictureRepositoryTest {
+
+  @Autowired
+  private StoredPictureRepository repository;
+
+  @AfterEach
+  public void cleanUp() {
+    repository.deleteAll();
+  }
+
+  @Test
+  public void acquireAndRelease_shouldCountReferences() {
+    repository.acquire("shared.png", false);
+    repository.acquire("shared.png", false);
+
+    assertEquals(2, repository.findById(new StoredPicture.Key("shared.png", false)).get().getReferenceCount());
+
+    assertEquals(1, repository.release("shared.png", false, 1_000L));
+    assertEquals(1, repository.release("shared.png", false, 2_000L));
+    assertEquals(0, repository.release("shared.png", false, 3_000L), "The count should not go below zero");
+
+    StoredPicture picture = repository.findById(new StoredPicture.Key("shared.png", false)).get();
+    assertEquals(0, picture.getReferenceCount());
+    assertEquals(2_000L, picture.getLastReleasedAtMillis());
+  }
+
+  @Test
+  public void findOrphans_shouldOnlyReturnPicturesUnreferencedSinceTheCutoff() {
+    repository.acquire("orphan.png", false);
+    repository.release("orphan.png", false, 1_000L);
+    repository.acquire("recent.png", true);
+    repository.release("recent.png", true, 5_000L);
+    repository.acquire("used.png", false);
+
+    assertEquals(1, repository.findOrphans(2_000L).size());
+    assertEquals("orphan.png", repository.findOrphans(2_000L).get(0).getFileName());
+  }
+
+  @Test
+  public void deleteIfUnreferenced_shouldKeepPicturesThatWereAcquiredAgain() {
+    repository.acquire("orphan.png", false);
+    repository.release("orphan.png", false, 1_000L);
+    repository.acquire("orphan.png", false);
+
+    assertEquals(0, repository.deleteIfUnreferenced("orphan.png", false));
+    assertTrue(repository.existsById(new StoredPicture.Key("orphan.png", false)));
+
+    repository.release("orphan.png", false, 2_000L);
+    assertEquals(1, repository.deleteIfUnreferenced("orphan.png", false));
+    assertFalse(repository.existsById(new StoredPicture.Key("orphan.png", false)));
+  }
+
+  @Test
+  public void acquire_shouldCountProfileAndResourceCopiesSeparately() {
+    repository.acquire("both.png", true);
+    repository.acquire("both.png", false);
+    repository.acquire("both.png", false);
+
+    assertEquals(1, repository.findById(new StoredPicture.Key("both.png", true)).get().getReferenceCount());
+    assertEquals(2, repository.findById(new StoredPicture.Key("both.png", false)).get().getReferenceCount());
+
+    repository.release("both.png", true, 1_000L);
+
+    List<StoredPicture> orphans = repository.findOrphans(2_000L);
+    assertEquals(1, orphans.size());
+    assertTrue(orphans.get(0).isProfilePicture(), "Only the profile picture copy should be unreferenced");
+    assertEquals(1, repository.deleteIfUnreferenced("both.png", true));
+    assertEquals(0, repository.deleteIfUnreferenced("both.png", false));
+  }
+}
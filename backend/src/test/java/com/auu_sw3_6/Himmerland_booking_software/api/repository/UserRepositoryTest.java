@@ -0,0 +1,131 @@
+package com.auu_sw3_6.Himmerland_booking_software.api.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Admin;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.User;
+import com.auu_sw3_6.Himmerland_booking_software.service.CustomUserDetailsService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserRepositoryTest {
+
+  @Autowired
+  private UserRepository userRepository;
+  @Autowired
+  private TenantRepository tenantRepository;
+  @Autowired
+  private AdminRepository adminRepository;
+  @Autowired
+  private CustomUserDetailsService userDetailsService;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private Admin admin;
+
+  @BeforeEach
+  public void setUp() {
+    tenantRepository.deleteAll();
+    admin = adminRepository.findAll().stream()
+        .filter(a -> "lookupadmin".equals(a.getNormalizedUsername()))
+        .findFirst()
+        .orElseGet(() -> {
+          Admin newAdmin = new Admin();
+          newAdmin.setName("Lookup Admin");
+          newAdmin.setEmail("lookupadmin@example.com");
+          newAdmin.setUsername("LookupAdmin");
+          newAdmin.setPassword("password123");
+          return adminRepository.save(newAdmin);
+        });
+  }
+
+  @AfterEach
+  public void cleanUp() {
+    tenantRepository.deleteAll();
+    adminRepository.delete(admin);
+  }
+
+  private Tenant saveTenant(String username) {
+    Tenant tenant = new Tenant();
+    tenant.setName("Lookup Tenant");
+    tenant.setEmail("lookuptenant@example.com");
+    tenant.setUsername(username);
+    tenant.setPassword("password123");
+    tenant.setMobileNumber("23456789");
+    return tenantRepository.save(tenant);
+  }
+
+  @Test
+  public void findByNormalizedUsername_shouldReturnConcreteSubtypeIgnoringCase() {
+    Tenant tenant = saveTenant("MixedCase");
+
+    User foundTenant = userDetailsService.findByUsername("  mixedcase ").orElseThrow();
+    User foundAdmin = userDetailsService.findByUsername("LOOKUPADMIN").orElseThrow();
+
+    assertInstanceOf(Tenant.class, foundTenant);
+    assertEquals(tenant.getId(), foundTenant.getId());
+    assertEquals("MixedCase", foundTenant.getUsername());
+    assertInstanceOf(Admin.class, foundAdmin);
+    assertEquals("ROLE_ADMIN", CustomUserDetailsService.roleOf(foundAdmin));
+  }
+
+  @Test
+  public void save_usernameDifferingOnlyInCase_shouldViolateUniqueIndex() {
+    saveTenant("duplicate");
+
+    assertTrue(userDetailsService.isUsernameTaken("Duplicate"));
+    assertThrows(DataAccessException.class, () -> saveTenant("DUPLICATE"));
+  }
+
+  @Test
+  public void softDeletedUsers_shouldBeLeftOutOfTheIndex() {
+    Tenant first = saveTenant(User.DELETED_USERNAME);
+    Tenant second = saveTenant(User.DELETED_USERNAME);
+
+    assertNull(first.getNormalizedUsername());
+    assertNull(second.getNormalizedUsername());
+    assertFalse(userDetailsService.findByUsername(User.DELETED_USERNAME).isPresent());
+    assertTrue(userDetailsService.isUsernameTaken(User.DELETED_USERNAME));
+  }
+
+  @Test
+  public void backfillNormalizedUsernames_shouldFillMissingValues() {
+    Tenant tenant = saveTenant("Backfilled");
+    jdbcTemplate.update("UPDATE user SET normalized_username = NULL WHERE id = ?", tenant.getId());
+
+    assertEquals(1, userDetailsService.prepareUsernameIndex());
+
+    assertEquals("backfilled", tenantRepository.findById(tenant.getId()).orElseThrow().getNormalizedUsername());
+  }
+
+  @Test
+  public void prepareUsernameIndex_shouldSkipUsernamesDifferingOnlyInCaseFromAnEarlierUser() {
+    // Before the index existed, usernames were compared case-sensitively
+    jdbcTemplate.execute("DROP INDEX IF EXISTS idx_user_normalized_username");
+    Tenant first = saveTenant("Bob");
+    Tenant second = saveTenant("bob");
+    jdbcTemplate.update("UPDATE user SET normalized_username = NULL WHERE id IN (?, ?)", first.getId(),
+        second.getId());
+
+    assertEquals(1, userDetailsService.prepareUsernameIndex());
+
+    assertEquals("bob", tenantRepository.findById(first.getId()).orElseThrow().getNormalizedUsername());
+    assertNull(tenantRepository.findById(second.getId()).orElseThrow().getNormalizedUsername());
+    assertEquals(first.getId(), userDetailsService.findByUsername("BOB").orElseThrow().getId());
+    assertThrows(DataAccessException.class, () -> saveTenant("BOB"));
+  }
+}
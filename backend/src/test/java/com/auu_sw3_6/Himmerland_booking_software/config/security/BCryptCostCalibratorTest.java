@@ -0,0 +1,31 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class BCryptCostCalibratorTest {
+
+  // Pretends cost 10 takes 64 ms and every step up doubles it
+  private final BCryptCostCalibrator calibrator = new BCryptCostCalibrator(cost -> (64L << cost) / 1024 * 1_000_000L);
+
+  @Test
+  public void calibrate_shouldPickHighestCostWithinTarget() {
+    BCryptCostCalibrator.Calibration calibration = calibrator.calibrate(300, 10, 16);
+
+    assertEquals(12, calibration.cost());
+    assertEquals(256.0, calibration.hashMillis());
+  }
+
+  @Test
+  public void calibrate_shouldStayWithinBounds() {
+    assertEquals(10, calibrator.calibrate(10, 10, 16).cost());
+    assertEquals(13, calibrator.calibrate(60_000, 10, 13).cost());
+  }
+
+  @Test
+  public void calibrate_invalidBounds_shouldThrow() {
+    assertThrows(IllegalArgumentException.class, () -> calibrator.calibrate(250, 3, 10));
+    assertThrows(IllegalArgumentException.class, () -> calibrator.calibrate(250, 12, 10));
+  }
+}
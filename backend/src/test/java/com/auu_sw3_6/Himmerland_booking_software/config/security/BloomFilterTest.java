@@ -0,0 +1,39 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTest {
+
+  @Test
+  public void mightContain_shouldAlwaysFindAddedValues() {
+    BloomFilter filter = new BloomFilter(1_000, 0.01);
+    String[] added = new String[1_000];
+    for (int i = 0; i < added.length; i++) {
+      added[i] = UUID.randomUUID().toString();
+      filter.add(added[i]);
+    }
+
+    for (String value : added) {
+      assertTrue(filter.mightContain(value));
+    }
+  }
+
+  @Test
+  public void mightContain_shouldKeepFalsePositivesNearTheConfiguredRate() {
+    BloomFilter filter = new BloomFilter(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      filter.add(UUID.randomUUID().toString());
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 100_000; i++) {
+      if (filter.mightContain(UUID.randomUUID().toString())) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 2_000, "Expected about 1% false positives, got " + falsePositives + " in 100000");
+  }
+}
@@ -0,0 +1,100 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.PasswordHashingStats;
+import com.auu_sw3_6.Himmerland_booking_software.exception.PasswordHashingRejectedException;
+
+public class BoundedPasswordEncoderTest {
+
+  private static final BCryptCostCalibrator.Calibration CALIBRATION = new BCryptCostCalibrator.Calibration(4, 1.5);
+
+  private BoundedPasswordEncoder encoder;
+
+  @AfterEach
+  public void tearDown() {
+    encoder.shutdown();
+  }
+
+  @Test
+  public void encodeAndMatches_shouldDelegateAndRecordTimings() {
+    encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1, CALIBRATION);
+
+    String hash = encoder.encode("Password123");
+
+    assertTrue(encoder.matches("Password123", hash));
+    assertFalse(encoder.matches("Password124", hash));
+    PasswordHashingStats stats = encoder.getStats();
+    assertEquals(3, stats.completed());
+    assertEquals(0, stats.rejected());
+    assertTrue(stats.maxHashMillis() >= stats.meanHashMillis());
+    assertEquals(4, stats.cost());
+  }
+
+  @Test
+  public void upgradeEncoding_shouldCountHashesDueForUpgrade() {
+    encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1, CALIBRATION);
+
+    assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("Password123")));
+    assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("Password123")));
+    assertEquals(1, encoder.getStats().upgraded());
+  }
+
+  @Test
+  public void encode_whenWorkersAndQueueAreFull_shouldRejectImmediately() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    encoder = new BoundedPasswordEncoder(new BlockingEncoder(started, release), 1, 1, CALIBRATION);
+
+    CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+    while (encoder.getStats().queued() == 0) {
+      Thread.onSpinWait();
+    }
+
+    assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("third"));
+    assertEquals(1, encoder.getStats().rejected());
+
+    release.countDown();
+    assertEquals("first", running.get(5, TimeUnit.SECONDS));
+    assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+  }
+
+  private static class BlockingEncoder implements PasswordEncoder {
+    private final CountDownLatch started;
+    private final CountDownLatch release;
+
+    BlockingEncoder(CountDownLatch started, CountDownLatch release) {
+      this.started = started;
+      this.release = release;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      started.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return rawPassword.toString();
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      return rawPassword.toString().equals(encodedPassword);
+    }
+  }
+}
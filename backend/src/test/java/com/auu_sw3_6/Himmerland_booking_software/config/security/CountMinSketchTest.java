@@ -0,0 +1,36 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class CountMinSketchTest {
+
+  @Test
+  public void estimate_shouldNeverUndercount() {
+    CountMinSketch sketch = new CountMinSketch(4, 256);
+    for (int i = 0; i < 2_000; i++) {
+      sketch.add("key" + (i % 500));
+    }
+
+    for (int i = 0; i < 500; i++) {
+      assertTrue(sketch.estimate("key" + i) >= 4);
+    }
+  }
+
+  @Test
+  public void estimate_shouldBeExactWithoutCollisions_andClearShouldReset() {
+    CountMinSketch sketch = new CountMinSketch(4, 4096);
+    for (int i = 0; i < 7; i++) {
+      sketch.add("tenant1");
+    }
+    sketch.add("tenant2");
+
+    assertEquals(7, sketch.estimate("tenant1"));
+    assertEquals(1, sketch.estimate("tenant2"));
+    assertEquals(0, sketch.estimate("tenant3"));
+
+    sketch.clear();
+    assertEquals(0, sketch.estimate("tenant1"));
+  }
+}
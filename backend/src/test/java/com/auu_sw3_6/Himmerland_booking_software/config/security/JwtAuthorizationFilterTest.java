@@ -0,0 +1,119 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Admin;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.RevokedToken;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.UserTokenVersion;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.RevokedTokenRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.UserTokenVersionRepository;
+
+import jakarta.servlet.http.Cookie;
+
+public class JwtAuthorizationFilterTest {
+
+  private final JwtUtil jwtUtil = new JwtUtil();
+  private UserTokenVersionRepository tokenVersionRepository;
+  private TokenVersionRegistry tokenVersions;
+  private RevokedTokenRepository revokedTokenRepository;
+  private TokenRevocationStore revokedTokens;
+  private JwtAuthorizationFilter filter;
+
+  @BeforeEach
+  public void setUp() {
+    tokenVersionRepository = mock(UserTokenVersionRepository.class);
+    when(tokenVersionRepository.findAll()).thenReturn(List.of(new UserTokenVersion(7L, 3)));
+    tokenVersions = new TokenVersionRegistry(tokenVersionRepository);
+    tokenVersions.load();
+    revokedTokenRepository = mock(RevokedTokenRepository.class);
+    revokedTokens = new TokenRevocationStore(revokedTokenRepository, 100);
+    revokedTokens.load();
+    filter = new JwtAuthorizationFilter(jwtUtil, tokenVersions, revokedTokens);
+  }
+
+  @AfterEach
+  public void cleanUp() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private Authentication filterWithToken(String token) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setCookies(new Cookie("jwt", token));
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    return SecurityContextHolder.getContext().getAuthentication();
+  }
+
+  @Test
+  public void validToken_shouldAuthenticateFromClaims() throws Exception {
+    Authentication authentication = filterWithToken(jwtUtil.generateToken(7L, "admin", "ROLE_ADMIN", 3));
+
+    CustomUserDetails userDetails = assertInstanceOf(CustomUserDetails.class, authentication.getPrincipal());
+    assertTrue(userDetails.isFromToken());
+    assertEquals(7L, userDetails.getUserId());
+    assertEquals("admin", userDetails.getUsername());
+    assertInstanceOf(Admin.class, userDetails.toUser());
+    assertEquals("ROLE_ADMIN", authentication.getAuthorities().iterator().next().getAuthority());
+  }
+
+  @Test
+  public void tokenWithOutdatedVersion_shouldNotAuthenticate() throws Exception {
+    assertNull(filterWithToken(jwtUtil.generateToken(7L, "admin", "ROLE_ADMIN", 2)));
+  }
+
+  @Test
+  public void invalidate_shouldRejectTokensIssuedBefore() throws Exception {
+    String token = jwtUtil.generateToken(8L, "tenant", "ROLE_TENANT", tokenVersions.currentVersion(8L));
+
+    tokenVersions.invalidate(8L);
+
+    assertNull(filterWithToken(token));
+    verify(tokenVersionRepository).save(any(UserTokenVersion.class));
+    assertEquals(1, tokenVersions.currentVersion(8L));
+  }
+
+  @Test
+  public void revokedToken_shouldNotAuthenticate_whileOtherTokensOfTheUserStillDo() throws Exception {
+    String revoked = jwtUtil.generateToken(7L, "admin", "ROLE_ADMIN", 3);
+    String other = jwtUtil.generateToken(7L, "admin", "ROLE_ADMIN", 3);
+    String revokedId = jwtUtil.getVerifiedClaims(revoked).getId();
+    when(revokedTokenRepository.existsById(revokedId)).thenReturn(true);
+
+    revokedTokens.revoke(jwtUtil.getVerifiedClaims(revoked));
+
+    verify(revokedTokenRepository).save(any(RevokedToken.class));
+    assertNull(filterWithToken(revoked));
+    SecurityContextHolder.clearContext();
+    assertInstanceOf(CustomUserDetails.class, filterWithToken(other).getPrincipal());
+  }
+
+  @Test
+  public void tokenThatWasNeverRevoked_shouldNotQueryTheDatabase() throws Exception {
+    filterWithToken(jwtUtil.generateToken(7L, "admin", "ROLE_ADMIN", 3));
+
+    verify(revokedTokenRepository, never()).existsById(anyString());
+  }
+
+  @Test
+  public void invalidToken_shouldNotAuthenticate() throws Exception {
+    assertNull(filterWithToken("not-a-jwt"));
+  }
+}
@@ -0,0 +1,114 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+public class JwtUtilTest {
+
+  private final JwtUtil jwtUtil = new JwtUtil();
+
+  @Test
+  public void getVerifiedClaims_validToken_shouldReturnSubject() {
+    String token = jwtUtil.generateToken(1L, "tenant1", "ROLE_TENANT", 0);
+
+    Claims claims = jwtUtil.getVerifiedClaims(token);
+
+    assertNotNull(claims);
+    assertEquals("tenant1", claims.getSubject());
+    assertTrue(jwtUtil.validateToken(token, "tenant1"));
+    assertFalse(jwtUtil.validateToken(token, "tenant2"));
+  }
+
+  @Test
+  public void generatedTokens_shouldHaveJitteredLifetimes() {
+    Claims access = jwtUtil.getVerifiedClaims(jwtUtil.generateToken(1L, "tenant1", "ROLE_TENANT", 0));
+    Claims refresh = jwtUtil.getVerifiedClaims(jwtUtil.generateRefreshToken(1L, "tenant1", "ROLE_TENANT", 0));
+
+    assertFalse(JwtUtil.isRefreshToken(access));
+    assertTrue(JwtUtil.isRefreshToken(refresh));
+    assertNotNull(access.getId());
+    long accessLifetime = access.getExpiration().getTime() - access.getIssuedAt().getTime();
+    // Issued-at is rounded down to the second, so allow one extra second
+    assertTrue(accessLifetime >= JwtUtil.ACCESS_TOKEN_MILLIS * (1 - JwtUtil.EXPIRY_JITTER) - 1_000
+        && accessLifetime <= JwtUtil.ACCESS_TOKEN_MILLIS * (1 + JwtUtil.EXPIRY_JITTER) + 1_000);
+
+    long shortest = Long.MAX_VALUE;
+    long longest = 0;
+    for (int i = 0; i < 1_000; i++) {
+      long lifetime = JwtUtil.jittered(JwtUtil.REFRESH_TOKEN_MILLIS);
+      shortest = Math.min(shortest, lifetime);
+      longest = Math.max(longest, lifetime);
+    }
+    assertTrue(shortest >= JwtUtil.REFRESH_TOKEN_MILLIS * (1 - JwtUtil.EXPIRY_JITTER));
+    assertTrue(longest <= JwtUtil.REFRESH_TOKEN_MILLIS * (1 + JwtUtil.EXPIRY_JITTER));
+    assertTrue(longest - shortest > JwtUtil.REFRESH_TOKEN_MILLIS * JwtUtil.EXPIRY_JITTER, "Lifetimes should spread out");
+  }
+
+  @Test
+  public void getVerifiedClaims_tamperedToken_shouldReturnNull() {
+    String token = jwtUtil.generateToken(1L, "tenant1", "ROLE_TENANT", 0);
+    String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+    assertNull(jwtUtil.getVerifiedClaims(tampered));
+    assertNull(jwtUtil.extractUsername("not-a-jwt"));
+  }
+
+  @Test
+  public void getVerifiedClaims_sameTokenTwice_shouldParseOnce() {
+    JwtUtil spiedJwtUtil = spy(new JwtUtil());
+    String token = spiedJwtUtil.generateToken(1L, "tenant1", "ROLE_TENANT", 0);
+
+    Claims first = spiedJwtUtil.getVerifiedClaims(token);
+    Claims second = spiedJwtUtil.getVerifiedClaims(token);
+
+    assertSame(first, second);
+    verify(spiedJwtUtil, times(1)).parseClaims(token);
+  }
+
+  @Test
+  public void verifiedClaimsCache_shouldDropEntriesWhenTokenExpires() {
+    VerifiedClaimsCache cache = new VerifiedClaimsCache(10);
+    Claims claims = Jwts.claims().subject("tenant1").expiration(new Date(2_000L)).build();
+    cache.put("token", claims);
+
+    assertSame(claims, cache.get("token", 1_999L));
+    assertNull(cache.get("token", 2_000L));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void verifiedClaimsCache_shouldEvictLeastRecentlyUsedWhenFull() {
+    VerifiedClaimsCache cache = new VerifiedClaimsCache(2);
+    Claims claims = Jwts.claims().subject("tenant1").expiration(new Date(2_000L)).build();
+    cache.put("a", claims);
+    cache.put("b", claims);
+    cache.get("a", 0L);
+    cache.put("c", claims);
+
+    assertEquals(2, cache.size());
+    assertNotNull(cache.get("a", 0L));
+    assertNull(cache.get("b", 0L));
+    assertNotNull(cache.get("c", 0L));
+  }
+
+  @Test
+  public void verifiedClaimsCache_shouldNotCacheTokensWithoutExpiry() {
+    VerifiedClaimsCache cache = new VerifiedClaimsCache(2);
+    cache.put("token", Jwts.claims().subject("tenant1").build());
+
+    assertEquals(0, cache.size());
+  }
+}
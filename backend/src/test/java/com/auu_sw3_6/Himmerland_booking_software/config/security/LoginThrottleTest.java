@@ -0,0 +1,80 @@
+package com.auu_sw3_6.Himmerland_booking_software.config.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.LoginThrottleStats;
+
+public class LoginThrottleTest {
+
+  private final AtomicLong now = new AtomicLong(1_000_000_000L);
+  private final LoginThrottle throttle = new LoginThrottle(3, 5, 60, 1024, now::get);
+
+  @Test
+  public void isBlocked_afterTooManyFailuresForUsername_ignoringCase() {
+    for (int i = 0; i < 3; i++) {
+      assertFalse(throttle.isBlocked("Tenant1", "10.0.0." + i));
+      throttle.recordFailure("Tenant1", "10.0.0." + i);
+    }
+
+    assertTrue(throttle.isBlocked(" tenant1 ", "10.0.0.9"));
+    assertFalse(throttle.isBlocked("tenant2", "10.0.0.9"));
+  }
+
+  @Test
+  public void isBlocked_afterTooManyFailuresFromOneAddress() {
+    for (int i = 0; i < 5; i++) {
+      throttle.recordFailure("user" + i, "10.0.0.1");
+    }
+
+    assertTrue(throttle.isBlocked("someoneElse", "10.0.0.1"));
+    assertFalse(throttle.isBlocked("someoneElse", "10.0.0.2"));
+  }
+
+  @Test
+  public void failures_shouldFadeOutOverTheNextWindow() {
+    now.set(60_000L * 100_000); // Start of a window
+    LoginThrottle windowed = new LoginThrottle(3, 100, 60, 1024, now::get);
+    for (int i = 0; i < 6; i++) {
+      windowed.recordFailure("tenant1", "10.0.0.1");
+    }
+    assertTrue(windowed.isBlocked("tenant1", "10.0.0.1"));
+
+    // Early in the next window most of the previous failures still count
+    now.addAndGet(61_000L);
+    assertTrue(windowed.isBlocked("tenant1", "10.0.0.1"));
+
+    // Late in the next window they mostly do not
+    now.addAndGet(50_000L);
+    assertFalse(windowed.isBlocked("tenant1", "10.0.0.1"));
+
+    // Two windows later they are gone, even right at the start of a window
+    now.set(60_000L * 100_003);
+    assertFalse(windowed.isBlocked("tenant1", "10.0.0.1"));
+    assertEquals(2, windowed.getStats().attemptsBlocked());
+  }
+
+  @Test
+  public void memory_shouldNotGrowWithDistinctUsernames() {
+    long before = throttle.getStats().sketchBytes();
+    for (int i = 0; i < 100_000; i++) {
+      throttle.recordFailure("user" + i, "10.0." + (i / 256 % 256) + "." + (i % 256));
+    }
+
+    LoginThrottleStats stats = throttle.getStats();
+    assertEquals(before, stats.sketchBytes());
+    assertEquals(100_000, stats.failuresRecorded());
+  }
+
+  @Test
+  public void secondsUntilNextWindow_shouldCountDownToTheWindowEnd() {
+    now.set(60_000L * 100_000 + 45_000L);
+    LoginThrottle windowed = new LoginThrottle(3, 100, 60, 1024, now::get);
+
+    assertEquals(15, windowed.secondsUntilNextWindow());
+  }
+}
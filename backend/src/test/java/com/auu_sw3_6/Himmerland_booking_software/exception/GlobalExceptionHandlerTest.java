@@ -6,9 +6,11 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.ErrorResponse;
 
@@ -32,6 +34,29 @@ public void testHandleAccessDeniedException() {
     assertEquals("Access denied", response.getBody().getMessage(), "Error message should be 'Access denied'");
 }
 
+    @Test
+    public void testHandlePasswordHashingRejectedException() {
+        // Act
+        ResponseEntity<ErrorResponse> response = globalExceptionHandler.handlePasswordHashingRejectedException(
+                new PasswordHashingRejectedException("Too busy"));
+
+        // Assert
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode(), "Status should be TOO_MANY_REQUESTS");
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER), "Should ask the client to retry later");
+        assertEquals("Too busy", response.getBody().getMessage(), "Error message should match");
+    }
+
+    @Test
+    public void testHandleMaxUploadSizeExceededException() {
+        // Act
+        ResponseEntity<ErrorResponse> response = globalExceptionHandler.handleMaxUploadSizeExceededException(
+                new MaxUploadSizeExceededException(512 * 1024));
+
+        // Assert
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode(), "Status should be PAYLOAD_TOO_LARGE");
+        assertEquals("Uploaded file is too large", response.getBody().getMessage(), "Error message should match");
+    }
+
     @Test
     public void testHandleDatabaseExceptions() {
         // Act
@@ -20,6 +20,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Admin;
 import com.auu_sw3_6.Himmerland_booking_software.api.repository.AdminRepository;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.TokenVersionRegistry;
 import com.auu_sw3_6.Himmerland_booking_software.exception.CaretakerNameConflictException;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +38,9 @@ public class AdminServiceTest {
   @Mock
   private MultipartFile profileImage;
 
+  @Mock
+  private TokenVersionRegistry tokenVersions;
+
   @InjectMocks
   private AdminService adminService;
 
@@ -53,6 +57,15 @@ public class AdminServiceTest {
     admin.setCaretakerNames(new ArrayList<>());
   }
 
+  private Admin storedAdmin() {
+    Admin storedAdmin = new Admin();
+    storedAdmin.setId(1L);
+    storedAdmin.setUsername("adminUser");
+    storedAdmin.updateNormalizedUsername();
+    storedAdmin.setPassword("storedHash");
+    return storedAdmin;
+  }
+
   @Test
   public void testCreateAdmin_InteractsWithDependencies() throws Exception {
     // Arrange
@@ -102,7 +115,7 @@ public class AdminServiceTest {
   @Test // ALLE TESTS MED UPDATEUSER ER FCKED PGA isValidPassword -> fix
   public void testUpdateAdmin_InteractsWithDependencies() {
     // Arrange
-    when(adminRepository.findById(1L)).thenReturn(java.util.Optional.of(admin));
+    when(adminRepository.findById(1L)).thenReturn(java.util.Optional.of(storedAdmin()));
     when(pictureService.savePicture(profileImage, isProfilePicture)).thenReturn("profileImage.jpg");
     when(passwordEncoder.encode("Password123")).thenReturn("encryptedPassword123");
     when(adminRepository.save(any(Admin.class))).thenReturn(admin);
@@ -113,6 +126,7 @@ public class AdminServiceTest {
     // Assert
     verify(adminRepository).findById(1L);
     verify(adminRepository).save(admin);
+    verify(tokenVersions).invalidate(1L);
     verify(pictureService).savePicture(profileImage, isProfilePicture);
     verify(passwordEncoder).encode("Password123");
   }
@@ -135,8 +149,7 @@ public class AdminServiceTest {
   public void testUpdateAdmin_RetainsExistingPasswordWhenNewPasswordIsNull() {
     // Arrange
     admin.setPassword(null);
-    Admin existingAdmin = new Admin();
-    existingAdmin.setId(1L);
+    Admin existingAdmin = storedAdmin();
     existingAdmin.setPassword("existingPassword");
     when(adminRepository.findById(1L)).thenReturn(java.util.Optional.of(
         existingAdmin));
@@ -154,7 +167,7 @@ public class AdminServiceTest {
   @Test
   public void testUpdateAdmin_ReturnsUpdatedAdminWithCorrectDetails() {
     // Arrange
-    when(adminRepository.findById(1L)).thenReturn(java.util.Optional.of(admin));
+    when(adminRepository.findById(1L)).thenReturn(java.util.Optional.of(storedAdmin()));
     when(pictureService.savePicture(profileImage,
         isProfilePicture)).thenReturn("profileImage.jpg");
     when(passwordEncoder.encode("Password123")).thenReturn("encryptedPassword123");
@@ -0,0 +1,180 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.controller.testSecurityHelpers.TestTimeProviderConfig;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingDetails;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tool;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.TimeRange;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.BookingRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.TenantRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.ToolRepository;
+import com.auu_sw3_6.Himmerland_booking_software.exception.IllegalBookingException;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestTimeProviderConfig.class)
+public class BookingAdmissionStressTest {
+
+  @Autowired
+  private BookingService bookingService;
+  @Autowired
+  private BookingRepository bookingRepository;
+  @Autowired
+  private ToolRepository toolRepository;
+  @Autowired
+  private TenantRepository tenantRepository;
+  @Autowired
+  private TimeProvider timeProvider;
+
+  private LocalDate tuesday;
+
+  @BeforeEach
+  public void setUp() {
+    bookingRepository.deleteAll();
+    toolRepository.deleteAll();
+    tenantRepository.deleteAll();
+
+    // The test clock is fixed on a Monday
+    tuesday = timeProvider.getToday().plusDays(1);
+  }
+
+  @AfterEach
+  public void cleanUp() {
+    bookingRepository.deleteAll();
+    toolRepository.deleteAll();
+    tenantRepository.deleteAll();
+  }
+
+  private Tool createTool(String name, long capacity) {
+    Tool tool = new Tool();
+    tool.setName(name);
+    tool.setDescription("Stress test tool");
+    tool.setCapacity(capacity);
+    tool.setStatus("Available");
+    tool.setType(ResourceType.TOOL);
+    return toolRepository.save(tool);
+  }
+
+  private List<Tenant> createTenants(int count) {
+    List<Tenant> tenants = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Tenant tenant = new Tenant();
+      tenant.setName("Stress Tenant " + i);
+      tenant.setEmail("stress" + i + "@example.com");
+      tenant.setUsername("stresstenant" + i);
+      tenant.setPassword("password123");
+      tenant.setMobileNumber("23456789");
+      tenants.add(tenantRepository.save(tenant));
+    }
+    return tenants;
+  }
+
+  private BookingDetails details(Tool tool, LocalDate startDate) {
+    return new BookingDetails(tool.getId(), ResourceType.TOOL, startDate, startDate.plusDays(2), TimeRange.LATE,
+        TimeRange.EARLY, null, null);
+  }
+
+  @Test
+  public void bookResource_concurrentRequestsForLastSlots_shouldNotOversell() throws Exception {
+    int threads = 16;
+    Tool trailer = createTool("Trailer", 2);
+    List<Tenant> tenants = createTenants(threads);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger accepted = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (Tenant tenant : tenants) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          try {
+            bookingService.bookResource(tenant, details(trailer, tuesday));
+            accepted.incrementAndGet();
+          } catch (IllegalBookingException e) {
+            rejected.incrementAndGet();
+          }
+          return null;
+        }));
+      }
+
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(2, accepted.get());
+    assertEquals(threads - 2, rejected.get());
+    assertEquals(2, bookingRepository.findByResourceAndStatus(trailer, BookingStatus.PENDING).size());
+  }
+
+  @Tag("benchmark")
+  @Test
+  public void bookResource_throughputByThreadCount() throws Exception {
+    int attemptsPerRun = 200;
+    int resources = 8;
+
+    for (int threads : new int[] { 1, 2, 4, 8, 16 }) {
+      bookingRepository.deleteAll();
+      toolRepository.deleteAll();
+      tenantRepository.deleteAll();
+
+      List<Tool> tools = new ArrayList<>();
+      for (int i = 0; i < resources; i++) {
+        tools.add(createTool("Throughput Tool " + i, attemptsPerRun));
+      }
+      List<Tenant> tenants = createTenants(attemptsPerRun);
+
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      AtomicInteger accepted = new AtomicInteger();
+      List<Future<?>> futures = new ArrayList<>();
+
+      long startNanos = System.nanoTime();
+      for (int i = 0; i < attemptsPerRun; i++) {
+        Tenant tenant = tenants.get(i);
+        Tool tool = tools.get(i % resources);
+        futures.add(executor.submit(() -> {
+          bookingService.bookResource(tenant, details(tool, tuesday));
+          accepted.incrementAndGet();
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(120, TimeUnit.SECONDS);
+      }
+      long elapsedNanos = System.nanoTime() - startNanos;
+      executor.shutdownNow();
+
+      assertEquals(attemptsPerRun, accepted.get());
+      System.out.printf("bookResource with %2d threads over %d resources: %.1f bookings/s%n",
+          threads, resources, attemptsPerRun / (elapsedNanos / 1e9));
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.controller.testSecurityHelpers.TestTimeProviderConfig;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.ArchivedBooking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingFilter;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPage;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingSummary;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tool;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.TimeRange;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.ArchivedBookingRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.BookingRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.TenantRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.ToolRepository;
+
+@SpringBootTest(properties = "booking.archive.batch-size=2")
+@ActiveProfiles("test")
+@Import(TestTimeProviderConfig.class)
+public class BookingArchiveServiceTest {
+
+  @Autowired
+  private BookingArchiveService bookingArchiveService;
+  @Autowired
+  private BookingRepository bookingRepository;
+  @Autowired
+  private ArchivedBookingRepository archivedBookingRepository;
+  @Autowired
+  private ToolRepository toolRepository;
+  @Autowired
+  private TenantRepository tenantRepository;
+  @Autowired
+  private BookingOccupancyIndex occupancyIndex;
+  @Autowired
+  private TimeProvider timeProvider;
+
+  private Tool tool;
+  private Tenant tenant;
+  private LocalDate longAgo;
+
+  @BeforeEach
+  public void setUp() {
+    cleanUp();
+
+    tenant = new Tenant();
+    tenant.setName("Archive Tenant");
+    tenant.setEmail("archive@example.com");
+    tenant.setUsername("archivetenant");
+    tenant.setPassword("password123");
+    tenant.setMobileNumber("23456789");
+    tenant = tenantRepository.save(tenant);
+
+    tool = new Tool();
+    tool.setName("Archive Tool");
+    tool.setDescription("Archive tool");
+    tool.setCapacity(10);
+    tool.setStatus("Available");
+    tool.setType(ResourceType.TOOL);
+    tool = toolRepository.save(tool);
+
+    longAgo = timeProvider.getToday().minusYears(1);
+  }
+
+  @AfterEach
+  public void cleanUp() {
+    archivedBookingRepository.deleteAll();
+    bookingRepository.deleteAll();
+    toolRepository.deleteAll();
+    tenantRepository.deleteAll();
+  }
+
+  private Booking saveBooking(LocalDate startDate, BookingStatus status) {
+    return bookingRepository.save(new Booking(tool, tenant, startDate, startDate.plusDays(2), TimeRange.EARLY,
+        TimeRange.LATE, status, "Receiver", null));
+  }
+
+  @Test
+  public void archiveOldBookings_shouldOnlyMoveOldCompletedAndCanceledBookings() {
+    Booking completed = saveBooking(longAgo, BookingStatus.COMPLETED);
+    Booking canceled = saveBooking(longAgo.plusDays(7), BookingStatus.CANCELED);
+    Booking otherCompleted = saveBooking(longAgo.plusDays(14), BookingStatus.COMPLETED);
+    Booking oldLate = saveBooking(longAgo, BookingStatus.LATE);
+    Booking recentCompleted = saveBooking(timeProvider.getToday().minusDays(10), BookingStatus.COMPLETED);
+
+    int archived = bookingArchiveService.archiveOldBookings();
+
+    assertEquals(3, archived);
+    assertEquals(List.of(oldLate.getId(), recentCompleted.getId()),
+        bookingRepository.findAll().stream().map(Booking::getId).sorted().toList());
+    List<ArchivedBooking> archive = archivedBookingRepository.findAll();
+    assertEquals(List.of(completed.getId(), canceled.getId(), otherCompleted.getId()),
+        archive.stream().map(ArchivedBooking::getBookingId).sorted().toList());
+
+    ArchivedBooking archivedCompleted = archive.stream()
+        .filter(a -> a.getBookingId() == completed.getId()).findFirst().get();
+    assertEquals(tool.getId(), archivedCompleted.getResourceId());
+    assertEquals(tenant.getId(), archivedCompleted.getUserId());
+    assertEquals(longAgo, archivedCompleted.getStartDate());
+    assertEquals(BookingStatus.COMPLETED, archivedCompleted.getStatus());
+    assertEquals("Receiver", archivedCompleted.getReceiverName());
+    assertEquals(timeProvider.getToday(), archivedCompleted.getArchivedOn());
+
+    // The archived completed booking no longer occupies its days, the late one still does
+    assertEquals(1, occupancyIndex.peakOccupancy(tool.getId(), longAgo, longAgo.plusDays(1), 0L));
+  }
+
+  @Test
+  public void archiveOldBookings_shouldDoNothingWithoutOldBookings() {
+    saveBooking(timeProvider.getToday(), BookingStatus.PENDING);
+
+    assertEquals(0, bookingArchiveService.archiveOldBookings());
+    assertTrue(archivedBookingRepository.findAll().isEmpty());
+  }
+
+  @Test
+  public void getArchivedBookings_shouldPageThroughHistory() {
+    Booking first = saveBooking(longAgo, BookingStatus.COMPLETED);
+    Booking second = saveBooking(longAgo.plusDays(7), BookingStatus.CANCELED);
+    Booking third = saveBooking(longAgo.plusDays(14), BookingStatus.COMPLETED);
+    bookingArchiveService.archiveOldBookings();
+
+    BookingPage firstPage = bookingArchiveService.getArchivedBookings(BookingFilter.none(), null, 2);
+    assertEquals(List.of(first.getId(), second.getId()), firstPage.bookings().stream().map(BookingSummary::id).toList());
+    assertEquals(tool.getName(), firstPage.bookings().get(0).resource().name());
+    assertEquals(tenant.getName(), firstPage.bookings().get(0).user().name());
+
+    BookingPage secondPage = bookingArchiveService.getArchivedBookings(BookingFilter.none(), firstPage.nextCursor(), 2);
+    assertEquals(List.of(third.getId()), secondPage.bookings().stream().map(BookingSummary::id).toList());
+    assertNull(secondPage.nextCursor());
+
+    BookingPage canceledOnly = bookingArchiveService.getArchivedBookings(
+        new BookingFilter(List.of(BookingStatus.CANCELED), null, null, null, null, tenant.getId()), null, null);
+    assertEquals(List.of(second.getId()), canceledOnly.bookings().stream().map(BookingSummary::id).toList());
+  }
+}
@@ -0,0 +1,188 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tool;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.BookingRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.TenantRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.ToolRepository;
+
+/**
+ * Compares the SQL peak-occupancy query with the old approach of loading every
+ * booking of the resource and counting overlaps in Java.
+ *
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookingAvailabilityBenchmarkTest {
+
+  private static final int RESOURCES = 10;
+  private static final int DAYS_OF_HISTORY = 3650;
+  private static final int WARMUP_ROUNDS = 2;
+  private static final int MEASURED_ROUNDS = 10;
+  private static final BookingStatus[] STATUSES = {
+      BookingStatus.PENDING, BookingStatus.CONFIRMED, BookingStatus.COMPLETED, BookingStatus.CANCELED };
+
+  @Autowired
+  private BookingService bookingService;
+  @Autowired
+  private BookingRepository bookingRepository;
+  @Autowired
+  private ToolRepository toolRepository;
+  @Autowired
+  private TenantRepository tenantRepository;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  private final Random random = new Random(42);
+  private final LocalDate firstDay = LocalDate.of(2020, 1, 6);
+  private List<Tool> tools;
+  private Tenant tenant;
+
+  @BeforeEach
+  public void setUp() {
+    bookingRepository.deleteAll();
+    toolRepository.deleteAll();
+    tenantRepository.deleteAll();
+
+    tenant = new Tenant();
+    tenant.setName("Benchmark Tenant");
+    tenant.setEmail("benchmark@example.com");
+    tenant.setUsername("benchmarktenant");
+    tenant.setPassword("password123");
+    tenant.setMobileNumber("23456789");
+    tenant = tenantRepository.save(tenant);
+
+    tools = new ArrayList<>();
+    for (int i = 0; i < RESOURCES; i++) {
+      Tool tool = new Tool();
+      tool.setName("Benchmark Tool " + i);
+      tool.setDescription("Benchmark tool");
+      tool.setCapacity(50);
+      tool.setStatus("Available");
+      tool.setType(ResourceType.TOOL);
+      tools.add(toolRepository.save(tool));
+    }
+  }
+
+  @AfterEach
+  public void cleanUp() {
+    // Rows were written with plain JDBC, so clear them the same way and resync the index
+    jdbcTemplate.update("DELETE FROM booking");
+    toolRepository.deleteAll();
+    tenantRepository.deleteAll();
+    bookingService.rebuildOccupancyIndex();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 10_000, 100_000, 1_000_000 })
+  public void compareSqlPeakQueryWithStreamPath(int bookingCount) {
+    insertBookings(bookingCount);
+    Tool tool = tools.get(0);
+
+    List<LocalDate> windowStarts = new ArrayList<>();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      windowStarts.add(firstDay.plusDays(random.nextInt(DAYS_OF_HISTORY)));
+    }
+
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      sqlPeak(tool, windowStarts.get(i));
+      streamAvailable(tool, windowStarts.get(i));
+    }
+
+    long sqlNanos = 0;
+    long streamNanos = 0;
+    for (LocalDate windowStart : windowStarts) {
+      long start = System.nanoTime();
+      long peak = sqlPeak(tool, windowStart);
+      sqlNanos += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      boolean available = streamAvailable(tool, windowStart);
+      streamNanos += System.nanoTime() - start;
+
+      assertEquals(peak < tool.getCapacity(), available);
+    }
+
+    System.out.printf("Availability check with %,d bookings: SQL peak query %.2f ms, stream path %.2f ms%n",
+        bookingCount, sqlNanos / 1e6 / MEASURED_ROUNDS, streamNanos / 1e6 / MEASURED_ROUNDS);
+  }
+
+  private long sqlPeak(Tool tool, LocalDate windowStart) {
+    return bookingRepository.findPeakOccupancy(tool.getId(), windowStart, windowStart.plusDays(4), 0L);
+  }
+
+  private boolean streamAvailable(Tool tool, LocalDate windowStart) {
+    List<Booking> bookings = bookingRepository.findByResource(tool).stream()
+        .filter(b -> b.getStatus() != BookingStatus.CANCELED)
+        .collect(Collectors.toList());
+    return isAvailable(bookings, tool.getCapacity(), windowStart, windowStart.plusDays(4));
+  }
+
+  // The availability check BookingService used before the peak query, kept here as the baseline
+  private static boolean isAvailable(List<Booking> bookings, long capacity, LocalDate startDate, LocalDate endDate) {
+    for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+      LocalDate finalDate = date;
+
+      long overlappingBookingsCount = bookings.stream()
+          .filter(b -> b.getStartDate().isBefore(finalDate.plusDays(1)) && b.getEndDate().isAfter(finalDate))
+          .count();
+
+      if (overlappingBookingsCount >= capacity) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void insertBookings(int bookingCount) {
+    transactionTemplate.executeWithoutResult(status -> insertBookingBatches(bookingCount));
+  }
+
+  private void insertBookingBatches(int bookingCount) {
+    List<Object[]> batch = new ArrayList<>();
+    for (int i = 0; i < bookingCount; i++) {
+      LocalDate startDate = firstDay.plusDays(random.nextInt(DAYS_OF_HISTORY));
+      LocalDate endDate = startDate.plusDays(1 + random.nextInt(5));
+      batch.add(new Object[] {
+          tools.get(i % RESOURCES).getId(), tenant.getId(), Date.valueOf(startDate), Date.valueOf(endDate),
+          STATUSES[random.nextInt(STATUSES.length)].name(), 0, 1 });
+
+      if (batch.size() == 10_000) {
+        flush(batch);
+      }
+    }
+    flush(batch);
+  }
+
+  private void flush(List<Object[]> batch) {
+    jdbcTemplate.batchUpdate("INSERT INTO booking (resource_id, user_id, start_date, end_date, status, "
+        + "pickup_time, dropoff_time) VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+    batch.clear();
+  }
+}
@@ -0,0 +1,137 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Resource;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tool;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+
+public class BookingOccupancyIndexTest {
+
+  private BookingOccupancyIndex occupancyIndex;
+  private Resource resource;
+  private LocalDate monday;
+
+  @BeforeEach
+  public void setUp() {
+    occupancyIndex = new BookingOccupancyIndex();
+    resource = new Tool();
+    resource.setId(1L);
+    monday = LocalDate.of(2030, 1, 7);
+  }
+
+  private Booking booking(long id, LocalDate startDate, LocalDate endDate, BookingStatus status) {
+    Booking booking = new Booking(resource, null, startDate, endDate, null, null, status, null, null);
+    booking.setId(id);
+    return booking;
+  }
+
+  @Test
+  public void isReady_shouldBeFalseUntilRebuilt() {
+    assertFalse(occupancyIndex.isReady());
+
+    occupancyIndex.rebuild(() -> List.of());
+
+    assertTrue(occupancyIndex.isReady());
+  }
+
+  @Test
+  public void peakOccupancy_shouldCountOverlappingBookingsAndExcludeEndDay() {
+    occupancyIndex.rebuild(() -> List.of(
+        booking(1L, monday, monday.plusDays(2), BookingStatus.PENDING),
+        booking(2L, monday.plusDays(1), monday.plusDays(3), BookingStatus.CONFIRMED)));
+
+    assertEquals(2, occupancyIndex.peakOccupancy(1L, monday, monday.plusDays(4), 0L));
+    assertEquals(1, occupancyIndex.peakOccupancy(1L, monday.plusDays(2), monday.plusDays(4), 0L));
+    assertEquals(0, occupancyIndex.peakOccupancy(1L, monday.plusDays(3), monday.plusDays(4), 0L));
+    assertEquals(0, occupancyIndex.peakOccupancy(2L, monday, monday.plusDays(4), 0L));
+  }
+
+  @Test
+  public void peakOccupancy_shouldIgnoreExcludedBooking() {
+    occupancyIndex.rebuild(() -> List.of(
+        booking(1L, monday, monday.plusDays(2), BookingStatus.PENDING),
+        booking(2L, monday.plusDays(1), monday.plusDays(3), BookingStatus.PENDING)));
+
+    assertEquals(1, occupancyIndex.peakOccupancy(1L, monday, monday.plusDays(4), 2L));
+  }
+
+  @Test
+  public void put_shouldReplacePreviousSpanOfBooking() {
+    occupancyIndex.rebuild(() -> List.of(booking(1L, monday, monday.plusDays(2), BookingStatus.PENDING)));
+
+    Booking moved = booking(1L, monday.minusDays(60), monday.minusDays(58), BookingStatus.PENDING);
+    occupancyIndex.put(1L, BookingOccupancyIndex.Span.of(moved));
+
+    assertEquals(0, occupancyIndex.peakOccupancy(1L, monday, monday.plusDays(4), 0L));
+    assertEquals(1, occupancyIndex.peakOccupancy(1L, monday.minusDays(60), monday.minusDays(60), 0L));
+  }
+
+  @Test
+  public void put_shouldDropCanceledBooking() {
+    occupancyIndex.rebuild(() -> List.of(booking(1L, monday, monday.plusDays(2), BookingStatus.PENDING)));
+
+    Booking canceled = booking(1L, monday, monday.plusDays(2), BookingStatus.CANCELED);
+    occupancyIndex.put(1L, BookingOccupancyIndex.Span.of(canceled));
+
+    assertEquals(0, occupancyIndex.peakOccupancy(1L, monday, monday.plusDays(4), 0L));
+  }
+
+  @Test
+  public void remove_shouldFreeOccupiedDays() {
+    occupancyIndex.rebuild(() -> List.of(booking(1L, monday, monday.plusDays(2), BookingStatus.PENDING)));
+
+    occupancyIndex.remove(1L);
+
+    assertEquals(0, occupancyIndex.peakOccupancy(1L, monday, monday.plusDays(4), 0L));
+  }
+
+  @Test
+  public void rebuild_shouldKeepBookingSavedWhileBookingsWereBeingRead() {
+    Booking saved = booking(2L, monday, monday.plusDays(2), BookingStatus.PENDING);
+
+    occupancyIndex.rebuild(() -> {
+      List<Booking> stale = List.of(booking(1L, monday, monday.plusDays(2), BookingStatus.PENDING));
+      // The booking commits after the read, so the list above does not contain it
+      occupancyIndex.put(saved.getId(), BookingOccupancyIndex.Span.of(saved));
+      return stale;
+    });
+
+    assertEquals(2, occupancyIndex.peakOccupancy(1L, monday, monday.plusDays(1), 0L));
+  }
+
+  @Test
+  public void rebuild_shouldKeepRemovalCommittedWhileBookingsWereBeingRead() {
+    occupancyIndex.rebuild(() -> {
+      List<Booking> stale = List.of(booking(1L, monday, monday.plusDays(2), BookingStatus.PENDING));
+      occupancyIndex.remove(1L);
+      return stale;
+    });
+
+    assertEquals(0, occupancyIndex.peakOccupancy(1L, monday, monday.plusDays(1), 0L));
+  }
+
+  @Test
+  public void rebuild_shouldStayNotReadyWhenReadingFails() {
+    assertThrows(IllegalStateException.class, () -> occupancyIndex.rebuild(() -> {
+      throw new IllegalStateException("database unavailable");
+    }));
+
+    assertFalse(occupancyIndex.isReady());
+  }
+
+  @Test
+  public void span_shouldBeNullForBookingWithoutDates() {
+    assertNull(BookingOccupancyIndex.Span.of(booking(1L, null, null, BookingStatus.PENDING)));
+  }
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,7 +14,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import org.mockito.InjectMocks;
@@ -22,9 +25,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingDate;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingDetails;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.BookingPeriod;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Resource;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.User;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
 import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.TimeRange;
 import com.auu_sw3_6.Himmerland_booking_software.api.repository.BookingRepository;
 import com.auu_sw3_6.Himmerland_booking_software.exception.BookingError;
@@ -47,6 +54,12 @@ public class BookingServiceTest {
   @Mock
   private ResourceService<Resource> resourceService;
 
+  @Mock
+  private BookingOccupancyIndex occupancyIndex;
+
+  @Mock
+  private BookingAdmissionController admissionController;
+
   @InjectMocks
   private BookingService bookingService;
 
@@ -217,7 +230,8 @@ public class BookingServiceTest {
     when(timeProvider.getToday()).thenReturn(today);
 
     ApplicationEventPublisher mockEventPublisher = mock(ApplicationEventPublisher.class);
-    bookingService = new BookingService(bookingRepository, resourceServiceFactory, mockEventPublisher, timeProvider);
+    bookingService = new BookingService(bookingRepository, resourceServiceFactory, mockEventPublisher, timeProvider,
+        occupancyIndex, admissionController);
 
     resource.setCapacity(1);
 
@@ -349,7 +363,7 @@ public class BookingServiceTest {
   }
 
   @Test
-  public void isResourceAvailable_shouldReturnTrueWhenNoOverlappingBookings() {
+  public void bookResource_shouldAdmitBookingWhenNoOverlappingBookings() {
 
     // Arrange
     resource.setCapacity(1);
@@ -372,24 +386,25 @@ public class BookingServiceTest {
     booking3.setEndDate(today.plusDays(3));
     booking3.setStatus(BookingStatus.PENDING);
 
-    List<Booking> bookings;
-    bookings = Arrays.asList(booking2, booking3);
+    useOccupancyIndexWith(booking2, booking3);
+    stubBookResource();
+    when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
     // Act
-    boolean result = bookingService.isResourceAvailable(bookings, resource, booking.getStartDate(),
-        booking.getEndDate());
+    Booking result = bookingService.bookResource(user, detailsFor(booking));
 
     // Assert
-    assertTrue(result);
+    assertEquals(booking.getStartDate(), result.getStartDate());
+    verify(bookingRepository, never()).findPeakOccupancy(anyLong(), any(), any(), anyLong());
   }
 
   @Test
-  public void isResourceAvailable_shouldRetrunFalse_WhenOverlappingBookings() {
+  public void bookResource_shouldRejectBookingWhenOverlappingBookingsFillCapacity() {
 
     // Arrange
     resource.setCapacity(1);
     booking.setStartDate(today.plusDays(2));
-    booking.setEndDate(today.plusDays(5));
+    booking.setEndDate(today.plusDays(4));
 
     Booking booking2 = new Booking();
     booking2.setId(2L);
@@ -407,16 +422,50 @@ public class BookingServiceTest {
     booking3.setEndDate(today.plusDays(3));
     booking3.setStatus(BookingStatus.PENDING);
 
-    List<Booking> bookings;
-    bookings = Arrays.asList(booking2, booking3);
+    useOccupancyIndexWith(booking2, booking3);
+    stubBookResource();
 
-    // Act
-    boolean result = bookingService.isResourceAvailable(bookings, resource, booking.getStartDate(),
-        booking.getEndDate());
+    // Act & Assert
+    IllegalBookingException exception = assertThrows(IllegalBookingException.class,
+        () -> bookingService.bookResource(user, detailsFor(booking)));
+    assertEquals(BookingError.DEFAULT_ERROR, exception.getError());
+    verify(bookingRepository, never()).save(any());
+  }
 
-    // Assert
-    assertFalse(result);
+  @Test
+  public void bookResource_shouldAskDatabaseForPeakOccupancyUntilIndexIsReady() {
+
+    // Arrange
+    resource.setCapacity(1);
+    stubBookResource();
+    when(occupancyIndex.isReady()).thenReturn(false);
+    when(bookingRepository.findPeakOccupancy(1L, booking.getStartDate(), booking.getEndDate(), 0L)).thenReturn(1L);
+
+    // Act & Assert
+    IllegalBookingException exception = assertThrows(IllegalBookingException.class,
+        () -> bookingService.bookResource(user, detailsFor(booking)));
+    assertEquals(BookingError.DEFAULT_ERROR, exception.getError());
+    verify(occupancyIndex, never()).peakOccupancy(anyLong(), any(), any(), anyLong());
+  }
+
+  private void useOccupancyIndexWith(Booking... bookings) {
+    BookingOccupancyIndex index = new BookingOccupancyIndex();
+    index.rebuild(() -> List.of(bookings));
+    bookingService = new BookingService(bookingRepository, resourceServiceFactory,
+        mock(ApplicationEventPublisher.class), timeProvider, index, admissionController);
+  }
 
+  private void stubBookResource() {
+    when(timeProvider.getToday()).thenReturn(today);
+    when(timeProvider.getNow()).thenReturn(now);
+    doReturn(resourceService).when(resourceServiceFactory).getServiceByType(ResourceType.TOOL);
+    when(resourceService.getResourceById(1L)).thenReturn(Optional.of(resource));
+    when(admissionController.admit(eq(1L), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+  }
+
+  private BookingDetails detailsFor(Booking booking) {
+    return new BookingDetails(1L, ResourceType.TOOL, booking.getStartDate(), booking.getEndDate(),
+        TimeRange.EARLY, TimeRange.LATE, null, null);
   }
 
   @Test
@@ -750,7 +799,8 @@ public void testCreateBooking_shouldAllowOverlappingBookingsForDifferentResource
   public void testSetBookingStatus_shouldNotPublishEventWhenCanceledByNonAdmin() {
     // Arrange
     ApplicationEventPublisher mockEventPublisher = mock(ApplicationEventPublisher.class);
-    bookingService = new BookingService(bookingRepository, resourceServiceFactory, mockEventPublisher, timeProvider);
+    bookingService = new BookingService(bookingRepository, resourceServiceFactory, mockEventPublisher, timeProvider,
+        occupancyIndex, admissionController);
 
     when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
 
@@ -791,4 +841,74 @@ public void testCreateBooking_shouldAllowOverlappingBookingsForDifferentResource
     verify(bookingRepository, never()).save(any());
   }
 
+  @Test
+  public void getBookedDatesWithAmount_shouldCountEachBookedDayInsideRange() {
+    // Arrange
+    LocalDate from = LocalDate.of(2024, 11, 1);
+    LocalDate to = LocalDate.of(2024, 11, 30);
+    when(bookingRepository.findPeriodsByResourceInRange(eq(1L), anyCollection(), eq(from), eq(to)))
+        .thenReturn(List.of(
+            new BookingPeriod(LocalDate.of(2024, 11, 4), LocalDate.of(2024, 11, 6)),
+            new BookingPeriod(LocalDate.of(2024, 11, 6), LocalDate.of(2024, 11, 7)),
+            new BookingPeriod(LocalDate.of(2024, 10, 30), LocalDate.of(2024, 11, 1))));
+
+    // Act
+    List<BookingDate> result = bookingService.getBookedDatesWithAmount(resource, from, to);
+
+    // Assert
+    assertEquals(5, result.size());
+    assertEquals(LocalDate.of(2024, 11, 1), result.get(0).getDate());
+    assertEquals(1L, result.get(0).getAmount());
+    assertEquals(LocalDate.of(2024, 11, 6), result.get(3).getDate());
+    assertEquals(2L, result.get(3).getAmount());
+    assertEquals(LocalDate.of(2024, 11, 7), result.get(4).getDate());
+    assertEquals(1L, result.get(4).getAmount());
+  }
+
+  @Test
+  public void getBookedDatesWithAmount_shouldDefaultToWindowFromStartOfCurrentMonth() {
+    // Arrange
+    when(timeProvider.getToday()).thenReturn(today);
+
+    // Act
+    bookingService.getBookedDatesWithAmount(resource, null, null);
+
+    // Assert
+    verify(bookingRepository).findPeriodsByResourceInRange(eq(1L), anyCollection(), eq(LocalDate.of(2024, 11, 1)),
+        eq(LocalDate.of(2025, 4, 30)));
+  }
+
+  @Test
+  public void getBookedDatesWithAmount_shouldRejectTooLongRange() {
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> bookingService.getBookedDatesWithAmount(resource,
+        LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)));
+    verify(bookingRepository, never()).findPeriodsByResourceInRange(anyLong(), anyCollection(), any(), any());
+  }
+
+  @Test
+  public void getBookedDatesWithAmount_shouldRejectEndBeforeStart() {
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> bookingService.getBookedDatesWithAmount(resource,
+        LocalDate.of(2024, 11, 30), LocalDate.of(2024, 11, 1)));
+  }
+
+  @Test
+  public void bookResource_shouldThrowTooManyBookingsWhenQuotaIsReached() {
+    // Arrange
+    BookingDetails details = new BookingDetails(1L, ResourceType.TOOL, today.plusDays(1), today.plusDays(3),
+        TimeRange.EARLY, TimeRange.LATE, null, null);
+    doReturn(resourceService).when(resourceServiceFactory).getServiceByType(ResourceType.TOOL);
+    when(resourceService.getResourceById(1L)).thenReturn(Optional.of(resource));
+    when(admissionController.admit(eq(1L), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+    when(bookingRepository.countByUser_IdAndResource_IdAndStatusIn(eq(1L), eq(1L), anyCollection())).thenReturn(25L);
+
+    // Act & Assert
+    IllegalBookingException exception = assertThrows(IllegalBookingException.class,
+        () -> bookingService.bookResource(user, details));
+    assertEquals(BookingError.TOO_MANY_BOOKINGS, exception.getError());
+    verify(bookingRepository, never()).findAll();
+    verify(bookingRepository, never()).save(any());
+  }
+
 }
@@ -0,0 +1,160 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.controller.testSecurityHelpers.TestTimeProviderConfig;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Booking;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Hospitality;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Resource;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Tool;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.Utility;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.BookingStatus;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.TimeRange;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.BookingRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.HospitalityRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.TenantRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.ToolRepository;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.UtilityRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Checks that the booking list queries load resource and user in the same
+ * statement, however many resource types and tenants the bookings span.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestTimeProviderConfig.class)
+public class BookingStatementCountTest {
+
+  @Autowired
+  private BookingService bookingService;
+  @Autowired
+  private BookingRepository bookingRepository;
+  @Autowired
+  private ToolRepository toolRepository;
+  @Autowired
+  private UtilityRepository utilityRepository;
+  @Autowired
+  private HospitalityRepository hospitalityRepository;
+  @Autowired
+  private TenantRepository tenantRepository;
+  @Autowired
+  private TimeProvider timeProvider;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  public void setUp() {
+    cleanUp();
+
+    List<Resource> resources = List.of(
+        toolRepository.save(withDetails(new Tool(), ResourceType.TOOL)),
+        utilityRepository.save(withDetails(new Utility(), ResourceType.UTILITY)),
+        hospitalityRepository.save(withDetails(new Hospitality(), ResourceType.HOSPITALITY)));
+    List<Tenant> tenants = List.of(createTenant(1), createTenant(2));
+
+    LocalDate today = timeProvider.getToday();
+    for (Resource resource : resources) {
+      for (Tenant tenant : tenants) {
+        saveBooking(resource, tenant, today, today.plusDays(2), BookingStatus.PENDING);
+        saveBooking(resource, tenant, today.minusDays(3), today.minusDays(1), BookingStatus.LATE);
+        saveBooking(resource, tenant, today.minusDays(2), today, BookingStatus.CONFIRMED);
+      }
+    }
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+  }
+
+  @AfterEach
+  public void cleanUp() {
+    if (statistics != null) {
+      statistics.setStatisticsEnabled(false);
+    }
+    bookingRepository.deleteAll();
+    toolRepository.deleteAll();
+    utilityRepository.deleteAll();
+    hospitalityRepository.deleteAll();
+    tenantRepository.deleteAll();
+  }
+
+  private <T extends Resource> T withDetails(T resource, ResourceType type) {
+    resource.setName("Statement Count " + type);
+    resource.setDescription("Statement count resource");
+    resource.setCapacity(10);
+    resource.setStatus("Available");
+    resource.setType(type);
+    return resource;
+  }
+
+  private Tenant createTenant(int number) {
+    Tenant tenant = new Tenant();
+    tenant.setName("Statement Tenant " + number);
+    tenant.setEmail("statement" + number + "@example.com");
+    tenant.setUsername("statementtenant" + number);
+    tenant.setPassword("password123");
+    tenant.setMobileNumber("23456789");
+    return tenantRepository.save(tenant);
+  }
+
+  private void saveBooking(Resource resource, Tenant tenant, LocalDate startDate, LocalDate endDate,
+      BookingStatus status) {
+    bookingRepository.save(new Booking(resource, tenant, startDate, endDate, TimeRange.EARLY, TimeRange.EARLY,
+        status, null, null));
+  }
+
+  /**
+   * Runs the query, reads the fields the notification mails use, and returns
+   * how many statements that took.
+   */
+  private long statementsFor(Supplier<List<Booking>> query, int expectedBookings) {
+    statistics.clear();
+
+    List<Booking> bookings = query.get();
+    for (Booking booking : bookings) {
+      booking.getUser().getEmail();
+      booking.getResource().getName();
+    }
+
+    assertEquals(expectedBookings, bookings.size());
+    return statistics.getPrepareStatementCount();
+  }
+
+  @Test
+  public void getAllPendingBookings_shouldUseOneStatement() {
+    assertEquals(1, statementsFor(bookingService::getAllPendingBookings, 6));
+  }
+
+  @Test
+  public void getAllLateBookings_shouldUseOneStatement() {
+    assertEquals(1, statementsFor(bookingService::getAllLateBookings, 6));
+  }
+
+  @Test
+  public void getAllUpcomingPickupsForToday_shouldUseOneStatement() {
+    assertEquals(1, statementsFor(() -> bookingService.getAllUpcomingPickupsForToday(TimeRange.EARLY), 6));
+  }
+
+  @Test
+  public void getAllUpcomingDropoffsForToday_shouldUseOneStatement() {
+    assertEquals(1, statementsFor(() -> bookingService.getAllUpcomingDropoffsForToday(TimeRange.EARLY), 6));
+  }
+}
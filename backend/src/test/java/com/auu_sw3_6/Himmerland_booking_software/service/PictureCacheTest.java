@@ -0,0 +1,116 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import com.auu_sw3_6.Himmerland_booking_software.api.model.PictureCacheStats;
+
+public class PictureCacheTest {
+
+  @TempDir
+  Path directory;
+
+  private PictureCache cache;
+
+  @BeforeEach
+  public void setUp() {
+    cache = new PictureCache(250, 100);
+  }
+
+  @Test
+  public void get_shouldReadFromDiskOnceAndThenServeFromMemory() throws IOException {
+    File picture = write("a.png", 100, (byte) 1);
+
+    Resource first = cache.get(picture);
+    Files.delete(picture.toPath());
+    Resource second = cache.get(picture);
+
+    assertArrayEquals(first.getContentAsByteArray(), second.getContentAsByteArray());
+    assertEquals(100, second.contentLength());
+    assertEquals("a.png", second.getFilename());
+
+    PictureCacheStats stats = cache.getStats();
+    assertEquals(1, stats.hits());
+    assertEquals(1, stats.misses());
+    assertEquals(0.5, stats.hitRate());
+    assertEquals(100, stats.residentBytes());
+  }
+
+  @Test
+  public void get_shouldDropTheLeastRecentlyUsedPictureWhenFull() throws IOException {
+    File a = write("a.png", 100, (byte) 1);
+    File b = write("b.png", 100, (byte) 2);
+    File c = write("c.png", 100, (byte) 3);
+
+    cache.get(a);
+    cache.get(b);
+    cache.get(a);
+    cache.get(c);
+
+    PictureCacheStats stats = cache.getStats();
+    assertEquals(1, stats.evictions());
+    assertEquals(2, stats.entries());
+    assertEquals(200, stats.residentBytes());
+
+    // b was used least recently, so it is the one read from disk again
+    cache.get(a);
+    cache.get(b);
+    assertEquals(2, cache.getStats().hits());
+    assertEquals(4, cache.getStats().misses());
+  }
+
+  @Test
+  public void get_shouldStreamPicturesAboveTheEntryLimitFromDisk() throws IOException {
+    File large = write("large.png", 101, (byte) 1);
+
+    Resource resource = cache.get(large);
+
+    assertInstanceOf(FileSystemResource.class, resource);
+    assertEquals(0, cache.getStats().entries());
+    assertEquals(0, cache.getStats().residentBytes());
+  }
+
+  @Test
+  public void evict_shouldFreeTheReplacedPicture() throws IOException {
+    File picture = write("a.png", 100, (byte) 1);
+    cache.get(picture);
+
+    cache.evict("a.png");
+    cache.evict(null);
+
+    assertEquals(0, cache.getStats().entries());
+    assertEquals(0, cache.getStats().residentBytes());
+  }
+
+  @Test
+  public void getInputStream_shouldGiveEveryReaderItsOwnPosition() throws IOException {
+    File picture = write("a.png", 100, (byte) 7);
+    Resource resource = cache.get(picture);
+
+    try (InputStream first = resource.getInputStream(); InputStream second = resource.getInputStream()) {
+      assertEquals(90, first.skip(90));
+      assertEquals(10, first.readAllBytes().length);
+      assertEquals(100, second.readAllBytes().length);
+    }
+  }
+
+  private File write(String name, int size, byte value) throws IOException {
+    byte[] bytes = new byte[size];
+    Arrays.fill(bytes, value);
+    return Files.write(directory.resolve(name), bytes).toFile();
+  }
+}
@@ -1,11 +1,22 @@
 package com.auu_sw3_6.Himmerland_booking_software.service;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.imageio.ImageIO;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -14,18 +25,27 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import static org.mockito.ArgumentMatchers.any;
 
 import org.mockito.Mock;
 
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.auu_sw3_6.Himmerland_booking_software.api.model.StoredPicture;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.StoredPictureRepository;
+
 @ExtendWith(MockitoExtension.class)
 public class PictureServiceTest {
 
@@ -34,9 +54,13 @@ public class PictureServiceTest {
   @Mock
   private MultipartFile profilePictureTest;
 
+  @Mock
+  private StoredPictureRepository storedPictureRepository;
+
   @BeforeEach
   public void setUp() {
-    pictureService = new PictureService();
+    pictureService = new PictureService(new PictureCache(1024 * 1024, 64 * 1024), storedPictureRepository,
+        DataSize.ofKilobytes(512), 60);
   }
 
   @Test
@@ -65,18 +89,18 @@ public class PictureServiceTest {
   }
   
   @Test
-  public void testReadProfilePicture_shouldReturnBytesIfFileExists() throws IOException {
+  public void testReadProfilePicture_shouldReturnResourceIfFileExists() throws IOException {
     // Arrange
     String fileName = "existingPicture.jpg";
     File tempFile = new File(pictureService.getProfilePictureDirectory(), fileName);
     Files.write(tempFile.toPath(), new byte[] { 1, 2, 3, 4 });
 
     // Act
-    Optional<byte[]> pictureBytes = pictureService.readPicture(fileName, true);
+    Optional<Resource> picture = pictureService.readPicture(fileName, true);
 
     // Assert
-    assertTrue(pictureBytes.isPresent());
-    assertEquals(4, pictureBytes.get().length);
+    assertTrue(picture.isPresent());
+    assertEquals(4, picture.get().contentLength());
 
     // Cleanup
     Files.delete(tempFile.toPath());
@@ -88,10 +112,10 @@ public class PictureServiceTest {
     String nonExistentFileName = "nonExistentPicture.jpg";
 
     // Act
-    Optional<byte[]> pictureBytes = pictureService.readPicture(nonExistentFileName, true);
+    Optional<Resource> picture = pictureService.readPicture(nonExistentFileName, true);
 
     // Assert
-    assertFalse(pictureBytes.isPresent());
+    assertFalse(picture.isPresent());
   }
 
   @Test
@@ -101,7 +125,7 @@ public class PictureServiceTest {
     lenient().when(profilePictureTest.isEmpty()).thenReturn(false);
     PictureService spyPictureService = org.mockito.Mockito.spy(pictureService);
     doNothing().when(spyPictureService).validatePicture(profilePictureTest);
-    doThrow(new IOException("Disk error")).when(profilePictureTest).transferTo(any(File.class));
+    when(profilePictureTest.getInputStream()).thenThrow(new IOException("Disk error"));
   
     // Act & Assert
     RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -122,4 +146,207 @@ public class PictureServiceTest {
       assertEquals("Invalid file type. Only PNG and JPG are allowed.", exception.getMessage());
   }
  
+  @Test
+  public void testSavePicture_shouldStoreSmallerVariants() throws Exception {
+    // Arrange
+    byte[] imageBytes = Files.readAllBytes(
+        Paths.get(getClass().getClassLoader().getResource("300x300-test-image.png").toURI()));
+    MockMultipartFile picture = new MockMultipartFile("file", "resource.png", "image/png", imageBytes);
+
+    // Act
+    String savedFileName = pictureService.savePicture(picture, false);
+    Optional<Resource> thumbnail = pictureService.readPicture(savedFileName, false, 90);
+    Optional<Resource> retina = pictureService.readPicture(savedFileName, false, 150);
+    Optional<Resource> full = pictureService.readPicture(savedFileName, false, 600);
+
+    // Assert
+    assertEquals(96, ImageIO.read(thumbnail.get().getInputStream()).getWidth());
+    assertEquals(192, ImageIO.read(retina.get().getInputStream()).getWidth());
+    assertEquals(300, ImageIO.read(full.get().getInputStream()).getWidth());
+    assertEquals(savedFileName, PictureVariants.originalFileName(thumbnail.get().getFilename()));
+    assertEquals(savedFileName, full.get().getFilename());
+    assertArrayEquals(imageBytes, Files.readAllBytes(Paths.get(PictureService.RESOURCE_PICTURE_DIRECTORY, savedFileName)),
+        "The stored picture should keep the bytes its name was hashed from");
+
+    // Cleanup
+    Files.delete(Paths.get(PictureService.RESOURCE_PICTURE_DIRECTORY, savedFileName));
+    for (int width : PictureVariants.WIDTHS) {
+      Files.delete(Paths.get(PictureService.RESOURCE_PICTURE_DIRECTORY, PictureVariants.fileName(savedFileName, width)));
+    }
+  }
+
+  @Test
+  public void testSavePicture_shouldStoreATruncatedPictureWithoutVariants() throws Exception {
+    // Arrange: the header passes validation, but the image data is cut off
+    byte[] imageBytes = Files.readAllBytes(
+        Paths.get(getClass().getClassLoader().getResource("300x300-test-image.png").toURI()));
+    byte[] truncated = Arrays.copyOf(imageBytes, imageBytes.length / 2);
+    MockMultipartFile picture = new MockMultipartFile("file", "truncated.png", "image/png", truncated);
+
+    // Act
+    String savedFileName = pictureService.savePicture(picture, false);
+
+    // Assert
+    Path saved = Paths.get(PictureService.RESOURCE_PICTURE_DIRECTORY, savedFileName);
+    assertTrue(Files.exists(saved));
+    for (int width : PictureVariants.WIDTHS) {
+      assertFalse(Files.exists(saved.resolveSibling(PictureVariants.fileName(savedFileName, width))));
+    }
+    assertEquals(savedFileName, pictureService.readPicture(savedFileName, false, 90).get().getFilename());
+
+    // Cleanup
+    Files.delete(saved);
+  }
+
+  @Test
+  public void testOriginalFileName_shouldOnlyStripAWidthSuffix() {
+    assertEquals("8a1c-42.png", PictureVariants.originalFileName("8a1c-42_96.png"));
+    assertEquals("8a1c-42.png", PictureVariants.originalFileName("8a1c-42.png"));
+    assertEquals("name_x.png", PictureVariants.originalFileName("name_x.png"));
+  }
+
+  @Test
+  public void testValidatePicture_shouldRejectFilesOverTheSizeLimit() {
+    // Arrange
+    MockMultipartFile largeFile = new MockMultipartFile("file", "large.png", "image/png", new byte[512 * 1024 + 1]);
+
+    // Act & Assert
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> pictureService.validatePicture(largeFile));
+    assertEquals("Image file is too large. The limit is 512 KB.", exception.getMessage());
+  }
+
+  @Test
+  public void testValidatePicture_shouldUseTheFileContentRatherThanTheDeclaredType() throws Exception {
+    // Arrange
+    byte[] pngBytes = Files.readAllBytes(
+        Paths.get(getClass().getClassLoader().getResource("300x300-test-image.png").toURI()));
+    MockMultipartFile mislabelledPng = new MockMultipartFile("file", "picture", "application/octet-stream", pngBytes);
+    MockMultipartFile fakePng = new MockMultipartFile("file", "fake.png", "image/png", "not an image".getBytes());
+
+    // Act & Assert
+    pictureService.validatePicture(mislabelledPng);
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> pictureService.validatePicture(fakePng));
+    assertEquals("Invalid file type. Only PNG and JPG are allowed.", exception.getMessage());
+  }
+
+  @Test
+  public void testValidatePicture_shouldRejectHugeDimensionsWithoutDecoding() throws Exception {
+    // Arrange: a few KB on disk, but 36 million pixels to decode
+    MockMultipartFile bomb = new MockMultipartFile("file", "bomb.png", "image/png", solidPng(6000, 6000));
+
+    // Act & Assert
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> pictureService.validatePicture(bomb));
+    assertEquals("Image dimensions must be 300x300.", exception.getMessage());
+  }
+
+  @Test
+  public void testValidatePicture_shouldRejectATruncatedHeader() {
+    // Arrange
+    byte[] truncated = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0 };
+    MockMultipartFile picture = new MockMultipartFile("file", "broken.png", "image/png", truncated);
+
+    // Act & Assert
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> pictureService.validatePicture(picture));
+    assertEquals("Invalid image file.", exception.getMessage());
+  }
+
+  @Test
+  public void testSavePicture_shouldStoreIdenticalUploadsOnce() throws Exception {
+    // Arrange
+    byte[] imageBytes = Files.readAllBytes(
+        Paths.get(getClass().getClassLoader().getResource("300x300-test-image.png").toURI()));
+
+    // Act
+    String first = pictureService.savePicture(new MockMultipartFile("file", "logo.PNG", "image/png", imageBytes), false);
+    String second = pictureService.savePicture(new MockMultipartFile("file", "copy.png", "image/png", imageBytes), false);
+
+    // Assert
+    assertEquals(first, second);
+    assertTrue(first.matches("[0-9a-f]{64}\\.png"), "File name should be the SHA-256 of the content");
+    verify(storedPictureRepository, times(2)).acquire(first, false);
+    try (Stream<Path> files = Files.list(Paths.get(PictureService.RESOURCE_PICTURE_DIRECTORY))) {
+      assertEquals(1, files.filter(file -> file.getFileName().toString().equals(first)).count());
+    }
+
+    // Cleanup
+    Files.delete(Paths.get(PictureService.RESOURCE_PICTURE_DIRECTORY, first));
+    for (int width : PictureVariants.WIDTHS) {
+      Files.delete(Paths.get(PictureService.RESOURCE_PICTURE_DIRECTORY, PictureVariants.fileName(first, width)));
+    }
+  }
+
+  @Test
+  public void testSavePicture_shouldReleaseTheReferenceWhenWritingVariantsFails() throws Exception {
+    // Arrange: a directory where a variant should go makes writing it fail
+    byte[] imageBytes = Files.readAllBytes(
+        Paths.get(getClass().getClassLoader().getResource("300x300-test-image.png").toURI()));
+    String fileName = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(imageBytes)) + ".png";
+    Path saved = Paths.get(PictureService.RESOURCE_PICTURE_DIRECTORY, fileName);
+    // Other tests may have stored the same picture already
+    Files.deleteIfExists(saved);
+    for (int width : PictureVariants.WIDTHS) {
+      Files.deleteIfExists(saved.resolveSibling(PictureVariants.fileName(fileName, width)));
+    }
+    Path blockedVariant = Files.createDirectories(
+        saved.resolveSibling(PictureVariants.fileName(fileName, PictureVariants.WIDTHS[0])));
+    MockMultipartFile picture = new MockMultipartFile("file", "resource.png", "image/png", imageBytes);
+
+    try {
+      // Act & Assert
+      assertThrows(RuntimeException.class, () -> pictureService.savePicture(picture, false));
+      verify(storedPictureRepository).acquire(fileName, false);
+      verify(storedPictureRepository).release(eq(fileName), eq(false), anyLong());
+    } finally {
+      // Cleanup
+      Files.deleteIfExists(blockedVariant);
+      Files.deleteIfExists(saved);
+      for (int width : PictureVariants.WIDTHS) {
+        Files.deleteIfExists(saved.resolveSibling(PictureVariants.fileName(fileName, width)));
+      }
+    }
+  }
+
+  @Test
+  public void testSweepOrphans_shouldOnlyDeletePicturesThatAreStillUnreferenced() throws Exception {
+    // Arrange
+    Path orphan = Files.write(Paths.get(PictureService.RESOURCE_PICTURE_DIRECTORY, "orphan.png"), new byte[] { 1 });
+    Path orphanVariant = Files.write(Paths.get(PictureService.RESOURCE_PICTURE_DIRECTORY, "orphan_96.png"),
+        new byte[] { 1 });
+    Path reused = Files.write(Paths.get(PictureService.RESOURCE_PICTURE_DIRECTORY, "reused.png"), new byte[] { 1 });
+    List<StoredPicture> orphans = List.of(storedPicture("orphan.png"), storedPicture("reused.png"));
+    when(storedPictureRepository.findOrphans(1_000_000L - 60 * 60_000)).thenReturn(orphans);
+    when(storedPictureRepository.deleteIfUnreferenced("orphan.png", false)).thenReturn(1);
+    when(storedPictureRepository.deleteIfUnreferenced("reused.png", false)).thenReturn(0);
+
+    // Act
+    int deleted = pictureService.sweepOrphans(1_000_000L);
+
+    // Assert
+    assertEquals(1, deleted);
+    assertFalse(Files.exists(orphan));
+    assertFalse(Files.exists(orphanVariant));
+    assertTrue(Files.exists(reused), "A picture referenced again before the sweep should be kept");
+
+    // Cleanup
+    Files.delete(reused);
+  }
+
+  private static StoredPicture storedPicture(String fileName) {
+    StoredPicture picture = mock(StoredPicture.class);
+    when(picture.getFileName()).thenReturn(fileName);
+    when(picture.isProfilePicture()).thenReturn(false);
+    return picture;
+  }
+
+  static byte[] solidPng(int width, int height) throws IOException {
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", bytes);
+    return bytes.toByteArray();
+  }
+
 }
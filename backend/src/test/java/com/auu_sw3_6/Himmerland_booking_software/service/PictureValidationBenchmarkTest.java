@@ -0,0 +1,101 @@
+package com.auu_sw3_6.Himmerland_booking_software.service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Compares header-only picture validation with the old approach of decoding
+ * the whole upload with ImageIO.read just to check its dimensions, by
+ * latency and by heap allocated per validation.
+ *
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+public class PictureValidationBenchmarkTest {
+
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int MEASURED_ROUNDS = 20;
+
+  private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private PictureService pictureService;
+
+  @BeforeEach
+  public void setUp() {
+    // No size limit, so the large pictures reach the decoding step on both paths
+    pictureService = new PictureService(new PictureCache(0, 0), null, DataSize.ofGigabytes(1), 60);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { "300x300-test-image.png", "large-test-image.jpg", "6000x6000 generated png" })
+  public void compareHeaderValidationWithFullDecode(String picture) throws Exception {
+    MockMultipartFile upload = upload(picture);
+
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      headerOnly(upload);
+      fullDecode(upload);
+    }
+
+    long headerNanos = 0;
+    long headerBytes = 0;
+    long decodeNanos = 0;
+    long decodeBytes = 0;
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      long allocated = allocatedBytes();
+      long start = System.nanoTime();
+      headerOnly(upload);
+      headerNanos += System.nanoTime() - start;
+      headerBytes += allocatedBytes() - allocated;
+
+      allocated = allocatedBytes();
+      start = System.nanoTime();
+      fullDecode(upload);
+      decodeNanos += System.nanoTime() - start;
+      decodeBytes += allocatedBytes() - allocated;
+    }
+
+    System.out.printf("Validating %s (%,d bytes): header only %.2f ms / %,d KB allocated, "
+        + "full decode %.2f ms / %,d KB allocated%n", picture, upload.getSize(),
+        headerNanos / 1e6 / MEASURED_ROUNDS, headerBytes / 1024 / MEASURED_ROUNDS,
+        decodeNanos / 1e6 / MEASURED_ROUNDS, decodeBytes / 1024 / MEASURED_ROUNDS);
+  }
+
+  private void headerOnly(MockMultipartFile upload) {
+    try {
+      pictureService.validatePicture(upload);
+    } catch (IllegalArgumentException e) {
+      // Only the large pictures end up here, which is expected
+    }
+  }
+
+  // What validatePicture used to do before it read only the header
+  private static boolean fullDecode(MockMultipartFile upload) throws IOException {
+    BufferedImage image = ImageIO.read(upload.getInputStream());
+    return image != null && image.getWidth() == 300 && image.getHeight() == 300;
+  }
+
+  private long allocatedBytes() {
+    return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private MockMultipartFile upload(String picture) throws Exception {
+    if (picture.startsWith("6000x6000")) {
+      return new MockMultipartFile("file", "bomb.png", "image/png", PictureServiceTest.solidPng(6000, 6000));
+    }
+    byte[] bytes = Files.readAllBytes(Paths.get(getClass().getClassLoader().getResource(picture).toURI()));
+    return new MockMultipartFile("file", picture, "image/png", bytes);
+  }
+}
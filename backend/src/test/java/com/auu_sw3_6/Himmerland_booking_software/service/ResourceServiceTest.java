@@ -10,21 +10,25 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Resource;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.ResourceSummary;
+import com.auu_sw3_6.Himmerland_booking_software.api.model.modelEnum.ResourceType;
+import com.auu_sw3_6.Himmerland_booking_software.api.repository.ResourceRepository;
 import com.auu_sw3_6.Himmerland_booking_software.exception.ResourceNotFoundException;
 
 @ExtendWith(MockitoExtension.class)
 public class ResourceServiceTest {
 
     @Mock
-    private JpaRepository<Resource, Long> repository;
+    private ResourceRepository<Resource> repository;
 
     @Mock
     private PictureService pictureService;
@@ -42,7 +46,7 @@ public class ResourceServiceTest {
     }
 
     private static class TestResourceService extends ResourceService<Resource> {
-        public TestResourceService(JpaRepository<Resource, Long> repository, PictureService pictureService) {
+        public TestResourceService(ResourceRepository<Resource> repository, PictureService pictureService) {
             super(repository, pictureService);
         }
     }
@@ -105,6 +109,21 @@ public class ResourceServiceTest {
         assertEquals(2, result.size(), "Should return all resources from the database.");
     }
 
+    @Test
+    public void testGetResourceSummaries_ShouldReturnProjectedResources() {
+        // Arrange
+        List<ResourceSummary> summaries = List.of(
+                new ResourceSummary(1L, "TestResource", "Description", null, ResourceType.TOOL, 1, "Available"));
+        when(repository.findAllProjectedByOrderById()).thenReturn(summaries);
+
+        // Act
+        List<ResourceSummary> result = resourceService.getResourceSummaries();
+
+        // Assert
+        assertEquals(summaries, result, "Should return the projected resources from the repository.");
+        verify(repository, never()).findAll();
+    }
+
     @Test
     public void testGetResourceById_ShouldReturnResourceIfFound() {
         // Arrange
@@ -122,10 +141,10 @@ public class ResourceServiceTest {
     public void testGetResourcePictureByResourceId_ShouldReturnEmptyIfPictureNotFound() {
         // Arrange
         when(repository.findById(1L)).thenReturn(Optional.of(resource));
-        when(pictureService.readPicture(eq("nonexistent.jpg"), eq(false))).thenReturn(Optional.empty());
+        when(pictureService.readPicture(eq("nonexistent.jpg"), eq(false), isNull())).thenReturn(Optional.empty());
 
         // Act
-        Optional<byte[]> result = resourceService.getresourcePicturesByResourceId(1L);
+        Optional<org.springframework.core.io.Resource> result = resourceService.getresourcePicturesByResourceId(1L);
 
         // Assert
         assertFalse(result.isPresent(), "Should return an empty Optional if the picture is not found.");
@@ -152,6 +171,22 @@ public class ResourceServiceTest {
         assertEquals("UpdatedName", updatedResource.getName(), "Resource name should be updated.");
         assertEquals(uniqueFileName, updatedResource.getResourcePictureFileName(),
                 "Resource picture filename should be updated.");
+        verify(pictureService).releasePicture("nonexistent.jpg", false);
+    }
+
+    @Test
+    public void testUpdateResource_ShouldHandBackNewPictureWhenSaveFails() {
+        // Arrange
+        when(repository.findById(1L)).thenReturn(Optional.of(resource));
+        when(resourcePicture.isEmpty()).thenReturn(false);
+        when(pictureService.savePicture(resourcePicture, false)).thenReturn("new.jpg");
+        when(repository.save(any(Resource.class))).thenThrow(new DataIntegrityViolationException("constraint"));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class,
+                () -> resourceService.updateResource(resource, resourcePicture));
+        verify(pictureService).releasePicture("new.jpg", false);
+        verify(pictureService, never()).releasePicture("nonexistent.jpg", false);
     }
 
     @Test
@@ -11,18 +11,25 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.auu_sw3_6.Himmerland_booking_software.api.model.Tenant;
 import com.auu_sw3_6.Himmerland_booking_software.api.repository.TenantRepository;
+import com.auu_sw3_6.Himmerland_booking_software.config.security.TokenVersionRegistry;
+import com.auu_sw3_6.Himmerland_booking_software.exception.RestrictedUsernameException;
+import com.auu_sw3_6.Himmerland_booking_software.exception.UserAlreadyExistsException;
 
 @ExtendWith(MockitoExtension.class)
 public class TenantServiceTest {
@@ -40,7 +47,10 @@ public class TenantServiceTest {
     private MultipartFile profilePicture;
 
     @Mock
-    private AdminService adminService;
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private TokenVersionRegistry tokenVersions;
 
     @InjectMocks
     private TenantService tenantService;
@@ -68,7 +78,7 @@ public class TenantServiceTest {
     public void testCreateTenant_CallsSaveMethodOnRepository() {
         // Arrange
         when(tenantRepository.save(any(Tenant.class))).thenReturn(tenant);
-        when(adminService.getUserByUsername(tenant.getUsername())).thenReturn(Optional.empty());
+        when(userDetailsService.isUsernameTaken(tenant.getUsername())).thenReturn(false);
 
         // Act
         tenantService.createTenant(tenant, profilePicture);
@@ -81,7 +91,7 @@ public class TenantServiceTest {
     public void testCreateTenant_ReturnsNonNullTenant() {
         // Arrange
         when(tenantRepository.save(any(Tenant.class))).thenReturn(tenant);
-        when(adminService.getUserByUsername(tenant.getUsername())).thenReturn(Optional.empty());
+        when(userDetailsService.isUsernameTaken(tenant.getUsername())).thenReturn(false);
 
         // Act
         Tenant createdTenant = tenantService.createTenant(tenant, profilePicture);
@@ -95,7 +105,7 @@ public class TenantServiceTest {
         // Arrange
         when(profilePictureService.savePicture(profilePicture, true)).thenReturn("profilePicture.jpg");
         when(tenantRepository.save(any(Tenant.class))).thenReturn(tenant);
-        when(adminService.getUserByUsername(tenant.getUsername())).thenReturn(Optional.empty());
+        when(userDetailsService.isUsernameTaken(tenant.getUsername())).thenReturn(false);
 
         // Act
         Tenant createdTenant = tenantService.createTenant(tenant, profilePicture);
@@ -110,8 +120,7 @@ public class TenantServiceTest {
         // Arrange
         when(passwordEncoder.encode("Password123")).thenReturn("encodedPassword123");
         when(tenantRepository.save(any(Tenant.class))).thenReturn(tenant);
-        when(adminService.getUserByUsername(tenant.getUsername())).thenReturn(
-                Optional.empty());
+        when(userDetailsService.isUsernameTaken(tenant.getUsername())).thenReturn(false);
 
         // Act
         Tenant createdTenant = tenantService.createTenant(tenant, profilePicture);
@@ -126,7 +135,7 @@ public class TenantServiceTest {
         // Arrange:
         doThrow(new IllegalArgumentException("Unsupported file type")).when(profilePictureService)
                 .savePicture(profilePicture, true);
-        when(adminService.getUserByUsername(tenant.getUsername())).thenReturn(Optional.empty());
+        when(userDetailsService.isUsernameTaken(tenant.getUsername())).thenReturn(false);
 
         // Act & Assert:
         assertThrows(IllegalArgumentException.class, () -> {
@@ -139,7 +148,7 @@ public class TenantServiceTest {
         // Arrange:
         doThrow(new IllegalArgumentException("Unsupported file type")).when(profilePictureService)
                 .savePicture(profilePicture, true);
-        when(adminService.getUserByUsername(tenant.getUsername())).thenReturn(Optional.empty());
+        when(userDetailsService.isUsernameTaken(tenant.getUsername())).thenReturn(false);
 
         // Act:
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -151,10 +160,32 @@ public class TenantServiceTest {
                 "Should throw an exception with the correct message for unsupported file type");
     }
 
+    @Test
+    public void testCreateTenant_RestrictedOrDeletedUsernameIgnoringCase_Throws() {
+        tenant.setUsername(" Root ");
+        assertThrows(RestrictedUsernameException.class, () -> tenantService.createTenant(tenant, profilePicture));
+
+        tenant.setUsername("Deleted");
+        assertThrows(RestrictedUsernameException.class, () -> tenantService.createTenant(tenant, profilePicture));
+
+        verify(tenantRepository, never()).save(any(Tenant.class));
+    }
+
+    @Test
+    public void testCreateTenant_UsernameTaken_Throws() {
+        when(userDetailsService.isUsernameTaken(tenant.getUsername())).thenReturn(true);
+
+        assertThrows(UserAlreadyExistsException.class, () -> tenantService.createTenant(tenant, profilePicture));
+        verify(tenantRepository, never()).save(any(Tenant.class));
+    }
+
     @Test
     public void testUpdateTenant_InteractsWithDependencies() {
         // Arrange
-        when(tenantRepository.findById(1L)).thenReturn(Optional.of(tenant));
+        Tenant existingTenant = new Tenant();
+        existingTenant.setId(1L);
+        existingTenant.setPassword("storedHash");
+        when(tenantRepository.findById(1L)).thenReturn(Optional.of(existingTenant));
         when(profilePictureService.savePicture(profilePicture, true)).thenReturn("profilePicture.jpg");
         when(passwordEncoder.encode("Password123")).thenReturn("encodedPassword123");
         when(tenantRepository.save(any(Tenant.class))).thenReturn(tenant);
@@ -169,6 +200,98 @@ public class TenantServiceTest {
         verify(passwordEncoder).encode("Password123");
     }
 
+    @Test
+    public void testUpdateTenant_RenamedToTakenUsername_Throws() {
+        // Arrange
+        Tenant existingTenant = new Tenant();
+        existingTenant.setId(1L);
+        existingTenant.setUsername("janedoe");
+        existingTenant.updateNormalizedUsername();
+        when(tenantRepository.findById(1L)).thenReturn(Optional.of(existingTenant));
+        when(userDetailsService.isUsernameTaken("johndoe")).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(UserAlreadyExistsException.class, () -> tenantService.updateUser(tenant, profilePicture));
+        verify(tenantRepository, never()).save(any(Tenant.class));
+        verify(profilePictureService, never()).savePicture(profilePicture, true);
+    }
+
+    @Test
+    public void testUpdateTenant_ChangingCaseOfOwnUsername_DoesNotCheckAvailability() {
+        // Arrange
+        tenant.setUsername("JohnDoe");
+        tenant.setPassword(null);
+        Tenant existingTenant = new Tenant();
+        existingTenant.setId(1L);
+        existingTenant.setUsername("johndoe");
+        existingTenant.updateNormalizedUsername();
+        existingTenant.setPassword("storedHash");
+        when(tenantRepository.findById(1L)).thenReturn(Optional.of(existingTenant));
+        when(tenantRepository.save(any(Tenant.class))).thenReturn(tenant);
+
+        // Act
+        tenantService.updateUser(tenant, null);
+
+        // Assert
+        verify(userDetailsService, never()).isUsernameTaken(any());
+        verify(tenantRepository).save(tenant);
+    }
+
+    private Tenant storedTenantWithPicture(String pictureFileName) {
+        Tenant existingTenant = new Tenant();
+        existingTenant.setId(1L);
+        existingTenant.setUsername("johndoe");
+        existingTenant.updateNormalizedUsername();
+        existingTenant.setPassword("storedHash");
+        existingTenant.setProfilePictureFileName(pictureFileName);
+        return existingTenant;
+    }
+
+    @Test
+    public void testUpdateTenant_InvalidPassword_LeavesPictureReferencesUnchanged() {
+        // Arrange
+        tenant.setPassword("weak");
+        when(tenantRepository.findById(1L)).thenReturn(Optional.of(storedTenantWithPicture("old.png")));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> tenantService.updateUser(tenant, profilePicture));
+        verify(profilePictureService, never()).savePicture(any(), anyBoolean());
+        verify(profilePictureService, never()).releasePicture(any(), anyBoolean());
+        verify(tenantRepository, never()).save(any(Tenant.class));
+    }
+
+    @Test
+    public void testUpdateTenant_ReleasesOldPictureOnlyAfterSaving() {
+        // Arrange
+        when(tenantRepository.findById(1L)).thenReturn(Optional.of(storedTenantWithPicture("old.png")));
+        when(passwordEncoder.encode("Password123")).thenReturn("encodedPassword123");
+        when(profilePictureService.savePicture(profilePicture, true)).thenReturn("new.png");
+        when(tenantRepository.save(any(Tenant.class))).thenReturn(tenant);
+
+        // Act
+        tenantService.updateUser(tenant, profilePicture);
+
+        // Assert
+        InOrder inOrder = inOrder(tenantRepository, profilePictureService);
+        inOrder.verify(tenantRepository).save(tenant);
+        inOrder.verify(profilePictureService).releasePicture("old.png", true);
+        verify(profilePictureService, never()).releasePicture("new.png", true);
+    }
+
+    @Test
+    public void testUpdateTenant_SaveFails_HandsBackNewPictureAndKeepsOldOne() {
+        // Arrange
+        when(tenantRepository.findById(1L)).thenReturn(Optional.of(storedTenantWithPicture("old.png")));
+        when(passwordEncoder.encode("Password123")).thenReturn("encodedPassword123");
+        when(profilePictureService.savePicture(profilePicture, true)).thenReturn("new.png");
+        when(tenantRepository.save(any(Tenant.class))).thenThrow(new DataIntegrityViolationException("constraint"));
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> tenantService.updateUser(tenant, profilePicture));
+        verify(profilePictureService).releasePicture("new.png", true);
+        verify(profilePictureService, never()).releasePicture("old.png", true);
+    }
+
     @Test
     public void testUpdateTenant_ThrowsExceptionWhenTenantNotFound() {
         // Arrange:
@@ -204,6 +327,24 @@ public class TenantServiceTest {
         verify(tenantRepository).save(tenant);
     }
 
+    @Test
+    public void testUpdateTenant_DoesNotRehashUnchangedStoredPassword() {
+        // Arrange:
+        tenant.setPassword("storedHash");
+        Tenant existingTenant = new Tenant();
+        existingTenant.setId(1L);
+        existingTenant.setPassword("storedHash");
+        when(tenantRepository.findById(1L)).thenReturn(Optional.of(existingTenant));
+        when(tenantRepository.save(any(Tenant.class))).thenReturn(tenant);
+
+        // Act:
+        Tenant updatedTenant = tenantService.updateUser(tenant, null);
+
+        // Assert:
+        assertEquals("storedHash", updatedTenant.getPassword(), "Should keep the stored hash as it is");
+        verify(passwordEncoder, never()).encode(any());
+    }
+
     @Test
     public void testUpdateTenant_UpdatesProfilePictureWhenNewProfilePictureIsNotNull() {
         // Arrange:
@@ -275,6 +416,7 @@ public class TenantServiceTest {
         // Assert
         verify(bookingService).cancelAllNonCompletedBookingsForUser(userId);
         verify(tenantRepository).save(tenant);
+        verify(tokenVersions).invalidate(userId);
 
         assertEquals("deleted", tenant.getName());
         assertEquals("deleted@gmail.com", tenant.getEmail());
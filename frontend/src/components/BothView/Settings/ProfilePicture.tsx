@@ -7,10 +7,14 @@ interface ProfilePictureProps {
   imageSource: string;
 }
 
+const PICTURE_SIZE = 150;
+
 const ProfilePicture: React.FC<ProfilePictureProps> = ({ imageSource }) => {
   const fetchImage = async () => {
     try {
-      const response = await ApiService.fetchImage(imageSource);
+      // Ask for a variant that is just big enough for the screen instead of the full picture
+      const size = Math.ceil(PICTURE_SIZE * (window.devicePixelRatio || 1));
+      const response = await ApiService.fetchImage(`${imageSource}?size=${size}`);
       return response.data;
     } catch {
       return null;
@@ -22,7 +26,7 @@ const ProfilePicture: React.FC<ProfilePictureProps> = ({ imageSource }) => {
       fetchImage={fetchImage}
       defaultImage={defaultImage}
       altText="Profile picture"
-      imageStyle={{ borderRadius: "50%", width: "150px", height: "150px" }}
+      imageStyle={{ borderRadius: "50%", width: `${PICTURE_SIZE}px`, height: `${PICTURE_SIZE}px` }}
     />
   );
 };
@@ -2,7 +2,9 @@ import React, { useState, useEffect } from 'react';
 import CaretakerBookingCard from './CaretakerBookingCard';
 import { Collapse, Button } from 'react-bootstrap';
 import Booking from '../../modelInterfaces/Booking';
+import axios from 'axios';
 import ApiService from '../../../utils/ApiService';
+import { Page, usePagedList } from '../../../utils/pagingSupport';
 import CaretakerOptions from './CaretakerOptions';
 
 interface CaretakerBooking {
@@ -23,128 +25,142 @@ interface CaretakerBooking {
   isPastBooking: boolean;
 }
 
+const toCaretakerBooking = (booking: any): CaretakerBooking => {
+  const currentDate = new Date();
+  const startDate = new Date(booking.startDate[0], booking.startDate[1] - 1, booking.startDate[2]);
+  const endDate = new Date(booking.endDate[0], booking.endDate[1] - 1, booking.endDate[2]);
+  return {
+    id: booking.id.toString(),
+    name: booking.user.name,
+    resourceName: booking.resource.name,
+    startDate,
+    endDate,
+    status: booking.status,
+    pickupTime: booking.pickupTime,
+    dropoffTime: booking.dropoffTime,
+    mobileNumber: booking.user.mobileNumber,
+    houseAddress: booking.user.houseAddress,
+    email: booking.user.email,
+    receiverName: booking.receiverName,
+    handoverName: booking.handoverName,
+    isFutureBooking: startDate > currentDate && booking.status === "PENDING",
+    isPastBooking: endDate < currentDate || booking.status === "COMPLETED",
+  };
+};
+
+// Each section asks the server for its own statuses, one page at a time
+const fetchBookingPage = async (status: string[], cursor?: string): Promise<Page<CaretakerBooking>> => {
+  try {
+    const page = await ApiService.fetchPage<any>(
+      "booking/get-all",
+      { status, includeDeletedResources: false },
+      cursor
+    );
+    return { items: page.items.map(toCaretakerBooking), nextCursor: page.nextCursor };
+  } catch (error) {
+    // The listing answers 404 when no booking matches
+    if (axios.isAxiosError(error) && error.response?.status === 404) {
+      return { items: [] };
+    }
+    throw error;
+  }
+};
+
+const ACTIVE_STATUSES = ["CONFIRMED", "LATE"];
+const FUTURE_STATUSES = ["PENDING"];
+const PAST_STATUSES = ["COMPLETED"];
+
 const CaretakerBookingOverview: React.FC = () => {
-  const [bookings, setBookings] = useState<CaretakerBooking[]>([]);
+  const activeBookings = usePagedList((cursor) => fetchBookingPage(ACTIVE_STATUSES, cursor));
+  const futureBookings = usePagedList((cursor) => fetchBookingPage(FUTURE_STATUSES, cursor));
+  const pastBookings = usePagedList((cursor) => fetchBookingPage(PAST_STATUSES, cursor));
   const [showActive, setShowActive] = useState(true);
   const [showFuture, setShowFuture] = useState(true);
-  const [showPast, setShowPast] = useState(true);
+  const [showPast, setShowPast] = useState(false);
   const [trigger, setTrigger] = useState(false);
 
   useEffect(() => {
-    const fetchBookings = async () => {
-      try {
-        const bookingsResponse = await ApiService.fetchData<any>("booking/get-all");
-        console.log("booking response:", bookingsResponse);
-
-        const transformedBookings: CaretakerBooking[] = bookingsResponse.data
-        .filter((booking: any) => booking.resource.status !== "deleted")
-        .map((booking: any) => {
-          const startDate = new Date(booking.startDate[0], booking.startDate[1] - 1, booking.startDate[2]);
-          const endDate = new Date(booking.endDate[0], booking.endDate[1] - 1, booking.endDate[2]);
-          return {
-            id: booking.id.toString(),
-            name: booking.user.name,
-            resourceName: booking.resource.name,
-            startDate,
-            endDate,
-            status: booking.status,
-            pickupTime: booking.pickupTime,
-            dropoffTime: booking.dropoffTime,
-            mobileNumber: booking.user.mobileNumber,
-            houseAddress: booking.user.houseAddress,
-            email: booking.user.email,
-            receiverName: booking.receiverName,
-            handoverName: booking.handoverName,
-            isFutureBooking: startDate > currentDate || booking.status === "PENDING",
-            isPastBooking: endDate < currentDate || booking.status === "COMPLETED",
-          };
-
-        });
-
-        setBookings(transformedBookings);
-        updateFutureBookings(transformedBookings);
-      } catch (error) {
-        console.error("Error fetching bookings:", error);
-      }
-    };
-
-    fetchBookings();
+    activeBookings.reload();
+    futureBookings.reload();
+    if (pastBookings.loaded) {
+      pastBookings.reload();
+    }
   }, [trigger]);
 
+  // Completed bookings are only fetched once the section is opened
+  const togglePast = () => {
+    if (!showPast && !pastBookings.loaded) {
+      pastBookings.reload();
+    }
+    setShowPast(!showPast);
+  };
+
+  const sections = [
+    { statuses: ACTIVE_STATUSES, bookings: activeBookings },
+    { statuses: FUTURE_STATUSES, bookings: futureBookings },
+    { statuses: PAST_STATUSES, bookings: pastBookings },
+  ];
 
   const handleCancel = async (id: number) => {
     try {
       await ApiService.updateData(`booking/${id}/cancel`);
-      setBookings((prevBookings) => prevBookings.filter((booking) => booking.id !== id));
+      sections.forEach(({ bookings }) =>
+        bookings.setItems((prevBookings) => prevBookings.filter((booking) => booking.id !== id))
+      );
       window.dispatchEvent(new Event("bookingCanceled"));
     } catch (error) {
       console.error('Error canceling resource:', error);
     }
   };
 
+  // Moves a booking to the section of its new status. A section that has not
+  // been loaded yet will get it from the server when it is opened
   const onBookingComplete = (id: number) => {
-    const updatedBookings = bookings.map((booking) => {
-      if (booking.id === id) {
-        const isCurrentlyConfirmed = booking.status === "CONFIRMED";
-        const isLateBooking = booking.status === "LATE";
-        return {
-          ...booking,
-          status: isCurrentlyConfirmed || isLateBooking ? "COMPLETED" : "CONFIRMED",
-          isFutureBooking: false,
-          isPastBooking: isCurrentlyConfirmed || isLateBooking,
-        };
-      }
-      return booking;
-    });
-
-    setBookings(updatedBookings);
-  };
-
-
-
-
-
-  const updateFutureBookings = (bookings: CaretakerBooking[]) => {
-    const updatedBookings = bookings.map((booking) => ({
+    const booking = sections.flatMap(({ bookings }) => bookings.items).find((booking) => booking.id === id);
+    if (!booking) {
+      return;
+    }
+    const isCurrentlyConfirmed = booking.status === "CONFIRMED";
+    const isLateBooking = booking.status === "LATE";
+    const updatedBooking = {
       ...booking,
-      isFutureBooking: booking.startDate > currentDate && booking.status === "PENDING",
-      isPastBooking: booking.endDate < currentDate || booking.status === "COMPLETED",
-    }));
+      status: isCurrentlyConfirmed || isLateBooking ? "COMPLETED" : "CONFIRMED",
+      isFutureBooking: false,
+      isPastBooking: isCurrentlyConfirmed || isLateBooking,
+    };
 
-    setBookings(updatedBookings);
+    sections.forEach(({ statuses, bookings }) => {
+      const others = (prevBookings: CaretakerBooking[]) => prevBookings.filter((b) => b.id !== id);
+      if (statuses.includes(updatedBooking.status) && bookings.loaded) {
+        bookings.setItems((prevBookings) => [updatedBooking, ...others(prevBookings)]);
+      } else {
+        bookings.setItems(others);
+      }
+    });
   };
 
-
-  const currentDate = new Date();
-
   useEffect(() => {
     const markLateBookings = async () => {
-      const lateBookings = bookings.filter(
+      const currentDate = new Date();
+      const lateBookings = activeBookings.items.filter(
         (booking) =>
           booking.endDate < currentDate && booking.status === "CONFIRMED"
       );
 
       if (lateBookings.length > 0) {
         try {
-          const updatedBookings = bookings.map((booking) => {
-            if (
-              lateBookings.some((lateBooking) => lateBooking.id === booking.id)
-            ) {
-              return { ...booking, status: "LATE" };
-            }
-            return booking;
-          });
-
           await Promise.all(
             lateBookings.map((lateBooking) =>
               ApiService.markBookingAsLate(lateBooking.id)
             )
           );
 
-          setBookings((prevBookings) =>
-            JSON.stringify(prevBookings) !== JSON.stringify(updatedBookings)
-              ? updatedBookings
-              : prevBookings
+          activeBookings.setItems((prevBookings) =>
+            prevBookings.map((booking) =>
+              lateBookings.some((lateBooking) => lateBooking.id === booking.id)
+                ? { ...booking, status: "LATE" }
+                : booking
+            )
           );
         } catch (error) {
           console.error("Error marking booking as late:", error);
@@ -153,27 +169,16 @@ const CaretakerBookingOverview: React.FC = () => {
     };
 
     markLateBookings();
-  }, [bookings, currentDate]);
-
-
-
-  const activeBookings = bookings.filter(
-    (booking) =>
-      (booking.status === "CONFIRMED" || booking.status === "LATE")
-  );
-
-
-  const futureBookings = bookings.filter(
-    (booking) =>
-      booking.status === "PENDING"
-  );
-
-  const pastBookings = bookings.filter(
-    (booking) =>
-      booking.status === "COMPLETED"
-  );
-
-
+  }, [activeBookings.items]);
+
+  const loadMoreButton = (bookings: { hasMore: boolean; loading: boolean; loadMore: () => void }) =>
+    bookings.hasMore && (
+      <div className="text-center mb-3">
+        <Button variant="outline-secondary" onClick={bookings.loadMore} disabled={bookings.loading}>
+          Vis flere
+        </Button>
+      </div>
+    );
 
   return (
     <>
@@ -196,11 +201,12 @@ const CaretakerBookingOverview: React.FC = () => {
         </h3> <hr />
         <Collapse in={showActive}>
           <div id="active-bookings-collapse">
-            {activeBookings.length === 0 ? (
+            {activeBookings.items.length === 0 ? (
               <p>Ingen nuværende reservationer</p>
             ) : (
-              activeBookings.map((booking) => (<CaretakerBookingCard key={booking.id} booking={booking} onCancel={handleCancel} onComplete={onBookingComplete} trigger={() => setTrigger((prev) => !prev)} />))
+              activeBookings.items.map((booking) => (<CaretakerBookingCard key={booking.id} booking={booking} onCancel={handleCancel} onComplete={onBookingComplete} trigger={() => setTrigger((prev) => !prev)} />))
             )}
+            {loadMoreButton(activeBookings)}
           </div>
         </Collapse>
 
@@ -218,11 +224,12 @@ const CaretakerBookingOverview: React.FC = () => {
         </h3> <hr />
         <Collapse in={showFuture}>
           <div id="future-bookings-collapse">
-            {futureBookings.length === 0 ? (
+            {futureBookings.items.length === 0 ? (
               <p>Ingen kommende reservationer</p>
             ) : (
-              futureBookings.map((booking) => (<CaretakerBookingCard key={booking.id} booking={booking} onCancel={handleCancel} onComplete={onBookingComplete} trigger={() => setTrigger((prev) => !prev)} />))
+              futureBookings.items.map((booking) => (<CaretakerBookingCard key={booking.id} booking={booking} onCancel={handleCancel} onComplete={onBookingComplete} trigger={() => setTrigger((prev) => !prev)} />))
             )}
+            {loadMoreButton(futureBookings)}
           </div>
         </Collapse>
 
@@ -230,7 +237,7 @@ const CaretakerBookingOverview: React.FC = () => {
         <h3>
           <Button
             variant="secondary"
-            onClick={() => setShowPast(!showPast)}
+            onClick={togglePast}
             aria-controls="past-bookings-collapse"
             aria-expanded={showPast}
             className="fs-5"
@@ -240,11 +247,12 @@ const CaretakerBookingOverview: React.FC = () => {
         </h3> <hr />
         <Collapse in={showPast}>
           <div id="past-bookings-collapse">
-            {pastBookings.length === 0 ? (
-              <p>Ingen tidligere reservationer</p>
+            {pastBookings.items.length === 0 ? (
+              <p>{pastBookings.loaded ? "Ingen tidligere reservationer" : "Henter reservationer..."}</p>
             ) : (
-              pastBookings.map((booking) => (<CaretakerBookingCard key={booking.id} booking={booking} onCancel={handleCancel} onComplete={onBookingComplete} trigger={() => setTrigger((prev) => !prev)} />))
+              pastBookings.items.map((booking) => (<CaretakerBookingCard key={booking.id} booking={booking} onCancel={handleCancel} onComplete={onBookingComplete} trigger={() => setTrigger((prev) => !prev)} />))
             )}
+            {loadMoreButton(pastBookings)}
           </div>
         </Collapse>
       </div>
@@ -2,6 +2,7 @@ import React, { useState, useEffect } from "react";
 import TenantBookingCard from "./TenantBookingCard";
 import { Collapse, Button } from "react-bootstrap";
 import ApiService from "../../../utils/ApiService";
+import { usePagedList } from "../../../utils/pagingSupport";
 import Resource from "../../modelInterfaces/Resource";
 
 interface TenantBooking {
@@ -17,65 +18,57 @@ interface TenantBooking {
   dropoffTime: string;
 }
 
+const toTenantBooking = (booking: any): TenantBooking => ({
+  id: booking.id,
+  resource: booking.resource,
+  tenantName: booking.user.name,
+  startDate: new Date(booking.startDate),
+  endDate: new Date(booking.endDate),
+  status: booking.status,
+  contactNumber: booking.user.mobileNumber,
+  apartmentAddress: booking.user.houseAddress,
+  pickupTime: booking.pickupTime,
+  dropoffTime: booking.dropoffTime,
+});
+
+// Each section asks the server for its own statuses, one page at a time
+const fetchOwnBookings = async (status: string[], cursor?: string) => {
+  const page = await ApiService.fetchPage<any>("tenant/getOwnBookings", { status }, cursor);
+  return { items: page.items.map(toTenantBooking), nextCursor: page.nextCursor };
+};
+
 const TenantBookingOverview: React.FC = () => {
-  const [bookings, setBookings] = useState<TenantBooking[]>([]);
+  const activeBookings = usePagedList((cursor) => fetchOwnBookings(["CONFIRMED"], cursor));
+  const futureBookings = usePagedList((cursor) => fetchOwnBookings(["PENDING"], cursor));
+  const pastBookings = usePagedList((cursor) => fetchOwnBookings(["COMPLETED"], cursor));
   const [showActive, setShowActive] = useState(true);
   const [showFuture, setShowFuture] = useState(true);
-  const [showPast, setShowPast] = useState(true);
+  const [showPast, setShowPast] = useState(false);
 
-  const fetchBookings = async () => {
-    try {
-      const response = await ApiService.fetchData<any>("tenant/getOwnBookings");
-      const transformedBookings: TenantBooking[] = response.data.map(
-        (booking: any) => ({
-          id: booking.id,
-          resource: booking.resource,
-          tenantName: booking.user.name,
-          startDate: new Date(booking.startDate),
-          endDate: new Date(booking.endDate),
-          status: booking.status,
-          contactNumber: booking.user.mobileNumber,
-          apartmentAddress: booking.user.houseAddress,
-          pickupTime: booking.pickupTime,
-          dropoffTime: booking.dropoffTime,
-        })
-      );
-      setBookings(transformedBookings);
-    } catch (error) {
-      console.error("Error fetching bookings:", error);
-    }
+  const fetchBookings = () => {
+    activeBookings.reload();
+    futureBookings.reload();
   };
 
   useEffect(() => {
     fetchBookings();
   }, []);
 
-  const currentDate = new Date();
-
-  const activeBookings = bookings.filter(
-    (booking) =>
-      (booking.startDate <= currentDate &&
-        booking.endDate >= currentDate &&
-        booking.status === "CONFIRMED") ||
-      booking.status === "CONFIRMED"
-  );
-
-  const futureBookings = bookings.filter(
-    (booking) =>
-      (booking.startDate > currentDate && booking.status === "PENDING") ||
-      booking.status === "PENDING"
-  );
-
-  const pastBookings = bookings.filter(
-    (booking) =>
-      (booking.endDate < currentDate && booking.status === "COMPLETED") ||
-      booking.status === "COMPLETED"
-  );
+  // The booking history is only fetched once it is opened
+  const togglePast = () => {
+    if (!showPast && !pastBookings.loaded) {
+      pastBookings.reload();
+    }
+    setShowPast(!showPast);
+  };
 
   const handleCancel = async (id: number) => {
     try {
       await ApiService.updateData(`tenant/cancelBooking/${id}`);
-      setBookings((prevBookings) =>
+      activeBookings.setItems((prevBookings) =>
+        prevBookings.filter((booking) => booking.id !== id)
+      );
+      futureBookings.setItems((prevBookings) =>
         prevBookings.filter((booking) => booking.id !== id)
       );
       window.dispatchEvent(new Event("bookingCanceled"));
@@ -84,6 +77,15 @@ const TenantBookingOverview: React.FC = () => {
     }
   };
 
+  const loadMoreButton = (bookings: { hasMore: boolean; loading: boolean; loadMore: () => void }) =>
+    bookings.hasMore && (
+      <div className="text-center mb-3">
+        <Button variant="outline-secondary" onClick={bookings.loadMore} disabled={bookings.loading}>
+          Vis flere
+        </Button>
+      </div>
+    );
+
   return (
     <div className="container mt-4 border border-dark rounded mb-3">
       <h2 className="text-center mb-5">
@@ -104,10 +106,10 @@ const TenantBookingOverview: React.FC = () => {
       <hr />
       <Collapse in={showActive}>
         <div id="active-bookings-collapse">
-          {activeBookings.length === 0 ? (
+          {activeBookings.items.length === 0 ? (
             <p>Ingen nuværende reservationer</p>
           ) : (
-            activeBookings.map((booking) => (
+            activeBookings.items.map((booking) => (
               <TenantBookingCard
                 key={booking.id}
                 booking={booking}
@@ -117,6 +119,7 @@ const TenantBookingOverview: React.FC = () => {
               />
             ))
           )}
+          {loadMoreButton(activeBookings)}
         </div>
       </Collapse>
 
@@ -134,10 +137,10 @@ const TenantBookingOverview: React.FC = () => {
       <hr />
       <Collapse in={showFuture}>
         <div id="future-bookings-collapse">
-          {futureBookings.length === 0 ? (
+          {futureBookings.items.length === 0 ? (
             <p>Ingen fremtidige reservationer</p>
           ) : (
-            futureBookings.map((booking) => (
+            futureBookings.items.map((booking) => (
               <TenantBookingCard
                 key={booking.id}
                 booking={booking}
@@ -147,6 +150,7 @@ const TenantBookingOverview: React.FC = () => {
               />
             ))
           )}
+          {loadMoreButton(futureBookings)}
         </div>
       </Collapse>
 
@@ -154,7 +158,7 @@ const TenantBookingOverview: React.FC = () => {
       <h3>
         <Button
           variant="secondary"
-          onClick={() => setShowPast(!showPast)}
+          onClick={togglePast}
           aria-controls="past-bookings-collapse"
           aria-expanded={showPast}
         >
@@ -164,10 +168,10 @@ const TenantBookingOverview: React.FC = () => {
       <hr />
       <Collapse in={showPast}>
         <div id="past-bookings-collapse">
-          {pastBookings.length === 0 ? (
-            <p>Ingen tidligere reservationer</p>
+          {pastBookings.items.length === 0 ? (
+            <p>{pastBookings.loaded ? "Ingen tidligere reservationer" : "Henter reservationer..."}</p>
           ) : (
-            pastBookings.map((booking) => (
+            pastBookings.items.map((booking) => (
               <TenantBookingCard
                 key={booking.id}
                 booking={booking}
@@ -177,6 +181,7 @@ const TenantBookingOverview: React.FC = () => {
               />
             ))
           )}
+          {loadMoreButton(pastBookings)}
         </div>
       </Collapse>
     </div>
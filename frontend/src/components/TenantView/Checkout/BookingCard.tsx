@@ -23,22 +23,26 @@ const BookingCard: React.FC<BookingCardProps> = ({
   const [isEditing, setIsEditing] = useState(false);
   const [editedBooking, setEditedBooking] = useState<Booking>(booking);
   const [bookedDates, setBookedDates] = useState<BookingDate[]>([]);
+  const [visibleMonth, setVisibleMonth] = useState<Date>(new Date());
   const [capacity, setCapacity] = useState<number>(0)
 
   useEffect (() => {
-    getBookings(booking.resourceType, booking.resourceID)
     getCapacity()
     console.log("EDITED BOOKING", editedBooking)
   }, []);
 
 
+  useEffect(() => {
+    getBookings(booking.resourceType, booking.resourceID, visibleMonth)
+  }, [visibleMonth]);
+
   const parseDate = (date: string | Date | null): string => {
     return date ? new Date(date).toLocaleDateString() : "N/A";
   };
 
-  const getBookings = async ( resourceType: ResourceType, id: number) => {
+  const getBookings = async ( resourceType: ResourceType, id: number, month: Date) => {
     try {
-      const bookedDatesResponse = await ApiService.fetchBookings(resourceType, id)
+      const bookedDatesResponse = await ApiService.fetchBookings(resourceType, id, month)
       console.log("bookedDates for", booking.resourceName, bookedDatesResponse);
       setBookedDates(bookedDatesResponse.data)
     } catch(error) {
@@ -89,6 +93,7 @@ const BookingCard: React.FC<BookingCardProps> = ({
             <BookingModalCalendar
               bookedDates={bookedDates}
               onDateChange={handleDateChange}
+              onVisibleMonthChange={setVisibleMonth}
               resourceCapacity={capacity}
               initialStartDate={null}
               initialEndDate={null}
@@ -12,6 +12,7 @@ interface BookingModalCalendarProps {
   initialEndDate: Date | null;
   inProgress: boolean | undefined;
   isDone: boolean | undefined;
+  onVisibleMonthChange?: (month: Date) => void;
 }
 
 const BookingModalCalendar: React.FC<BookingModalCalendarProps> = ({
@@ -22,6 +23,7 @@ const BookingModalCalendar: React.FC<BookingModalCalendarProps> = ({
   initialEndDate,
   inProgress,
   isDone,
+  onVisibleMonthChange,
 }) => {
   const [selectedStart, setSelectedStart] = useState<Date | null>(initialStartDate);
   const [selectedEnd, setSelectedEnd] = useState<Date | null>(
@@ -93,6 +95,11 @@ const BookingModalCalendar: React.FC<BookingModalCalendarProps> = ({
           return "free-tile";
         }}
         onClickDay={handleDateClick}
+        onActiveStartDateChange={({ activeStartDate }) => {
+          if (activeStartDate && onVisibleMonthChange) {
+            onVisibleMonthChange(activeStartDate);
+          }
+        }}
         tileDisabled={({ date }) => !!(isBeforeToday(date) || (inProgress && selectedStart && date < selectedStart))}
       />
       <div className="calendar-legend">
@@ -29,6 +29,7 @@ const CreateBookingModal: React.FC<CreateBookingModalProps> = ({
   tenant
 }) => {
   const [bookedDates, setBookedDates] = useState<BookingDate[]>([]);
+  const [visibleMonth, setVisibleMonth] = useState<Date>(new Date());
   const [bookingFormData, setBookingData] = useState<Booking>(
     booking
       ? booking
@@ -54,7 +55,8 @@ const CreateBookingModal: React.FC<CreateBookingModalProps> = ({
     try {
       const response = await ApiService.fetchBookings(
         resource.type,
-        resource.id
+        resource.id,
+        visibleMonth
       );
       setBookedDates(response.data);
     } catch (error) {
@@ -67,7 +69,7 @@ const CreateBookingModal: React.FC<CreateBookingModalProps> = ({
       await fetchBookedDates();
     };
     fetchDates();
-  }, [resource.type, resource.id]);
+  }, [resource.type, resource.id, visibleMonth]);
 
   const handleDateChange = (start: Date | null, end: Date | null) => {
     setBookingData({
@@ -182,6 +184,7 @@ const CreateBookingModal: React.FC<CreateBookingModalProps> = ({
             <BookingModalCalendar
               bookedDates={bookedDates}
               onDateChange={handleDateChange}
+              onVisibleMonthChange={setVisibleMonth}
               resourceCapacity={resource.capacity}
               initialStartDate={booking ? booking.startDate : null}
               initialEndDate={booking ? booking.endDate : null}
@@ -8,12 +8,20 @@ interface CardImageProps {
   id: number;
   type: ResourceType;
   name: string;
+  pictureFileName?: string;
 }
 
-const CardImage: React.FC<CardImageProps> = ({ id, type, name }) => {
+// Roughly how wide a card is drawn in device pixels, following the grid columns of ResourceCard
+const cardImageSize = () => {
+  const width = window.innerWidth;
+  const columns = width >= 768 ? 6 : width >= 576 ? 3 : 1;
+  return Math.ceil((width / columns) * (window.devicePixelRatio || 1));
+};
+
+const CardImage: React.FC<CardImageProps> = ({ id, type, name, pictureFileName }) => {
   const fetchImage = async () => {
     try {
-      const response = await ApiService.fetchResourcePic(type, id);
+      const response = await ApiService.fetchResourcePic(type, id, { params: { size: cardImageSize() } }, pictureFileName);
       return response.data;
     } catch {
       return null;
@@ -31,7 +31,12 @@ const ResourceCard: React.FC<ResourceCardProps> = ({ resource, loading }) => {
           </>
         ) : (
           <>
-            <CardImage id={resource.id} type={resource.type} name={resource.name} />
+            <CardImage
+              id={resource.id}
+              type={resource.type}
+              name={resource.name}
+              pictureFileName={resource.resourcePictureFileName}
+            />
             <CardBody
               name={resource.name}
               description={resource.description}
@@ -6,6 +6,7 @@ export default interface Resource {
     type: ResourceType;
     name: string;
     img: string;
+    resourcePictureFileName?: string;
     description: string;
     status: string;
     capacity: number;
@@ -2,6 +2,35 @@ import axios, { AxiosResponse, AxiosRequestConfig } from "axios";
 import { ResourceType } from "./EnumSupport";
 import { getUserRole } from "./authConfig";
 import Resource from "../components/modelInterfaces/Resource";
+import { getCalendarRange, toIsoDateString } from "./BookingSupport";
+import { Page } from "./pagingSupport";
+
+const AUTH_ENDPOINTS = ["login", "refresh", "logout"];
+let pendingRefresh: Promise<unknown> | null = null;
+
+// Access tokens are short-lived. When one has expired, trade the refresh token
+// cookie for a new pair once and retry the request. Requests failing at the
+// same time share a single refresh.
+axios.interceptors.response.use(undefined, async (error) => {
+  const config = error.config as (AxiosRequestConfig & { _retried?: boolean }) | undefined;
+  const isAuthEndpoint = AUTH_ENDPOINTS.some((endpoint) => config?.url?.endsWith("/api/" + endpoint));
+  if (error.response?.status !== 401 || !config || config._retried || isAuthEndpoint || !getUserRole()) {
+    throw error;
+  }
+
+  pendingRefresh ??= axios
+    .post("http://localhost:8080/api/refresh", null, { withCredentials: true })
+    .finally(() => {
+      pendingRefresh = null;
+    });
+  try {
+    await pendingRefresh;
+  } catch {
+    throw error;
+  }
+  config._retried = true;
+  return axios.request(config);
+});
 
 class ApiService {
   private baseUrl: string;
@@ -62,6 +91,19 @@ class ApiService {
     return this.makeRequest<T>("delete", endpoint, undefined, options);
   }
 
+  // Fetches one page of a keyset-paginated endpoint. Pass the returned cursor to get the next page
+  public async fetchPage<T>(
+    endpoint: string,
+    params: Record<string, any> = {},
+    cursor?: string
+  ): Promise<Page<T>> {
+    const response = await this.fetchData<T[]>(endpoint, {
+      params: cursor ? { ...params, cursor } : params,
+      paramsSerializer: { indexes: null },
+    });
+    return { items: response.data, nextCursor: response.headers["x-next-cursor"] as string | undefined };
+  }
+
   public async fetchImage(endpoint: string): Promise<AxiosResponse<Blob>> {
     return this.makeRequest<Blob>("get", endpoint, undefined, {
       responseType: "blob",
@@ -250,14 +292,17 @@ class ApiService {
   public async fetchResourcePic(
     resourceType: ResourceType,
     id: number,
-    options: AxiosRequestConfig = {}
+    options: AxiosRequestConfig = {},
+    pictureFileName?: string
   ): Promise<AxiosResponse<Blob>> {
     try {
       const endpoint = `/${id}/picture`;
 
+      // With the file name in the URL the browser may cache the picture for good
       const mergedOptions: AxiosRequestConfig = {
         responseType: "blob",
         ...options,
+        params: { ...options.params, ...(pictureFileName ? { v: pictureFileName } : {}) },
       };
       return await this.fetchByResourceType(resourceType, endpoint, mergedOptions);
     } catch (error) {
@@ -268,10 +313,12 @@ class ApiService {
 
   public async fetchBookings(
     resourceType: ResourceType,
-    id: number
+    id: number,
+    visibleMonth: Date = new Date()
   ): Promise<AxiosResponse<any>> {
     try {
-      let endpoint = `/${id}/booked-dates`;
+      const { from, to } = getCalendarRange(visibleMonth);
+      let endpoint = `/${id}/booked-dates?from=${toIsoDateString(from)}&to=${toIsoDateString(to)}`;
       return await this.fetchByResourceType(resourceType, endpoint);
     } catch (error) {
       throw error;
@@ -14,6 +14,22 @@ export const isBeforeToday = (date: Date): boolean => {
   return date < today;
 };
 
+// yyyy-MM-dd in local time, the format the backend expects for date parameters
+export const toIsoDateString = (date: Date): string => {
+  const month = String(date.getMonth() + 1).padStart(2, "0");
+  const day = String(date.getDate()).padStart(2, "0");
+  return `${date.getFullYear()}-${month}-${day}`;
+};
+
+// The month view also shows the end of the previous and the start of the next month
+export const getCalendarRange = (month: Date): { from: Date; to: Date } => {
+  const from = new Date(month.getFullYear(), month.getMonth(), 1);
+  from.setDate(from.getDate() - 7);
+  const to = new Date(month.getFullYear(), month.getMonth() + 1, 0);
+  to.setDate(to.getDate() + 14);
+  return { from, to };
+};
+
 export const getValidBookingDaysCount = (start: Date, end: Date): number => {
   let count = 0;
   let currentDate = new Date(start);
@@ -0,0 +1,43 @@
+import { useCallback, useRef, useState } from "react";
+
+export interface Page<T> {
+  items: T[];
+  nextCursor?: string;
+}
+
+// Holds the pages of a keyset-paginated listing loaded so far. Nothing is
+// fetched until reload is called, and further pages only on loadMore.
+export const usePagedList = <T>(fetchPage: (cursor?: string) => Promise<Page<T>>) => {
+  const [items, setItems] = useState<T[]>([]);
+  const [nextCursor, setNextCursor] = useState<string>();
+  const [loaded, setLoaded] = useState(false);
+  const [loading, setLoading] = useState(false);
+
+  // Always call the latest fetch function, so callers can pass an inline one
+  const fetchPageRef = useRef(fetchPage);
+  fetchPageRef.current = fetchPage;
+
+  const load = useCallback(async (cursor?: string) => {
+    setLoading(true);
+    try {
+      const page = await fetchPageRef.current(cursor);
+      setItems((previous) => (cursor ? [...previous, ...page.items] : page.items));
+      setNextCursor(page.nextCursor);
+      setLoaded(true);
+    } catch (error) {
+      console.error("Error fetching page:", error);
+    } finally {
+      setLoading(false);
+    }
+  }, []);
+
+  const reload = useCallback(() => load(), [load]);
+
+  const loadMore = useCallback(() => {
+    if (nextCursor && !loading) {
+      load(nextCursor);
+    }
+  }, [load, nextCursor, loading]);
+
+  return { items, setItems, hasMore: nextCursor !== undefined, loaded, loading, reload, loadMore };
+};